@@ -22,10 +22,22 @@ android {
             proguardFiles(getDefaultProguardFile("proguard-android-optimize.txt"), "proguard-rules.pro")
         }
     }
+    buildFeatures {
+        // BuildConfig.DEBUG selects the default log level (see AppLog)
+        buildConfig = true
+    }
     compileOptions {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
     }
+    testOptions {
+        // Local unit tests run ApiDataSource on the host JVM; make android.util.Log a no-op
+        unitTests.isReturnDefaultValues = true
+    }
+    sourceSets {
+        // Test fixtures shared with the benchmark module (see benchmark/build.gradle.kts)
+        getByName("test").java.srcDir("src/sharedTest/java")
+    }
 }
 
 dependencies {
@@ -2,11 +2,22 @@ package ex.dev.sample.pos.control;
 
 import android.os.Bundle;
 import android.content.Intent;
+import android.util.Log;
+import android.widget.TextView;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Future;
+
 import ex.dev.sample.pos.control.cash.CashActivity;
+import ex.dev.sample.pos.control.data.ApiDataSource;
+import ex.dev.sample.pos.control.data.DeviceSnapshot;
+import ex.dev.sample.pos.control.data.DeviceWarmUp;
+import ex.dev.sample.pos.control.diagnostics.DiagnosticsActivity;
 import ex.dev.sample.pos.control.display.SecondDisplayControlActivity;
 import ex.dev.sample.pos.control.vid.VidAllowListActivity;
 
@@ -17,14 +28,36 @@ import ex.dev.sample.pos.control.vid.VidAllowListActivity;
  * - CashActivity
  * - SecondDisplayActivity
  * - VidActivity
+ * - DiagnosticsActivity
+ * Shows whether the background SDK warm-up (see {@link PosControlApplication}) is done,
+ * and a dashboard of the whole device state read in one round ({@link DeviceSnapshot}).
  */
 public class MainActivity extends AppCompatActivity {
 
+    private static final String TAG = "MainActivity";
+    // The full allow list (possibly thousands of VIDs) is on the VID screen
+    private static final int DASHBOARD_VIDS_SHOWN = 5;
+
+    private final ApiDataSource dataSource = new ApiDataSource();
+
+    @Nullable
+    private Future<Void> warmUpFuture;
+    @Nullable
+    private Future<DeviceSnapshot> dashboardFuture;
+
+    private TextView tvDashboard;
+
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
+        showWarmUpStatus(findViewById(R.id.tv_device_status));
+        tvDashboard = findViewById(R.id.tv_dashboard);
+        findViewById(R.id.btn_refresh_dashboard).setOnClickListener(v -> loadDashboard(true));
+        // The dashboard shows only the first VIDs; tap it for the whole list
+        tvDashboard.setOnClickListener(v -> startActivity(new Intent(this, VidAllowListActivity.class)));
+
         // Navigate to CashActivity
         findViewById(R.id.btn_cash_drawer).setOnClickListener(
                 v -> startActivity(new Intent(this, CashActivity.class))
@@ -39,5 +72,108 @@ public class MainActivity extends AppCompatActivity {
         findViewById(R.id.btn_vid).setOnClickListener(
                 v -> startActivity(new Intent(this, VidAllowListActivity.class))
         );
+
+        // Navigate to DiagnosticsActivity
+        findViewById(R.id.btn_diagnostics).setOnClickListener(
+                v -> startActivity(new Intent(this, DiagnosticsActivity.class))
+        );
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        // Other screens may have changed the state; cached values are reused
+        loadDashboard(false);
+    }
+
+    @Override
+    protected void onDestroy() {
+        // Drop pending callbacks; they must not touch views after destroy
+        if (warmUpFuture != null) warmUpFuture.cancel(false);
+        if (dashboardFuture != null) dashboardFuture.cancel(false);
+        super.onDestroy();
+    }
+
+    /**
+     * Show the warm-up state now and update it when the warm-up finishes
+     */
+    private void showWarmUpStatus(TextView tvStatus) {
+        DeviceWarmUp warmUp = DeviceWarmUp.getDefault();
+        warmUpFuture = warmUp.whenReady(new ApiDataSource.Callback<Void>() {
+            @Override
+            public void onSuccess(Void result) {
+                tvStatus.setText(getString(R.string.device_status_ready, warmUp.getDurationMs()));
+            }
+
+            @Override
+            public void onError(@NonNull Throwable t) {
+                tvStatus.setText(getString(R.string.device_status_failed, t.getMessage()));
+            }
+        });
+    }
+
+    // -------------------- dashboard --------------------
+
+    /**
+     * Read the device state in one round and render it
+     *
+     * @param forceRefresh skip the cached state
+     */
+    private void loadDashboard(boolean forceRefresh) {
+        if (dashboardFuture != null) dashboardFuture.cancel(false);
+        dashboardFuture = dataSource.snapshotAsync(forceRefresh, new ApiDataSource.Callback<DeviceSnapshot>() {
+            @Override
+            public void onSuccess(DeviceSnapshot snapshot) {
+                tvDashboard.setText(formatSnapshot(snapshot));
+            }
+
+            @Override
+            public void onError(@NonNull Throwable t) {
+                // Field errors are reported in the snapshot; this is unexpected
+                Log.e(TAG, "snapshot error", t);
+            }
+        });
+    }
+
+    private static String formatSnapshot(DeviceSnapshot s) {
+        StringBuilder sb = new StringBuilder();
+        appendField(sb, "Cash drawer", s.cashDrawerOpen, s.cashDrawerOpen.value == null ? null
+                : s.cashDrawerOpen.value ? "OPEN" : "CLOSED");
+        appendField(sb, "VID allow list", s.vidAllowListEnabled, s.vidAllowListEnabled.value == null ? null
+                : s.vidAllowListEnabled.value ? "ENABLED" : "DISABLED");
+        List<String> vids = s.vidAllowList.value;
+        appendField(sb, "VIDs", s.vidAllowList, vids == null ? null : formatVids(vids));
+        appendField(sb, "2nd touch", s.touchEnabled, s.touchEnabled.value == null ? null
+                : s.touchEnabled.value ? "ENABLED" : "DISABLED");
+        sb.append(String.format(Locale.US, "%-15s %s", "Total", formatMicros(s.totalUs)));
+        return sb.toString();
+    }
+
+    /**
+     * "n: a, b, c, ... (+m on VID screen)"; only the first few VIDs are formatted
+     */
+    private static String formatVids(List<String> vids) {
+        if (vids.isEmpty()) return "(none)";
+        StringBuilder sb = new StringBuilder().append(vids.size()).append(": ");
+        int shown = Math.min(vids.size(), DASHBOARD_VIDS_SHOWN);
+        for (int i = 0; i < shown; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(vids.get(i));
+        }
+        if (vids.size() > shown) sb.append(", ... (+").append(vids.size() - shown).append(" on VID screen)");
+        return sb.toString();
+    }
+
+    private static void appendField(StringBuilder sb, String label, DeviceSnapshot.Field<?> field,
+                                    @Nullable String text) {
+        String value = field.isOk() ? text : "ERROR " + field.error.getMessage();
+        String timing = field.cached ? "cached" : formatMicros(field.elapsedUs);
+        sb.append(String.format(Locale.US, "%-15s %-8s %s%n", label, timing, value));
+    }
+
+    private static String formatMicros(long us) {
+        if (us < 1000) return us + "us";
+        if (us < 1_000_000) return String.format(Locale.US, "%.1fms", us / 1000.0);
+        return String.format(Locale.US, "%.2fs", us / 1_000_000.0);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,24 @@
+package ex.dev.sample.pos.control;
+
+import android.app.Application;
+
+import ex.dev.sample.pos.control.data.DeviceWarmUp;
+import ex.dev.sample.pos.control.vid.BlockedVidRecorder;
+
+/**
+ * PosControlApplication
+ * Starts the SDK warm-up in the background as soon as the process starts, so screens
+ * opened from {@link MainActivity} find the device state already cached, and records
+ * blocked VIDs for as long as the process runs.
+ */
+public class PosControlApplication extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        // Queued on the SDK thread; never blocks the main thread
+        DeviceWarmUp.getDefault().start();
+        // Blocked VIDs are logged even when the VID screen is not showing
+        BlockedVidRecorder.getDefault(this).register();
+    }
+}
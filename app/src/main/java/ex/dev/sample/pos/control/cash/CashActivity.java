@@ -9,16 +9,26 @@ import android.widget.Toast;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
 import ex.dev.sample.pos.control.R;
 import ex.dev.sample.pos.control.data.ApiDataSource;
+import ex.dev.sample.pos.control.data.CashDrawerCommandQueue;
+import ex.dev.sample.pos.control.data.CashDrawerWatcher;
+import ex.dev.sample.pos.control.log.AppLog;
 
 
 /**
  * Cash screen (Java + XML)
  * Responsibilities:
- * - Open: open cash drawer (does NOT change status text)
+ * - Open: open cash drawer (status text follows via the watcher)
  * - Get Status: query API and update UI
  * - Initial state: fetch status from API on create
+ * - While visible: {@link CashDrawerWatcher} pushes open/close transitions to the status text
+ * <p>
+ * All API calls run asynchronously; the UI is busy while any call is in flight.
  */
 public class CashActivity extends AppCompatActivity {
 
@@ -32,10 +42,19 @@ public class CashActivity extends AppCompatActivity {
     // -------------------- dependencies & state --------------------
     // API data source (wrapper around SDK)
     private final ApiDataSource dataSource = new ApiDataSource();
+    // Collapses rapid duplicate opens (shared with other callers in the process)
+    private final CashDrawerCommandQueue openQueue = CashDrawerCommandQueue.getDefault();
+
+    // Polls drawer state while the screen is visible
+    private final CashDrawerWatcher watcher = new CashDrawerWatcher(dataSource);
+    private final CashDrawerWatcher.Listener drawerListener = this::updateStatusText;
 
     // Prevents multiple actions at the same time
     private boolean busy = false;
 
+    // API calls that have been submitted but not yet delivered
+    private final List<Future<?>> inFlight = new ArrayList<>();
+
     // -------------------- views --------------------
     private Button btnOpen;        // "Open" button
     private Button btnGetStatus;   // "Get Status" button
@@ -54,6 +73,28 @@ public class CashActivity extends AppCompatActivity {
         initializeStatusFromApi();
     }
 
+    @Override
+    protected void onStart() {
+        super.onStart();
+        watcher.addListener(drawerListener);
+        watcher.start();
+    }
+
+    @Override
+    protected void onStop() {
+        watcher.stop();
+        watcher.removeListener(drawerListener);
+        super.onStop();
+    }
+
+    @Override
+    protected void onDestroy() {
+        // Drop pending callbacks; they must not touch views after destroy
+        for (Future<?> f : inFlight) f.cancel(false);
+        inFlight.clear();
+        super.onDestroy();
+    }
+
     // -------------------- init / bind --------------------
 
     /**
@@ -79,53 +120,67 @@ public class CashActivity extends AppCompatActivity {
      * Called on activity start: fetch status from API and update UI
      */
     private void initializeStatusFromApi() {
-        setBusy(true);
-        try {
-            boolean raw = dataSource.isOpenedCashDrawer();
-            updateStatusText(raw);
-            Log.d(TAG, "init status raw=" + raw);
-        } catch (Throwable t) {
-            Log.e(TAG, "initializeStatusFromApi error", t);
-            showToast("Init status failed: " + t.getMessage());
-        } finally {
-            setBusy(false);
-        }
+        track(dataSource.isOpenedCashDrawerAsync(new ApiDataSource.Callback<Boolean>() {
+            @Override
+            public void onSuccess(Boolean raw) {
+                settle();
+                updateStatusText(raw);
+                AppLog.d(TAG, "init status raw", raw);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                settle();
+                Log.e(TAG, "initializeStatusFromApi error", t);
+                showToast("Init status failed: " + t.getMessage());
+            }
+        }));
     }
 
     /**
-     * Called when "Get Status" button is pressed: refresh status from API
+     * Called when "Get Status" button is pressed: refresh status from API (bypasses the cache)
      */
     private void refreshStatusFromApi() {
-        setBusy(true);
-        try {
-            boolean raw = dataSource.isOpenedCashDrawer();
-            updateStatusText(raw);
-            showToast(raw ? STATUS_OPEN : STATUS_CLOSE);
-            Log.d(TAG, "refresh status raw=" + raw);
-        } catch (Throwable t) {
-            Log.e(TAG, "refreshStatusFromApi error", t);
-            showToast("Get Status: error - " + t.getMessage());
-        } finally {
-            setBusy(false);
-        }
+        track(dataSource.isOpenedCashDrawerAsync(true, new ApiDataSource.Callback<Boolean>() {
+            @Override
+            public void onSuccess(Boolean raw) {
+                settle();
+                updateStatusText(raw);
+                showToast(raw ? STATUS_OPEN : STATUS_CLOSE);
+                AppLog.d(TAG, "refresh status raw", raw);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                settle();
+                Log.e(TAG, "refreshStatusFromApi error", t);
+                showToast("Get Status: error - " + t.getMessage());
+            }
+        }));
     }
 
     /**
-     * Called when "Open" button is pressed: open cash drawer (no UI update)
+     * Called when "Open" button is pressed: open cash drawer.
+     * The status text is updated by the watcher once the drawer actually opens.
      */
     private void onClickOpen() {
-        setBusy(true);
-        try {
-            boolean ok = dataSource.openCashDrawer();
-            showToast(ok ? "Open: success" : "Open: failed");
-            Log.d(TAG, "openCashDrawer -> " + ok);
-            // NOTE: does not update tvStatus by design
-        } catch (Throwable t) {
-            Log.e(TAG, "openCashDrawer error", t);
-            showToast("Open: error - " + t.getMessage());
-        } finally {
-            setBusy(false);
-        }
+        track(openQueue.requestOpen(new ApiDataSource.Callback<Boolean>() {
+            @Override
+            public void onSuccess(Boolean ok) {
+                settle();
+                showToast(ok ? "Open: success" : "Open: failed");
+                AppLog.d(TAG, "openCashDrawer", ok);
+                // Poll fast until the drawer state settles
+                if (ok) watcher.boost();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                settle();
+                Log.e(TAG, "openCashDrawer error", t);
+                showToast("Open: error - " + t.getMessage());
+            }
+        }));
     }
 
     // -------------------- helpers --------------------
@@ -137,6 +192,22 @@ public class CashActivity extends AppCompatActivity {
         tvStatus.setText(isOpen ? STATUS_OPEN : STATUS_CLOSE);
     }
 
+    /**
+     * Register a submitted API call and mark UI busy
+     */
+    private void track(Future<?> future) {
+        inFlight.add(future);
+        setBusy(true);
+    }
+
+    /**
+     * Forget completed API calls; UI stays busy while any call is still in flight
+     */
+    private void settle() {
+        inFlight.removeIf(Future::isDone);
+        setBusy(!inFlight.isEmpty());
+    }
+
     /**
      * Enable/disable UI controls to prevent multiple actions
      */
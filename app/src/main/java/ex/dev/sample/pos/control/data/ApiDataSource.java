@@ -1,13 +1,26 @@
 package ex.dev.sample.pos.control.data;
 
-import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
-import device.sdk.Control;
-import device.sdk.PosManager;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import ex.dev.sample.pos.control.data.CallMetrics.Op;
+import ex.dev.sample.pos.control.data.DeviceStateCache.Key;
+import ex.dev.sample.pos.control.log.AppLog;
 
 /**
  * ApiDataSource
- * A wrapper around the SDK (PosManager and Control).
+ * A wrapper around the SDK (PosManager and Control), accessed through a {@link DeviceBackend}.
  * <p>
  * Provides clean, app-facing APIs for:
  * - Cash drawer control
@@ -17,14 +30,141 @@ import device.sdk.PosManager;
  * IMPORTANT:
  * - VID allow list operations (set, clear, enable) require a device reboot
  * to take effect. The caller (Activity/UI layer) is responsible for invoking
- * {@link #reboot()} after those operations succeed.
+ * {@link #reboot()} after those operations succeed, or stage them in a
+ * {@link VidAllowListTransaction} and {@link #commit} it to reboot only once.
+ * <p>
+ * CACHING:
+ * - State reads go through a {@link DeviceStateCache} with per-key TTLs. The matching
+ * setters invalidate it; pass {@code forceRefresh = true} to bypass it (e.g. Refresh buttons).
+ * - Successful reads and writes also update {@link DeviceStateCache#lastKnown()}, served to
+ * other apps by {@code DeviceStateProvider} without SDK calls.
+ * <p>
+ * THREADING:
+ * - The plain methods are blocking SDK calls.
+ * - The {@code *Async} methods run the same calls on the shared {@link SdkExecutor}
+ * thread and deliver the result to a {@link Callback} on the main thread
+ * (cache hits skip the SDK thread).
+ * - Concurrent identical reads share one SDK call ({@link SingleFlight}).
+ * - Async calls have per-operation deadlines and fail fast while the SDK is not responding
+ * ({@link SdkCallGuard}); the blocking methods have neither.
+ * - {@link #snapshotAsync} gathers the whole device state in one round ({@link DeviceSnapshot}).
+ * <p>
+ * RETRIES:
+ * - Transient SDK failures are retried with jittered exponential backoff, per the
+ * {@link RetryPolicy} ({@link #setRetryPolicy}).
+ * - Backoff never sleeps on the SDK thread, where it would stall every queued call: an async
+ * read or single-operation call is queued again after the backoff ({@link RetryScope}), and
+ * its own deadline keeps running. SDK calls inside {@link #submit} tasks are not retried.
+ * The blocking methods back off on the calling thread.
+ * - Opening the cash drawer is retried only when the SDK reports it did not open; reboot never.
+ * <p>
+ * METRICS:
+ * - Every SDK call is timed and counted in {@link CallMetrics} (see {@link #getMetrics()}).
+ * - The last calls are kept in a {@link CallTrace} (see {@link #getTrace()}); results
+ * are only formatted when the trace is dumped or DEBUG logging is enabled.
  */
 public class ApiDataSource {
 
     private static final String TAG = "ApiDataSource";
 
-    private static final PosManager manager = PosManager.get();
-    private static final Control control = Control.getInstance();
+    // Real SDK backend, created on first use and shared by all instances
+    private static final class SdkHolder {
+        static final DeviceBackend INSTANCE = new SdkDeviceBackend();
+    }
+
+    /**
+     * Result callback for async calls. Invoked on the callback (main) thread.
+     */
+    public interface Callback<T> {
+        void onSuccess(T result);
+
+        void onError(@NonNull Throwable t);
+    }
+
+    private final DeviceBackend backend;
+    private final SdkExecutor executor;
+    private final CallMetrics metrics;
+    private final CallTrace trace;
+    private final DeviceStateCache cache;
+    private volatile RetryPolicy retryPolicy = RetryPolicy.DEFAULT;
+
+    public ApiDataSource() {
+        this(SdkHolder.INSTANCE, SdkExecutor.getDefault(), CallMetrics.getDefault(), CallTrace.getDefault(),
+                DeviceStateCache.getDefault());
+    }
+
+    /**
+     * @param backend  device calls (real SDK or a test double)
+     * @param executor executor for the async API
+     */
+    public ApiDataSource(@NonNull DeviceBackend backend, @NonNull SdkExecutor executor) {
+        this(backend, executor, CallMetrics.getDefault(), CallTrace.getDefault());
+    }
+
+    /**
+     * @param metrics where call latencies and counters are recorded
+     * @param trace   where the last calls are recorded
+     */
+    public ApiDataSource(@NonNull DeviceBackend backend, @NonNull SdkExecutor executor,
+                         @NonNull CallMetrics metrics, @NonNull CallTrace trace) {
+        this(backend, executor, metrics, trace, new DeviceStateCache());
+    }
+
+    /**
+     * @param cache device state cache; share it only between instances using the same backend
+     */
+    public ApiDataSource(@NonNull DeviceBackend backend, @NonNull SdkExecutor executor,
+                         @NonNull CallMetrics metrics, @NonNull CallTrace trace,
+                         @NonNull DeviceStateCache cache) {
+        this.backend = backend;
+        this.executor = executor;
+        this.metrics = metrics;
+        this.trace = trace;
+        this.cache = cache;
+    }
+
+    /**
+     * Latency histograms and counters of the SDK calls made through this instance.
+     */
+    @NonNull
+    public CallMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Ring buffer of the last SDK calls made through this instance.
+     */
+    @NonNull
+    public CallTrace getTrace() {
+        return trace;
+    }
+
+    @NonNull
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Policy for the following SDK calls; {@link RetryPolicy#NONE} disables retries.
+     */
+    public void setRetryPolicy(@NonNull RetryPolicy policy) {
+        retryPolicy = policy;
+    }
+
+    /**
+     * Executor behind the async API (for queues layered on this data source).
+     */
+    SdkExecutor executor() {
+        return executor;
+    }
+
+    /**
+     * Device state cache behind the read methods.
+     */
+    @NonNull
+    public DeviceStateCache getCache() {
+        return cache;
+    }
 
     // --------------------------------------------------------------------------
     // Cash drawer API
@@ -34,15 +174,37 @@ public class ApiDataSource {
      * Open the cash drawer.
      */
     public boolean openCashDrawer() {
-        return manager.openCashBox();
+        try {
+            // Retried only while the SDK reports it did not open and the drawer reads closed
+            // (never after an exception)
+            return call(Op.OPEN_CASH_BOX, backend::openCashBox, result -> result);
+        } finally {
+            cache.invalidate(Key.CASH_BOX_STATUS);
+        }
     }
 
     /**
-     * Check if the cash drawer is currently open.
+     * Check if the cash drawer is currently open (cached for a short time).
      */
     public boolean isOpenedCashDrawer() {
-        boolean result = manager.getCashBoxStatus();
-        Log.d(TAG, "isOpenedCashDrawer: " + result);
+        return isOpenedCashDrawer(false);
+    }
+
+    /**
+     * @param forceRefresh skip the cache and read the device
+     */
+    public boolean isOpenedCashDrawer(boolean forceRefresh) {
+        if (!forceRefresh) {
+            Boolean cached = (Boolean) cache.get(Key.CASH_BOX_STATUS);
+            if (cached != null) return cached;
+        }
+        return cache.flights().run(Key.CASH_BOX_STATUS, this::readCashBoxStatus);
+    }
+
+    private Boolean readCashBoxStatus() {
+        long generation = cache.generation(Key.CASH_BOX_STATUS);
+        Boolean result = call(Op.GET_CASH_BOX_STATUS, backend::getCashBoxStatus, r -> r);
+        cache.put(Key.CASH_BOX_STATUS, result, generation);
         return result;
     }
 
@@ -51,11 +213,27 @@ public class ApiDataSource {
     // --------------------------------------------------------------------------
 
     /**
-     * Check if VID allow list feature is enabled.
+     * Check if VID allow list feature is enabled (cached).
      */
     public boolean isVidAllowListEnabled() {
-        boolean result = manager.isVidAllowListEnabled();
-        Log.d(TAG, "isVidAllowListEnabled: " + result);
+        return isVidAllowListEnabled(false);
+    }
+
+    /**
+     * @param forceRefresh skip the cache and read the device
+     */
+    public boolean isVidAllowListEnabled(boolean forceRefresh) {
+        if (!forceRefresh) {
+            Boolean cached = (Boolean) cache.get(Key.VID_ALLOW_LIST_ENABLED);
+            if (cached != null) return cached;
+        }
+        return cache.flights().run(Key.VID_ALLOW_LIST_ENABLED, this::readVidAllowListEnabled);
+    }
+
+    private Boolean readVidAllowListEnabled() {
+        long generation = cache.generation(Key.VID_ALLOW_LIST_ENABLED);
+        Boolean result = call(Op.IS_VID_ALLOW_LIST_ENABLED, backend::isVidAllowListEnabled, r -> r);
+        cache.put(Key.VID_ALLOW_LIST_ENABLED, result, generation);
         return result;
     }
 
@@ -64,15 +242,39 @@ public class ApiDataSource {
      * NOTE: Caller must reboot the device after enabling/disabling.
      */
     public void setAllowListEnabled(boolean isEnabled) {
-        manager.setVidAllowListEnabled(isEnabled);
+        try {
+            call(Op.SET_VID_ALLOW_LIST_ENABLED, () -> backend.setVidAllowListEnabled(isEnabled), r -> isEnabled);
+            cache.written(Key.VID_ALLOW_LIST_ENABLED, isEnabled);
+        } catch (Throwable t) {
+            // The write may have been partially applied
+            cache.invalidate(Key.VID_ALLOW_LIST_ENABLED);
+            throw t;
+        }
     }
 
     /**
-     * Get the current VID allow list from the device.
+     * Get the current VID allow list from the device (cached; the returned array is a copy).
      */
     public String[] getAllowList() {
-        String[] result = manager.getVidAllowList();
-        Log.d(TAG, "getAllowList: " + (result != null ? java.util.Arrays.toString(result) : "null"));
+        return getAllowList(false);
+    }
+
+    /**
+     * @param forceRefresh skip the cache and read the device
+     */
+    public String[] getAllowList(boolean forceRefresh) {
+        if (!forceRefresh) {
+            String[] cached = cachedAllowList();
+            if (cached != null) return cached;
+        }
+        String[] result = cache.flights().run(Key.VID_ALLOW_LIST, this::readAllowList);
+        return result != null ? result.clone() : null;
+    }
+
+    private String[] readAllowList() {
+        long generation = cache.generation(Key.VID_ALLOW_LIST);
+        String[] result = call(Op.GET_VID_ALLOW_LIST, backend::getVidAllowList, r -> r);
+        cache.put(Key.VID_ALLOW_LIST, result != null ? result.clone() : null, generation);
         return result;
     }
 
@@ -87,7 +289,13 @@ public class ApiDataSource {
         if (vids == null || vids.length == 0) {
             throw new IllegalArgumentException("vendorIds is null or empty");
         }
-        manager.setVidAllowList(vids);
+        try {
+            call(Op.SET_VID_ALLOW_LIST, () -> backend.setVidAllowList(vids), r -> vids);
+            cache.written(Key.VID_ALLOW_LIST, vids);
+        } catch (Throwable t) {
+            cache.invalidate(Key.VID_ALLOW_LIST);
+            throw t;
+        }
     }
 
     /**
@@ -95,7 +303,38 @@ public class ApiDataSource {
      * NOTE: Caller must reboot the device after clearing the list.
      */
     public void clearAllowList() {
-        manager.clearVidAllowList();
+        try {
+            call(Op.CLEAR_VID_ALLOW_LIST, backend::clearVidAllowList, r -> null);
+            cache.written(Key.VID_ALLOW_LIST, new String[0]);
+        } catch (Throwable t) {
+            cache.invalidate(Key.VID_ALLOW_LIST);
+            throw t;
+        }
+    }
+
+    /**
+     * Commit staged VID allow list changes and reboot exactly once.
+     * The list is written before the enabled flag, so enabling never exposes a stale list.
+     * <p>
+     * If a write fails, the writes before it stay on the device and nothing reboots;
+     * re-read the device state before retrying.
+     *
+     * @return true if anything was written (the device is rebooting), false if nothing was staged
+     */
+    public boolean commit(@NonNull VidAllowListTransaction tx) {
+        if (tx.isEmpty()) return false;
+
+        String[] list = tx.getList();
+        if (list != null) {
+            if (list.length == 0) clearAllowList();
+            else setAllowList(list);
+        }
+        Boolean enabled = tx.getEnabled();
+        if (enabled != null) {
+            setAllowListEnabled(enabled);
+        }
+        reboot();
+        return true;
     }
 
     // --------------------------------------------------------------------------
@@ -103,11 +342,27 @@ public class ApiDataSource {
     // --------------------------------------------------------------------------
 
     /**
-     * Get 2nd display touch state.
+     * Get 2nd display touch state (cached).
      */
     public boolean is2ndDisplayTouchEnabled() {
-        boolean result = manager.is2ndDisplayTouchEnabled();
-        Log.d(TAG, "is2ndDisplayTouchEnabled: " + result);
+        return is2ndDisplayTouchEnabled(false);
+    }
+
+    /**
+     * @param forceRefresh skip the cache and read the device
+     */
+    public boolean is2ndDisplayTouchEnabled(boolean forceRefresh) {
+        if (!forceRefresh) {
+            Boolean cached = (Boolean) cache.get(Key.TOUCH_ENABLED);
+            if (cached != null) return cached;
+        }
+        return cache.flights().run(Key.TOUCH_ENABLED, this::read2ndDisplayTouchEnabled);
+    }
+
+    private Boolean read2ndDisplayTouchEnabled() {
+        long generation = cache.generation(Key.TOUCH_ENABLED);
+        Boolean result = call(Op.IS_2ND_DISPLAY_TOUCH_ENABLED, backend::is2ndDisplayTouchEnabled, r -> r);
+        cache.put(Key.TOUCH_ENABLED, result, generation);
         return result;
     }
 
@@ -115,7 +370,23 @@ public class ApiDataSource {
      * Set 2nd display touch state.
      */
     public void set2ndMonitorTouchEnabled(boolean isEnabled) {
-        manager.set2ndDisplayTouchEnabled(isEnabled);
+        try {
+            call(Op.SET_2ND_DISPLAY_TOUCH_ENABLED, () -> backend.set2ndDisplayTouchEnabled(isEnabled), r -> isEnabled);
+            cache.written(Key.TOUCH_ENABLED, isEnabled);
+        } catch (Throwable t) {
+            cache.invalidate(Key.TOUCH_ENABLED);
+            throw t;
+        }
+    }
+
+    /**
+     * Set 2nd display touch state, then read it back from the device (bypassing the cache).
+     *
+     * @return the state the device reports after the write
+     */
+    public boolean set2ndMonitorTouchEnabledVerified(boolean isEnabled) {
+        set2ndMonitorTouchEnabled(isEnabled);
+        return is2ndDisplayTouchEnabled(true);
     }
 
     // --------------------------------------------------------------------------
@@ -138,6 +409,340 @@ public class ApiDataSource {
      * </ul>
      */
     public void reboot() {
-        control.reboot(true, "APPLY_VID_ALLOW_LIST", false);
+        try {
+            call(Op.REBOOT, () -> {
+                backend.reboot(true, "APPLY_VID_ALLOW_LIST", false);
+                return null;
+            }, r -> null);
+        } finally {
+            cache.invalidateAll();
+        }
+    }
+
+    // --------------------------------------------------------------------------
+    // Instrumentation
+    // --------------------------------------------------------------------------
+
+    /**
+     * Copy of the cached allow list, or null on a miss.
+     */
+    @Nullable
+    private String[] cachedAllowList() {
+        String[] cached = (String[]) cache.get(Key.VID_ALLOW_LIST);
+        return cached != null ? cached.clone() : null;
+    }
+
+    /**
+     * Call the SDK for {@code op}, retrying transient failures as the {@link RetryPolicy} allows.
+     * Every attempt is timed and traced.
+     * <p>
+     * Inside a {@link RetryScope} a retry is handed back to the scope's task, to be queued again;
+     * elsewhere on the SDK thread there is no retry; on any other thread the backoff sleeps.
+     *
+     * @param detail what to trace for a successful attempt (the result or the argument)
+     */
+    private <T> T call(Op op, Supplier<T> sdkCall, Function<T, Object> detail) {
+        return call(retryPolicy, op, sdkCall, detail);
+    }
+
+    private <T> T call(RetryPolicy policy, Op op, Supplier<T> sdkCall, Function<T, Object> detail) {
+        RetryScope scope = RetryScope.current();
+        boolean mayBlock = scope == null && !executor.isWorkerThread();
+        for (int attempt = scope != null ? scope.retried(op) + 1 : 1; ; attempt++) {
+            long start = begin(op);
+            T result;
+            try {
+                result = sdkCall.get();
+            } catch (Throwable t) {
+                failed(op, start, t);
+                if (attempt < policy.maxAttempts && policy.isRetryable(op, t)) {
+                    if (scope != null) {
+                        scope.retryAfter(op, policy.delayMs(attempt));
+                        throw t;
+                    }
+                    if (mayBlock && backOff(policy, attempt)) continue;
+                }
+                metrics.recordAttempts(op, attempt, false);
+                throw t;
+            }
+            succeeded(op, start, detail.apply(result));
+            boolean refused = Boolean.FALSE.equals(result) && policy.isRetryableResult(op);
+            if (refused && attempt < policy.maxAttempts && stillRefused(op)) {
+                if (scope != null) {
+                    scope.retryAfter(op, policy.delayMs(attempt));
+                    return result;
+                }
+                if (mayBlock && backOff(policy, attempt)) continue;
+            }
+            metrics.recordAttempts(op, attempt, !refused);
+            return result;
+        }
+    }
+
+    /**
+     * Whether the device confirms that a call of {@code op} which returned {@code false} had no
+     * effect. The SDK also returns false for errors it caught itself, possibly after the drawer
+     * opened, so a refused open counts only if a status read (not retried) finds it closed.
+     */
+    private boolean stillRefused(Op op) {
+        if (op != Op.OPEN_CASH_BOX) return true;
+        try {
+            return !call(RetryPolicy.NONE, Op.GET_CASH_BOX_STATUS, backend::getCashBoxStatus, r -> r);
+        } catch (RuntimeException e) {
+            return false;   // unknown: a second open could fire the drawer twice
+        }
+    }
+
+    /**
+     * Sleep before the next attempt (never on the SDK thread).
+     *
+     * @return false if interrupted; the interrupt flag is kept and no retry should follow
+     */
+    private static boolean backOff(RetryPolicy policy, int attempt) {
+        try {
+            Thread.sleep(policy.delayMs(attempt));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private long begin(Op op) {
+        return metrics.begin(op);
+    }
+
+    /**
+     * @param detail call result or argument; kept by reference, formatted lazily
+     */
+    private void succeeded(Op op, long start, @Nullable Object detail) {
+        long micros = metrics.end(op, start, true);
+        trace.record(op, micros, true, detail);
+        AppLog.d(TAG, op.sdkName, detail);
+    }
+
+    private void failed(Op op, long start, Throwable t) {
+        long micros = metrics.end(op, start, false);
+        trace.record(op, micros, false, t);
+    }
+
+    // --------------------------------------------------------------------------
+    // Async API (runs on the SDK thread, callback on main thread)
+    // --------------------------------------------------------------------------
+
+    /**
+     * Run an arbitrary sequence of SDK calls on the SDK thread.
+     * Use this when several calls must run back-to-back (e.g. set + reboot).
+     * No deadline applies, but it fails fast while the SDK circuit is open.
+     */
+    public <T> Future<T> submit(@NonNull Callable<T> task, @Nullable Callback<T> callback) {
+        return executor.submit(task, null, callback);
+    }
+
+    public Future<Boolean> openCashDrawerAsync(@Nullable Callback<Boolean> callback) {
+        return executor.submit(this::openCashDrawer, Op.OPEN_CASH_BOX, callback);
+    }
+
+    public Future<Boolean> isOpenedCashDrawerAsync(@Nullable Callback<Boolean> callback) {
+        return isOpenedCashDrawerAsync(false, callback);
+    }
+
+    public Future<Boolean> isOpenedCashDrawerAsync(boolean forceRefresh, @Nullable Callback<Boolean> callback) {
+        if (!forceRefresh) {
+            Boolean cached = (Boolean) cache.get(Key.CASH_BOX_STATUS);
+            if (cached != null) return executor.completed(cached, callback);
+        }
+        return sharedRead(Key.CASH_BOX_STATUS, Op.GET_CASH_BOX_STATUS, this::readCashBoxStatus, callback);
+    }
+
+    public Future<Boolean> isVidAllowListEnabledAsync(@Nullable Callback<Boolean> callback) {
+        return isVidAllowListEnabledAsync(false, callback);
+    }
+
+    public Future<Boolean> isVidAllowListEnabledAsync(boolean forceRefresh, @Nullable Callback<Boolean> callback) {
+        if (!forceRefresh) {
+            Boolean cached = (Boolean) cache.get(Key.VID_ALLOW_LIST_ENABLED);
+            if (cached != null) return executor.completed(cached, callback);
+        }
+        return sharedRead(Key.VID_ALLOW_LIST_ENABLED, Op.IS_VID_ALLOW_LIST_ENABLED, this::readVidAllowListEnabled,
+                callback);
+    }
+
+    public Future<Void> setAllowListEnabledAsync(boolean isEnabled, @Nullable Callback<Void> callback) {
+        return executor.submit(() -> {
+            setAllowListEnabled(isEnabled);
+            return null;
+        }, Op.SET_VID_ALLOW_LIST_ENABLED, callback);
+    }
+
+    public Future<String[]> getAllowListAsync(@Nullable Callback<String[]> callback) {
+        return getAllowListAsync(false, callback);
+    }
+
+    public Future<String[]> getAllowListAsync(boolean forceRefresh, @Nullable Callback<String[]> callback) {
+        if (!forceRefresh) {
+            String[] cached = cachedAllowList();
+            if (cached != null) return executor.completed(cached, callback);
+        }
+        // Coalesced callers share one array; each gets its own copy
+        return sharedRead(Key.VID_ALLOW_LIST, Op.GET_VID_ALLOW_LIST, this::readAllowList,
+                callback == null ? null : new Callback<String[]>() {
+                    @Override
+                    public void onSuccess(String[] result) {
+                        callback.onSuccess(result != null ? result.clone() : null);
+                    }
+
+                    @Override
+                    public void onError(@NonNull Throwable t) {
+                        callback.onError(t);
+                    }
+                });
+    }
+
+    public Future<Void> setAllowListAsync(String[] vids, @Nullable Callback<Void> callback) {
+        return executor.submit(() -> {
+            setAllowList(vids);
+            return null;
+        }, Op.SET_VID_ALLOW_LIST, callback);
+    }
+
+    public Future<Void> clearAllowListAsync(@Nullable Callback<Void> callback) {
+        return executor.submit(() -> {
+            clearAllowList();
+            return null;
+        }, Op.CLEAR_VID_ALLOW_LIST, callback);
+    }
+
+    /**
+     * Commit a snapshot of {@code tx}; later edits to {@code tx} do not affect this commit.
+     */
+    public Future<Boolean> commitAsync(@NonNull VidAllowListTransaction tx, @Nullable Callback<Boolean> callback) {
+        VidAllowListTransaction snapshot = tx.copy();
+        return submit(() -> commit(snapshot), callback);
+    }
+
+    public Future<Boolean> is2ndDisplayTouchEnabledAsync(@Nullable Callback<Boolean> callback) {
+        return is2ndDisplayTouchEnabledAsync(false, callback);
+    }
+
+    public Future<Boolean> is2ndDisplayTouchEnabledAsync(boolean forceRefresh, @Nullable Callback<Boolean> callback) {
+        if (!forceRefresh) {
+            Boolean cached = (Boolean) cache.get(Key.TOUCH_ENABLED);
+            if (cached != null) return executor.completed(cached, callback);
+        }
+        return sharedRead(Key.TOUCH_ENABLED, Op.IS_2ND_DISPLAY_TOUCH_ENABLED, this::read2ndDisplayTouchEnabled,
+                callback);
+    }
+
+    public Future<Void> set2ndMonitorTouchEnabledAsync(boolean isEnabled, @Nullable Callback<Void> callback) {
+        return executor.submit(() -> {
+            set2ndMonitorTouchEnabled(isEnabled);
+            return null;
+        }, Op.SET_2ND_DISPLAY_TOUCH_ENABLED, callback);
+    }
+
+    /**
+     * Set 2nd display touch state, then read it back from the device (bypassing the cache).
+     * <p>
+     * The write and the read-back are separate SDK calls, each with its own deadline and retries:
+     * a read-back that fails transiently is retried on its own and never issues the write again.
+     */
+    public Future<Boolean> set2ndMonitorTouchEnabledVerifiedAsync(boolean isEnabled,
+                                                                  @Nullable Callback<Boolean> callback) {
+        CompletableFuture<Boolean> verified = executor.<Void>submitGuarded(() -> {
+            set2ndMonitorTouchEnabled(isEnabled);
+            return null;
+        }, Op.SET_2ND_DISPLAY_TOUCH_ENABLED).thenCompose(ignored -> sharedRead(Key.TOUCH_ENABLED,
+                Op.IS_2ND_DISPLAY_TOUCH_ENABLED, this::read2ndDisplayTouchEnabled));
+        return executor.attach(verified, callback);
+    }
+
+    /**
+     * Like {@link #sharedRead(Key, Op, Supplier)}, delivering to {@code callback}.
+     */
+    private <T> Future<T> sharedRead(Key key, Op op, Supplier<T> reader, @Nullable Callback<T> callback) {
+        return executor.attach(sharedRead(key, op, reader), callback);
+    }
+
+    /**
+     * Device read of {@code key}, shared with an identical read in flight, with {@code op}'s
+     * deadline for this caller. Fails fast while the SDK circuit is open.
+     */
+    private <T> CompletableFuture<T> sharedRead(Key key, Op op, Supplier<T> reader) {
+        try {
+            executor.guard().acquire(op);
+        } catch (SdkCallGuard.CircuitOpenException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        SingleFlight.Flight<T> flight = cache.flights().share(key, reader, executor);
+        return executor.guarded(flight.result, flight.started, op);
+    }
+
+    // --------------------------------------------------------------------------
+    // Device snapshot
+    // --------------------------------------------------------------------------
+
+    /**
+     * Read drawer status, VID allow list flag, VID list and touch state in one round.
+     * <p>
+     * All four reads are requested at once: cache hits complete immediately and the misses
+     * are queued back-to-back on the SDK thread (SDK access stays serialized), each shared
+     * with any identical read already in flight. A failed read is reported in its field;
+     * the snapshot itself never fails.
+     *
+     * @param forceRefresh skip the cache and read the device
+     */
+    public Future<DeviceSnapshot> snapshotAsync(boolean forceRefresh, @Nullable Callback<DeviceSnapshot> callback) {
+        long start = System.nanoTime();
+        CompletableFuture<DeviceSnapshot.Field<Boolean>> drawer =
+                field(Key.CASH_BOX_STATUS, Op.GET_CASH_BOX_STATUS, this::readCashBoxStatus, forceRefresh, start);
+        CompletableFuture<DeviceSnapshot.Field<Boolean>> enabled =
+                field(Key.VID_ALLOW_LIST_ENABLED, Op.IS_VID_ALLOW_LIST_ENABLED, this::readVidAllowListEnabled,
+                        forceRefresh, start);
+        CompletableFuture<DeviceSnapshot.Field<String[]>> list =
+                field(Key.VID_ALLOW_LIST, Op.GET_VID_ALLOW_LIST, this::readAllowList, forceRefresh, start);
+        CompletableFuture<DeviceSnapshot.Field<Boolean>> touch =
+                field(Key.TOUCH_ENABLED, Op.IS_2ND_DISPLAY_TOUCH_ENABLED, this::read2ndDisplayTouchEnabled,
+                        forceRefresh, start);
+
+        CompletableFuture<DeviceSnapshot> snapshot = CompletableFuture.allOf(drawer, enabled, list, touch)
+                .thenApply(ignored -> new DeviceSnapshot(drawer.join(), enabled.join(), asList(list.join()),
+                        touch.join(), micros(start), System.currentTimeMillis()));
+        return executor.attach(snapshot, callback);
+    }
+
+    /**
+     * One snapshot field: the cached value, or the (shared) device read.
+     */
+    private <T> CompletableFuture<DeviceSnapshot.Field<T>> field(Key key, Op op, Supplier<T> reader,
+                                                                boolean forceRefresh, long start) {
+        if (!forceRefresh) {
+            @SuppressWarnings("unchecked")
+            T cached = (T) cache.get(key);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(new DeviceSnapshot.Field<>(cached, null, micros(start), true));
+            }
+        }
+        try {
+            executor.guard().acquire(op);
+        } catch (SdkCallGuard.CircuitOpenException e) {
+            return CompletableFuture.completedFuture(new DeviceSnapshot.Field<>(null, e, micros(start), false));
+        }
+        SingleFlight.Flight<T> flight = cache.flights().share(key, reader, executor);
+        return executor.guarded(flight.result, flight.started, op).handle((value, error) -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            return new DeviceSnapshot.Field<>(cause == null ? value : null, cause, micros(start), false);
+        });
+    }
+
+    private static DeviceSnapshot.Field<List<String>> asList(DeviceSnapshot.Field<String[]> field) {
+        List<String> list = field.value != null
+                ? Collections.unmodifiableList(Arrays.asList(field.value.clone())) : null;
+        return new DeviceSnapshot.Field<>(list, field.error, field.elapsedUs, field.cached);
+    }
+
+    private static long micros(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
     }
-}
\ No newline at end of file
+}
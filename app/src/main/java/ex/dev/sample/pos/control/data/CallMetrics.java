@@ -0,0 +1,176 @@
+package ex.dev.sample.pos.control.data;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * CallMetrics
+ * Per-operation metrics for SDK calls made through {@link ApiDataSource}.
+ * <p>
+ * For each {@link Op}:
+ * - Latency histogram (p50 / p99 / max), see {@link LatencyHistogram}
+ * - Success and failure counters
+ * - In-flight gauge (calls started but not finished)
+ * - Retries, and attempts per call that eventually succeeded (see {@link RetryPolicy})
+ * <p>
+ * Latency and success/failure counters are per attempt.
+ * <p>
+ * Lock-free and allocation-free on the call path; safe from any thread.
+ * {@link #getDefault()} is shared by all {@link ApiDataSource} instances of the process.
+ */
+public final class CallMetrics {
+
+    /**
+     * Instrumented SDK operations.
+     */
+    public enum Op {
+        OPEN_CASH_BOX("openCashBox"),
+        GET_CASH_BOX_STATUS("getCashBoxStatus"),
+        IS_VID_ALLOW_LIST_ENABLED("isVidAllowListEnabled"),
+        SET_VID_ALLOW_LIST_ENABLED("setVidAllowListEnabled"),
+        GET_VID_ALLOW_LIST("getVidAllowList"),
+        SET_VID_ALLOW_LIST("setVidAllowList"),
+        CLEAR_VID_ALLOW_LIST("clearVidAllowList"),
+        IS_2ND_DISPLAY_TOUCH_ENABLED("is2ndDisplayTouchEnabled"),
+        SET_2ND_DISPLAY_TOUCH_ENABLED("set2ndDisplayTouchEnabled"),
+        REBOOT("reboot");
+
+        // SDK method name, for display
+        public final String sdkName;
+
+        Op(String sdkName) {
+            this.sdkName = sdkName;
+        }
+    }
+
+    /**
+     * Metrics of one operation at one point in time.
+     */
+    public static final class OpSnapshot {
+        public final Op op;
+        public final long successes;
+        public final long failures;
+        public final int inFlight;
+        public final LatencyHistogram.Snapshot latency;
+        public final long retries;            // attempts after the first
+        public final double attemptsPerSuccess;  // 0 if no call succeeded
+
+        OpSnapshot(Op op, long successes, long failures, int inFlight, LatencyHistogram.Snapshot latency,
+                   long retries, double attemptsPerSuccess) {
+            this.op = op;
+            this.successes = successes;
+            this.failures = failures;
+            this.inFlight = inFlight;
+            this.latency = latency;
+            this.retries = retries;
+            this.attemptsPerSuccess = attemptsPerSuccess;
+        }
+    }
+
+    private static final class OpStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder successes = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final LongAdder retries = new LongAdder();
+        final LongAdder succeededCalls = new LongAdder();
+        final LongAdder attemptsOfSucceededCalls = new LongAdder();
+    }
+
+    private static final CallMetrics DEFAULT = new CallMetrics();
+
+    private final OpStats[] stats = new OpStats[Op.values().length];
+
+    public CallMetrics() {
+        for (int i = 0; i < stats.length; i++) stats[i] = new OpStats();
+    }
+
+    /**
+     * Process-wide metrics used by {@link ApiDataSource#ApiDataSource()}.
+     */
+    public static CallMetrics getDefault() {
+        return DEFAULT;
+    }
+
+    // -------------------- recording --------------------
+
+    /**
+     * Mark the start of a call.
+     *
+     * @return start token to pass to {@link #end}
+     */
+    public long begin(@NonNull Op op) {
+        stats[op.ordinal()].inFlight.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    /**
+     * Mark the end of a call started with {@link #begin}.
+     *
+     * @return elapsed time in microseconds
+     */
+    public long end(@NonNull Op op, long startNanos, boolean success) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+        OpStats s = stats[op.ordinal()];
+        s.latency.record(micros);
+        if (success) s.successes.increment();
+        else s.failures.increment();
+        s.inFlight.decrementAndGet();
+        return micros;
+    }
+
+    /**
+     * Record a call that took {@code attempts} attempts ({@code > 1} if it was retried).
+     *
+     * @param success whether the last attempt succeeded
+     */
+    public void recordAttempts(@NonNull Op op, int attempts, boolean success) {
+        OpStats s = stats[op.ordinal()];
+        if (attempts > 1) s.retries.add(attempts - 1);
+        if (success) {
+            s.succeededCalls.increment();
+            s.attemptsOfSucceededCalls.add(attempts);
+        }
+    }
+
+    // -------------------- query --------------------
+
+    @NonNull
+    public OpSnapshot snapshot(@NonNull Op op) {
+        OpStats s = stats[op.ordinal()];
+        long succeededCalls = s.succeededCalls.sum();
+        double attemptsPerSuccess = succeededCalls == 0 ? 0
+                : (double) s.attemptsOfSucceededCalls.sum() / succeededCalls;
+        return new OpSnapshot(op, s.successes.sum(), s.failures.sum(), s.inFlight.get(),
+                s.latency.snapshot(), s.retries.sum(), attemptsPerSuccess);
+    }
+
+    /**
+     * Snapshot of every operation, in {@link Op} order.
+     */
+    @NonNull
+    public List<OpSnapshot> snapshot() {
+        List<OpSnapshot> list = new ArrayList<>(stats.length);
+        for (Op op : Op.values()) list.add(snapshot(op));
+        return list;
+    }
+
+    /**
+     * Clear histograms and counters; in-flight gauges are kept.
+     */
+    public void reset() {
+        for (OpStats s : stats) {
+            s.latency.reset();
+            s.successes.reset();
+            s.failures.reset();
+            s.retries.reset();
+            s.succeededCalls.reset();
+            s.attemptsOfSucceededCalls.reset();
+        }
+    }
+}
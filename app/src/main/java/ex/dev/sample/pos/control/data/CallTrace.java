@@ -0,0 +1,112 @@
+package ex.dev.sample.pos.control.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Locale;
+
+import ex.dev.sample.pos.control.data.CallMetrics.Op;
+import ex.dev.sample.pos.control.log.AppLog;
+
+/**
+ * CallTrace
+ * In-memory ring buffer of the last N SDK calls made through {@link ApiDataSource}.
+ * <p>
+ * - {@link #record} stores references only (operation, time, duration, outcome and
+ * the result/argument/error object); nothing is formatted until {@link #dump()}.
+ * - The oldest entry is overwritten when the buffer is full.
+ * <p>
+ * Thread-safe; recording is a short synchronized section with no allocation.
+ */
+public final class CallTrace {
+
+    public static final int DEFAULT_CAPACITY = 128;
+    // Keep huge lists from blowing up a dump
+    private static final int MAX_DETAIL_CHARS = 120;
+
+    private static final CallTrace DEFAULT = new CallTrace(DEFAULT_CAPACITY);
+
+    private final Op[] ops;
+    private final long[] wallMs;
+    private final long[] durationUs;
+    private final boolean[] ok;
+    private final Object[] details;
+    private int head = 0;   // next write index
+    private int size = 0;
+    private long total = 0;
+
+    public CallTrace(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be > 0");
+        ops = new Op[capacity];
+        wallMs = new long[capacity];
+        durationUs = new long[capacity];
+        ok = new boolean[capacity];
+        details = new Object[capacity];
+    }
+
+    /**
+     * Process-wide trace used by {@link ApiDataSource#ApiDataSource()}.
+     */
+    public static CallTrace getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Record one finished call.
+     *
+     * @param detail result or argument on success, the Throwable on failure (may be null)
+     */
+    public synchronized void record(@NonNull Op op, long durationUs, boolean success, @Nullable Object detail) {
+        ops[head] = op;
+        wallMs[head] = System.currentTimeMillis();
+        this.durationUs[head] = durationUs;
+        ok[head] = success;
+        details[head] = detail;
+        head = (head + 1) % ops.length;
+        if (size < ops.length) size++;
+        total++;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Calls recorded since creation (or the last {@link #clear()}), including overwritten ones.
+     */
+    public synchronized long totalRecorded() {
+        return total;
+    }
+
+    /**
+     * Format the buffered calls, oldest first, one per line:
+     * {@code "12:34:56.789 getCashBoxStatus   1.2ms OK   true"}.
+     */
+    @NonNull
+    public synchronized String dump() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.US, "last %d of %d call(s)%n", size, total));
+        for (int i = 0; i < size; i++) {
+            int idx = (head - size + i + ops.length) % ops.length;
+            long ms = wallMs[idx];
+            sb.append(String.format(Locale.US, "%tT.%tL %-26s %8.1fms %-4s %s%n",
+                    ms, ms, ops[idx].sdkName, durationUs[idx] / 1000.0,
+                    ok[idx] ? "OK" : "FAIL", details[idx] != null ? abbreviate(AppLog.format(details[idx])) : ""));
+        }
+        return sb.toString();
+    }
+
+    public synchronized void clear() {
+        for (int i = 0; i < ops.length; i++) {
+            ops[i] = null;
+            details[i] = null;
+        }
+        head = 0;
+        size = 0;
+        total = 0;
+    }
+
+    private static String abbreviate(String s) {
+        return s.length() <= MAX_DETAIL_CHARS ? s : s.substring(0, MAX_DETAIL_CHARS) + "...";
+    }
+}
@@ -0,0 +1,199 @@
+package ex.dev.sample.pos.control.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * CashDrawerCommandQueue
+ * Command queue in front of {@link ApiDataSource#openCashDrawer()} that opens the drawer
+ * at most once per burst of requests.
+ * <p>
+ * - The first request opens immediately (no added latency).
+ * - Requests while that open is queued or running share its result.
+ * - Requests within {@code windowMs} after a successful open are answered with that
+ * result without calling the SDK. A failed open does not start the window.
+ * - Ordering: the open runs on the SDK thread and invalidates the cached drawer status
+ * when it is queued, so any status read requested afterwards runs after the open.
+ * <p>
+ * Requests fail fast while the SDK circuit is open ({@link SdkCallGuard}), also when an open
+ * is already in flight, and each request fails with a timeout past the open's deadline.
+ * <p>
+ * Reports queue depth (requests waiting for the drawer), collapsed requests and
+ * time-to-actuation (request to SDK completion, sampled for the first
+ * {@link #MAX_SAMPLED_WAITERS} waiters of each open). Thread-safe.
+ */
+public final class CashDrawerCommandQueue {
+
+    public static final long DEFAULT_WINDOW_MS = 1_000L;
+    public static final int MAX_SAMPLED_WAITERS = 32;
+
+    private static volatile CashDrawerCommandQueue defaultInstance;
+
+    /**
+     * Counters of the queue at one point in time.
+     */
+    public static final class Stats {
+        public final long requests;
+        public final long actuations;   // SDK opens actually issued
+        public final long collapsed;    // requests answered without their own SDK open
+        public final int depth;         // requests waiting for the current open
+        public final LatencyHistogram.Snapshot timeToActuation;
+
+        Stats(long requests, long actuations, long collapsed, int depth,
+              LatencyHistogram.Snapshot timeToActuation) {
+            this.requests = requests;
+            this.actuations = actuations;
+            this.collapsed = collapsed;
+            this.depth = depth;
+            this.timeToActuation = timeToActuation;
+        }
+    }
+
+    private final ApiDataSource dataSource;
+    private final LongSupplier clockNanos;
+    private final LatencyHistogram timeToActuation = new LatencyHistogram();
+    private long windowNanos;
+
+    @Nullable
+    private CompletableFuture<Boolean> current = null;  // open queued or running
+    @Nullable
+    private CompletableFuture<Void> currentStarted = null;  // completes when `current` starts running
+    // request times of the first callers waiting for `current`; `waiting` counts them all
+    private final long[] waitingSince = new long[MAX_SAMPLED_WAITERS];
+    private int waiting = 0;
+    private long lastSuccessAt = 0;
+    private boolean hasSuccess = false;
+    private long requests = 0;
+    private long actuations = 0;
+    private long collapsed = 0;
+
+    public CashDrawerCommandQueue(@NonNull ApiDataSource dataSource, long windowMs) {
+        this(dataSource, windowMs, System::nanoTime);
+    }
+
+    CashDrawerCommandQueue(@NonNull ApiDataSource dataSource, long windowMs, @NonNull LongSupplier clockNanos) {
+        this.dataSource = dataSource;
+        this.clockNanos = clockNanos;
+        setWindowMs(windowMs);
+    }
+
+    /**
+     * Shared queue for the whole process (default SDK backend and executor).
+     */
+    public static CashDrawerCommandQueue getDefault() {
+        CashDrawerCommandQueue instance = defaultInstance;
+        if (instance == null) {
+            synchronized (CashDrawerCommandQueue.class) {
+                instance = defaultInstance;
+                if (instance == null) {
+                    instance = new CashDrawerCommandQueue(new ApiDataSource(), DEFAULT_WINDOW_MS);
+                    defaultInstance = instance;
+                }
+            }
+        }
+        return instance;
+    }
+
+    public synchronized void setWindowMs(long windowMs) {
+        if (windowMs < 0) throw new IllegalArgumentException("windowMs must be >= 0");
+        windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+    }
+
+    /**
+     * Request opening the drawer.
+     *
+     * @return future for this request; cancelling it drops the callback, not the open
+     */
+    public synchronized Future<Boolean> requestOpen(@Nullable ApiDataSource.Callback<Boolean> callback) {
+        long now = clockNanos.getAsLong();
+        requests++;
+        SdkExecutor executor = dataSource.executor();
+
+        if (current != null) {
+            // Do not wait on an open the breaker has already given up on
+            try {
+                executor.guard().check(CallMetrics.Op.OPEN_CASH_BOX);
+            } catch (SdkCallGuard.CircuitOpenException e) {
+                return executor.failed(e, callback);
+            }
+            collapsed++;
+            return attach(current, currentStarted, now, callback);
+        }
+        if (hasSuccess && now - lastSuccessAt < windowNanos) {
+            collapsed++;
+            return executor.completed(Boolean.TRUE, callback);
+        }
+
+        try {
+            executor.guard().acquire(CallMetrics.Op.OPEN_CASH_BOX);
+        } catch (SdkCallGuard.CircuitOpenException e) {
+            return executor.failed(e, callback);
+        }
+
+        CompletableFuture<Boolean> command = new CompletableFuture<>();
+        CompletableFuture<Void> started = new CompletableFuture<>();
+        current = command;
+        currentStarted = started;
+        actuations++;
+        // Status reads requested from now on must not see the pre-open state
+        dataSource.getCache().invalidate(DeviceStateCache.Key.CASH_BOX_STATUS);
+        executor.worker().execute(() -> actuate(command, started));
+        return attach(command, started, now, callback);
+    }
+
+    @NonNull
+    public synchronized Stats getStats() {
+        return new Stats(requests, actuations, collapsed, waiting, timeToActuation.snapshot());
+    }
+
+    // -------------------- internals --------------------
+
+    private Future<Boolean> attach(CompletableFuture<Boolean> command, CompletableFuture<Void> started,
+                                   long requestedAt, @Nullable ApiDataSource.Callback<Boolean> callback) {
+        if (waiting < MAX_SAMPLED_WAITERS) waitingSince[waiting] = requestedAt;
+        waiting++;
+        // Each waiter gets the open's deadline; a hung open does not hold its callers
+        return dataSource.executor().attach(command, started, CallMetrics.Op.OPEN_CASH_BOX, callback);
+    }
+
+    /**
+     * Runs on the SDK thread. A refused open is retried by queuing it again after the backoff,
+     * not by sleeping on the SDK thread.
+     */
+    private void actuate(CompletableFuture<Boolean> command, CompletableFuture<Void> started) {
+        started.complete(null);
+        CompletableFuture<Boolean> opened = new CompletableFuture<>();
+        opened.whenComplete((ok, error) -> finish(command, ok, error));
+        dataSource.executor().runRetrying(dataSource::openCashDrawer, opened);
+    }
+
+    private void finish(CompletableFuture<Boolean> command, @Nullable Boolean ok, @Nullable Throwable error) {
+        synchronized (this) {
+            finishCurrent();
+            if (error == null && Boolean.TRUE.equals(ok)) {
+                hasSuccess = true;
+                lastSuccessAt = clockNanos.getAsLong();
+            }
+        }
+        if (error != null) command.completeExceptionally(error);
+        else command.complete(ok);
+    }
+
+    /**
+     * Record time-to-actuation for the sampled waiting requests and clear the current command.
+     */
+    private void finishCurrent() {
+        long now = clockNanos.getAsLong();
+        for (int i = 0, n = Math.min(waiting, MAX_SAMPLED_WAITERS); i < n; i++) {
+            timeToActuation.record(TimeUnit.NANOSECONDS.toMicros(now - waitingSince[i]));
+        }
+        waiting = 0;
+        current = null;
+        currentStarted = null;
+    }
+}
@@ -0,0 +1,169 @@
+package ex.dev.sample.pos.control.data;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+
+/**
+ * CashDrawerWatcher
+ * Polls {@link ApiDataSource#isOpenedCashDrawer()} and pushes drawer state transitions to listeners.
+ * <p>
+ * Polling policy:
+ * - Right after the drawer was opened ({@link #boost()}) or changed state, poll every
+ * {@link #FAST_INTERVAL_MS}.
+ * - While nothing changes, double the interval up to {@link #IDLE_INTERVAL_MS}.
+ * - Only one status read is in flight at a time; extra poll requests are coalesced into it.
+ * <p>
+ * Listeners are called on the main thread, and only when the state actually changes
+ * (the first successful read counts as a change from "unknown").
+ * All methods must be called on the main thread.
+ */
+public class CashDrawerWatcher {
+
+    private static final String TAG = "CashDrawerWatcher";
+
+    public static final long FAST_INTERVAL_MS = 250L;
+    public static final long IDLE_INTERVAL_MS = 5_000L;
+
+    /**
+     * Receives drawer state transitions.
+     */
+    public interface Listener {
+        void onDrawerStateChanged(boolean isOpen);
+    }
+
+    private final ApiDataSource dataSource;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final Runnable pollTask = this::pollNow;
+
+    private boolean running = false;
+    private long intervalMs = FAST_INTERVAL_MS;
+    @Nullable
+    private Boolean lastState = null;        // null = unknown
+    @Nullable
+    private Future<Boolean> pending = null;  // current in-flight read
+
+    public CashDrawerWatcher(@NonNull ApiDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    // -------------------- listeners --------------------
+
+    @MainThread
+    public void addListener(@NonNull Listener listener) {
+        listeners.addIfAbsent(listener);
+    }
+
+    @MainThread
+    public void removeListener(@NonNull Listener listener) {
+        listeners.remove(listener);
+    }
+
+    // -------------------- control --------------------
+
+    /**
+     * Start polling (fast first read).
+     */
+    @MainThread
+    public void start() {
+        if (running) return;
+        running = true;
+        intervalMs = FAST_INTERVAL_MS;
+        pollNow();
+    }
+
+    /**
+     * Stop polling and drop any in-flight read.
+     */
+    @MainThread
+    public void stop() {
+        running = false;
+        handler.removeCallbacks(pollTask);
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+    }
+
+    /**
+     * Switch to fast polling, e.g. right after {@link ApiDataSource#openCashDrawer()}.
+     */
+    @MainThread
+    public void boost() {
+        if (!running) return;
+        intervalMs = FAST_INTERVAL_MS;
+        pollNow();
+    }
+
+    /**
+     * Last known state, or null if not read yet.
+     */
+    @Nullable
+    public Boolean getLastState() {
+        return lastState;
+    }
+
+    // -------------------- polling --------------------
+
+    /**
+     * Read the drawer state now, unless a read is already in flight.
+     */
+    @MainThread
+    public void pollNow() {
+        if (!running) return;
+        handler.removeCallbacks(pollTask);
+
+        // Coalesce: the in-flight read will answer this request too
+        if (pending != null && !pending.isDone()) return;
+
+        // Always read the device; each poll also refreshes the shared cache
+        pending = dataSource.isOpenedCashDrawerAsync(true, new ApiDataSource.Callback<Boolean>() {
+            @Override
+            public void onSuccess(Boolean isOpen) {
+                pending = null;
+                if (!running) return;
+                onRead(isOpen);
+                scheduleNext();
+            }
+
+            @Override
+            public void onError(@NonNull Throwable t) {
+                pending = null;
+                if (!running) return;
+                Log.e(TAG, "poll error", t);
+                backOff();
+                scheduleNext();
+            }
+        });
+    }
+
+    private void onRead(boolean isOpen) {
+        if (lastState != null && lastState == isOpen) {
+            backOff();
+            return;
+        }
+        lastState = isOpen;
+        // State just moved: the next transition (e.g. closing) is likely soon
+        intervalMs = FAST_INTERVAL_MS;
+        for (Listener l : listeners) {
+            l.onDrawerStateChanged(isOpen);
+        }
+    }
+
+    private void backOff() {
+        intervalMs = Math.min(intervalMs * 2, IDLE_INTERVAL_MS);
+    }
+
+    private void scheduleNext() {
+        handler.removeCallbacks(pollTask);
+        handler.postDelayed(pollTask, intervalMs);
+    }
+}
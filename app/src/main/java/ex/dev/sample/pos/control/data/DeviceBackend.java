@@ -0,0 +1,39 @@
+package ex.dev.sample.pos.control.data;
+
+/**
+ * DeviceBackend
+ * The raw device calls used by {@link ApiDataSource}.
+ * <p>
+ * Mirrors the subset of {@code device.sdk.PosManager} / {@code device.sdk.Control}
+ * this app uses, so the SDK can be swapped for {@code SimulatedDeviceBackend}
+ * in unit tests and benchmarks.
+ * <p>
+ * Implementations may block (the real SDK performs IPC) and must be safe to
+ * call from any thread.
+ */
+public interface DeviceBackend {
+
+    // Cash drawer
+    boolean openCashBox();
+
+    boolean getCashBoxStatus();
+
+    // VID allow list
+    boolean isVidAllowListEnabled();
+
+    boolean setVidAllowListEnabled(boolean isEnabled);
+
+    String[] getVidAllowList();
+
+    boolean setVidAllowList(String[] vids);
+
+    boolean clearVidAllowList();
+
+    // Second display
+    boolean is2ndDisplayTouchEnabled();
+
+    boolean set2ndDisplayTouchEnabled(boolean isEnabled);
+
+    // System
+    void reboot(boolean confirm, String reason, boolean wait);
+}
@@ -0,0 +1,68 @@
+package ex.dev.sample.pos.control.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.List;
+
+/**
+ * DeviceSnapshot
+ * Immutable record of the device state gathered in one round by {@link ApiDataSource#snapshotAsync}.
+ * <p>
+ * Each field carries its own outcome: a value or the error of its read, how long it took
+ * from the start of the snapshot, and whether it came from the cache.
+ */
+public final class DeviceSnapshot {
+
+    /**
+     * Outcome of one read.
+     */
+    public static final class Field<T> {
+        @Nullable
+        public final T value;       // null if the read failed
+        @Nullable
+        public final Throwable error;
+        public final long elapsedUs;  // from the start of the snapshot to this read's completion
+        public final boolean cached;
+
+        Field(@Nullable T value, @Nullable Throwable error, long elapsedUs, boolean cached) {
+            this.value = value;
+            this.error = error;
+            this.elapsedUs = elapsedUs;
+            this.cached = cached;
+        }
+
+        public boolean isOk() {
+            return error == null;
+        }
+    }
+
+    @NonNull
+    public final Field<Boolean> cashDrawerOpen;
+    @NonNull
+    public final Field<Boolean> vidAllowListEnabled;
+    @NonNull
+    public final Field<List<String>> vidAllowList;   // unmodifiable
+    @NonNull
+    public final Field<Boolean> touchEnabled;
+    public final long totalUs;
+    public final long takenAtMs;
+
+    DeviceSnapshot(@NonNull Field<Boolean> cashDrawerOpen, @NonNull Field<Boolean> vidAllowListEnabled,
+                   @NonNull Field<List<String>> vidAllowList, @NonNull Field<Boolean> touchEnabled,
+                   long totalUs, long takenAtMs) {
+        this.cashDrawerOpen = cashDrawerOpen;
+        this.vidAllowListEnabled = vidAllowListEnabled;
+        this.vidAllowList = vidAllowList;
+        this.touchEnabled = touchEnabled;
+        this.totalUs = totalUs;
+        this.takenAtMs = takenAtMs;
+    }
+
+    /**
+     * True if every read succeeded.
+     */
+    public boolean isComplete() {
+        return cashDrawerOpen.isOk() && vidAllowListEnabled.isOk() && vidAllowList.isOk() && touchEnabled.isOk();
+    }
+}
@@ -0,0 +1,185 @@
+package ex.dev.sample.pos.control.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * DeviceStateCache
+ * Read-through cache of device state for {@link ApiDataSource}, one entry per {@link Key}.
+ * <p>
+ * - Each key has its own TTL; an expired entry is a miss.
+ * - Setters invalidate the matching key. Every invalidation bumps the key's generation,
+ * and {@link #put} drops a value whose read started before the latest invalidation,
+ * so a read racing with a write never caches the old state.
+ * - Concurrent loads of the same key are coalesced by {@link #flights()}; invalidating a key
+ * also detaches its in-flight load.
+ * - Every accepted read (even with a TTL of 0) and every successful write also updates
+ * {@link #lastKnown()}, which never expires. The store is updated (and its listeners run)
+ * after this cache's lock is released; per-key stamps taken under the lock keep a stale
+ * read from overwriting a newer write there.
+ * - {@link #getDefault()} is shared by all {@link ApiDataSource} instances of the process,
+ * so navigating between screens does not repeat the SDK calls.
+ * <p>
+ * Thread-safe.
+ */
+public final class DeviceStateCache {
+
+    /**
+     * Cached device state and its default TTL.
+     */
+    public enum Key {
+        // The drawer can be opened/closed physically; keep this short
+        CASH_BOX_STATUS(1_000L),
+        // Only changed through the SDK (and applied by a reboot)
+        VID_ALLOW_LIST_ENABLED(60_000L),
+        VID_ALLOW_LIST(60_000L),
+        TOUCH_ENABLED(60_000L);
+
+        public final long defaultTtlMs;
+
+        Key(long defaultTtlMs) {
+            this.defaultTtlMs = defaultTtlMs;
+        }
+    }
+
+    private static final DeviceStateCache DEFAULT = new DeviceStateCache();
+
+    private final LongSupplier clockNanos;
+    private final long[] ttlNanos = new long[Key.values().length];
+    private final Object[] values = new Object[Key.values().length];     // null = empty
+    private final long[] expiresAt = new long[Key.values().length];
+    private final long[] generations = new long[Key.values().length];
+    private final long[] storeStamps = new long[Key.values().length];  // order of lastKnown updates
+    private long hits = 0;
+    private long misses = 0;
+
+    private final SingleFlight<Key> flights = new SingleFlight<>();
+    private final DeviceStateStore lastKnown = new DeviceStateStore();
+
+    public DeviceStateCache() {
+        this(System::nanoTime);
+    }
+
+    DeviceStateCache(@NonNull LongSupplier clockNanos) {
+        this.clockNanos = clockNanos;
+        for (Key key : Key.values()) {
+            ttlNanos[key.ordinal()] = TimeUnit.MILLISECONDS.toNanos(key.defaultTtlMs);
+        }
+    }
+
+    /**
+     * Process-wide cache used by {@link ApiDataSource#ApiDataSource()}.
+     */
+    public static DeviceStateCache getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Change the TTL of {@code key}; 0 disables caching for it.
+     */
+    public synchronized void setTtlMs(@NonNull Key key, long ttlMs) {
+        if (ttlMs < 0) throw new IllegalArgumentException("ttlMs must be >= 0");
+        ttlNanos[key.ordinal()] = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        values[key.ordinal()] = null;
+    }
+
+    /**
+     * Coalescing of concurrent device reads, one flight per key.
+     */
+    @NonNull
+    public SingleFlight<Key> flights() {
+        return flights;
+    }
+
+    /**
+     * Last known device state, for readers that must not wait for the SDK.
+     */
+    @NonNull
+    public DeviceStateStore lastKnown() {
+        return lastKnown;
+    }
+
+    // -------------------- read-through --------------------
+
+    /**
+     * Fresh cached value of {@code key}, or null on a miss.
+     */
+    @Nullable
+    public synchronized Object get(@NonNull Key key) {
+        int i = key.ordinal();
+        Object value = values[i];
+        if (value != null && clockNanos.getAsLong() - expiresAt[i] < 0) {
+            hits++;
+            return value;
+        }
+        values[i] = null;
+        misses++;
+        return null;
+    }
+
+    /**
+     * Token to take before reading {@code key} from the device and pass to {@link #put}.
+     */
+    public synchronized long generation(@NonNull Key key) {
+        return generations[key.ordinal()];
+    }
+
+    /**
+     * Store a value read from the device, unless {@code key} was invalidated after
+     * {@code generation} was taken. Null values are not cached.
+     */
+    public void put(@NonNull Key key, @Nullable Object value, long generation) {
+        int i = key.ordinal();
+        long stamp;
+        synchronized (this) {
+            if (value == null || generation != generations[i]) return;
+            // Taken under the lock, so a stale read can never overwrite a newer write
+            stamp = ++storeStamps[i];
+            if (ttlNanos[i] != 0) {
+                values[i] = value;
+                expiresAt[i] = clockNanos.getAsLong() + ttlNanos[i];
+            }
+        }
+        // Outside the lock: listeners may make binder calls, and main-thread get() must not wait
+        lastKnown.update(key, value, stamp);
+    }
+
+    // -------------------- invalidation --------------------
+
+    public synchronized void invalidate(@NonNull Key key) {
+        int i = key.ordinal();
+        values[i] = null;
+        generations[i]++;
+        flights.forget(key);
+    }
+
+    public synchronized void invalidateAll() {
+        for (Key key : Key.values()) invalidate(key);
+    }
+
+    /**
+     * Invalidate {@code key} after {@code value} was successfully written to the device
+     * and record it as the last known state.
+     */
+    public void written(@NonNull Key key, @NonNull Object value) {
+        long stamp;
+        synchronized (this) {
+            invalidate(key);
+            stamp = ++storeStamps[key.ordinal()];
+        }
+        lastKnown.update(key, value, stamp);
+    }
+
+    // -------------------- stats --------------------
+
+    public synchronized long hitCount() {
+        return hits;
+    }
+
+    public synchronized long missCount() {
+        return misses;
+    }
+}
@@ -0,0 +1,172 @@
+package ex.dev.sample.pos.control.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import ex.dev.sample.pos.control.vid.VidParser;
+import ex.dev.sample.pos.control.vid.VidSet;
+
+/**
+ * DeviceStateStore
+ * Last known device state, kept up to date by {@link ApiDataSource} reads and writes
+ * (see {@link DeviceStateCache#lastKnown()}).
+ * <p>
+ * - Unlike {@link DeviceStateCache} entries, the snapshot never expires; it is what the
+ * app last read or wrote, for readers that must not touch the SDK (e.g. a ContentProvider).
+ * - Snapshots are immutable and swapped atomically; reading is lock-free and the VID
+ * list is parsed once per change, not per lookup.
+ * - Listeners are notified only when a value actually changes, on the updating thread and
+ * with no lock held. Concurrent updates may be reported out of order; use {@link #get()}
+ * for the latest state.
+ * <p>
+ * Thread-safe.
+ */
+public final class DeviceStateStore {
+
+    /**
+     * Receives snapshot changes.
+     */
+    public interface Listener {
+        /**
+         * @param allowListChanged true if the VID list itself changed (vs. only flags)
+         */
+        void onDeviceStateChanged(@NonNull Snapshot snapshot, boolean allowListChanged);
+    }
+
+    /**
+     * Immutable device state; null fields are not known yet.
+     */
+    public static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(null, null, null, null, 0);
+
+        // Never mutated after publication; safe for concurrent reads
+        @Nullable
+        private final VidSet allowList;
+        // The list as the device reported it (the set drops duplicates), to detect changes
+        @Nullable
+        private final String[] rawAllowList;
+        @Nullable
+        public final Boolean allowListEnabled;
+        @Nullable
+        public final Boolean touchEnabled;
+        public final long updatedAtMs;
+
+        Snapshot(@Nullable VidSet allowList, @Nullable String[] rawAllowList,
+                 @Nullable Boolean allowListEnabled, @Nullable Boolean touchEnabled, long updatedAtMs) {
+            this.allowList = allowList;
+            this.rawAllowList = rawAllowList;
+            this.allowListEnabled = allowListEnabled;
+            this.touchEnabled = touchEnabled;
+            this.updatedAtMs = updatedAtMs;
+        }
+
+        public boolean hasAllowList() {
+            return allowList != null;
+        }
+
+        /**
+         * Number of VIDs in the allow list (0 if unknown).
+         */
+        public int allowListSize() {
+            return allowList != null ? allowList.size() : 0;
+        }
+
+        /**
+         * VID at {@code index}, in device order.
+         */
+        @NonNull
+        public String vidAt(int index) {
+            if (allowList == null) throw new IndexOutOfBoundsException("allow list not known");
+            return allowList.get(index);
+        }
+
+        /**
+         * Numeric value at {@code index}, or {@link VidSet#NO_VALUE}.
+         */
+        public int valueAt(int index) {
+            if (allowList == null) throw new IndexOutOfBoundsException("allow list not known");
+            return allowList.valueAt(index);
+        }
+
+        /**
+         * Index of the VID matching {@code vid} in any accepted form ("046D", "0x046d"), or -1.
+         * A hash lookup; does not scan the list.
+         */
+        public int indexOf(@Nullable String vid) {
+            if (allowList == null) return -1;
+            int parsed = VidParser.parse(vid);
+            return parsed >= 0 ? allowList.indexOfValue(VidParser.value(parsed)) : -1;
+        }
+    }
+
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile Snapshot current = Snapshot.EMPTY;
+    // Newest stamp applied per key (guarded by this)
+    private final long[] appliedStamps = new long[DeviceStateCache.Key.values().length];
+
+    @NonNull
+    public Snapshot get() {
+        return current;
+    }
+
+    public void addListener(@NonNull Listener listener) {
+        listeners.addIfAbsent(listener);
+    }
+
+    public void removeListener(@NonNull Listener listener) {
+        listeners.remove(listener);
+    }
+
+    // -------------------- updates (from DeviceStateCache) --------------------
+
+    /**
+     * Record a value read from or written to the device.
+     *
+     * @param stamp order of this update for {@code key}; an update older than the last
+     *              applied one is dropped
+     */
+    void update(@NonNull DeviceStateCache.Key key, @Nullable Object value, long stamp) {
+        if (value == null) return;
+        Snapshot next;
+        boolean listChanged = false;
+        synchronized (this) {
+            int k = key.ordinal();
+            if (stamp <= appliedStamps[k]) return;
+            appliedStamps[k] = stamp;
+            Snapshot prev = current;
+            long now = System.currentTimeMillis();
+            switch (key) {
+                case VID_ALLOW_LIST: {
+                    String[] vids = (String[]) value;
+                    if (Arrays.equals(prev.rawAllowList, vids)) return;
+                    VidSet set = new VidSet();
+                    for (String vid : vids) set.add(vid);
+                    next = new Snapshot(set, vids.clone(), prev.allowListEnabled, prev.touchEnabled, now);
+                    listChanged = true;
+                    break;
+                }
+                case VID_ALLOW_LIST_ENABLED:
+                    if (value.equals(prev.allowListEnabled)) return;
+                    next = new Snapshot(prev.allowList, prev.rawAllowList, (Boolean) value, prev.touchEnabled, now);
+                    break;
+                case TOUCH_ENABLED:
+                    if (value.equals(prev.touchEnabled)) return;
+                    next = new Snapshot(prev.allowList, prev.rawAllowList, prev.allowListEnabled, (Boolean) value,
+                            now);
+                    break;
+                default:
+                    // Drawer state changes physically; a last known value would mislead
+                    return;
+            }
+            current = next;
+        }
+        notifyListeners(next, listChanged);
+    }
+
+    private void notifyListeners(Snapshot snapshot, boolean allowListChanged) {
+        for (Listener l : listeners) l.onDeviceStateChanged(snapshot, allowListChanged);
+    }
+}
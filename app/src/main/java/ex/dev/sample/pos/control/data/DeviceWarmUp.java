@@ -0,0 +1,192 @@
+package ex.dev.sample.pos.control.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import ex.dev.sample.pos.control.data.CallMetrics.Op;
+import ex.dev.sample.pos.control.log.AppLog;
+
+/**
+ * DeviceWarmUp
+ * Binds the SDK and pre-fetches the device state on the SDK thread at process start,
+ * so the first screen finds a warm {@link DeviceStateCache} instead of paying for it.
+ * <p>
+ * - {@link #start()} is idempotent while running or ready. After a failure it restarts
+ * once a backoff has elapsed ({@link #DEFAULT_RETRY_BASE_MS}, doubling up to
+ * {@link #MAX_RETRY_DELAY_MS}); the first {@link #MAX_AUTO_RETRIES} failures in a row are
+ * also retried automatically, so one failed SDK bind at boot does not last for the process.
+ * - The VID allow list flag, the list and the 2nd display touch state are read into the
+ * cache (and {@link DeviceStateCache#lastKnown()}). The drawer status is not pre-fetched;
+ * it expires too quickly to be useful.
+ * - Warm-up is queued like any other SDK call, so a screen's own reads never race with it:
+ * they either find the value cached or join the same read.
+ * - Each read is guarded like an async call ({@link SdkCallGuard}): it has its deadline, so a
+ * hung SDK bind is reported to the breaker, and it fails fast while the circuit is open.
+ * <p>
+ * Thread-safe.
+ */
+public final class DeviceWarmUp {
+
+    public static final long DEFAULT_RETRY_BASE_MS = 1_000L;
+    public static final long MAX_RETRY_DELAY_MS = 60_000L;
+    public static final int MAX_AUTO_RETRIES = 5;
+
+    private static final String TAG = "DeviceWarmUp";
+
+    private static volatile DeviceWarmUp defaultInstance;
+
+    public enum State {
+        IDLE,
+        RUNNING,
+        READY,
+        FAILED
+    }
+
+    private final ApiDataSource dataSource;
+    private final long retryBaseMs;
+
+    private State state = State.IDLE;
+    @Nullable
+    private CompletableFuture<Void> ready = null;
+    private long durationMs = 0;
+    private int failures = 0;           // in a row
+    private long retryAtNanos = 0;      // FAILED: earliest restart
+
+    public DeviceWarmUp(@NonNull ApiDataSource dataSource) {
+        this(dataSource, DEFAULT_RETRY_BASE_MS);
+    }
+
+    /**
+     * @param retryBaseMs backoff after the first failure
+     */
+    DeviceWarmUp(@NonNull ApiDataSource dataSource, long retryBaseMs) {
+        this.dataSource = dataSource;
+        this.retryBaseMs = retryBaseMs;
+    }
+
+    /**
+     * Warm-up of the shared SDK backend, cache and executor.
+     */
+    public static DeviceWarmUp getDefault() {
+        DeviceWarmUp instance = defaultInstance;
+        if (instance == null) {
+            synchronized (DeviceWarmUp.class) {
+                instance = defaultInstance;
+                if (instance == null) {
+                    instance = new DeviceWarmUp(new ApiDataSource());
+                    defaultInstance = instance;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Start warming up on the SDK thread unless already running, done, or backing off
+     * after a failure.
+     */
+    public synchronized void start() {
+        if (state == State.RUNNING || state == State.READY) return;
+        if (state == State.FAILED && System.nanoTime() - retryAtNanos < 0) return;
+        state = State.RUNNING;
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        ready = future;
+        long start = System.nanoTime();
+        SdkExecutor executor = dataSource.executor();
+        // Queued back-to-back; the first one binds the SDK
+        CompletableFuture<?>[] reads = {
+                executor.submitGuarded(dataSource::isVidAllowListEnabled, Op.IS_VID_ALLOW_LIST_ENABLED),
+                executor.submitGuarded(dataSource::getAllowList, Op.GET_VID_ALLOW_LIST),
+                executor.submitGuarded(dataSource::is2ndDisplayTouchEnabled, Op.IS_2ND_DISPLAY_TOUCH_ENABLED)
+        };
+        CompletableFuture.allOf(reads).whenComplete((ignored, error) -> finish(future, reads, start));
+    }
+
+    @NonNull
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized boolean isReady() {
+        return state == State.READY;
+    }
+
+    /**
+     * Time the last warm-up took, in milliseconds (0 until it finished).
+     */
+    public synchronized long getDurationMs() {
+        return durationMs;
+    }
+
+    /**
+     * Deliver to {@code callback} when the warm-up finishes (at once if it already has).
+     * Starts the warm-up if it was not started, or restarts it after a failure whose
+     * backoff has elapsed; while backing off, the callback gets the last failure.
+     *
+     * @return future for this caller; cancelling it drops the callback, not the warm-up
+     */
+    public Future<Void> whenReady(@Nullable ApiDataSource.Callback<Void> callback) {
+        CompletableFuture<Void> future;
+        synchronized (this) {
+            if (state == State.IDLE || state == State.FAILED) start();
+            future = ready;
+        }
+        return dataSource.executor().attach(future, callback);
+    }
+
+    /**
+     * Record the outcome once every read finished. One failed read does not keep the others
+     * cold; the first failure is reported.
+     */
+    private void finish(CompletableFuture<Void> future, CompletableFuture<?>[] reads, long start) {
+        Throwable error = null;
+        for (CompletableFuture<?> read : reads) {
+            try {
+                read.join();
+            } catch (CompletionException e) {
+                if (error == null) error = e.getCause() != null ? e.getCause() : e;
+            }
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        long retryInMs = 0;
+        boolean autoRetry = false;
+        synchronized (this) {
+            durationMs = elapsedMs;
+            if (error == null) {
+                state = State.READY;
+                failures = 0;
+            } else {
+                state = State.FAILED;
+                failures++;
+                retryInMs = retryDelayMs(failures);
+                retryAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryInMs);
+                autoRetry = failures <= MAX_AUTO_RETRIES;
+            }
+        }
+        if (error == null) {
+            AppLog.i(TAG, () -> "warm-up done in " + elapsedMs + " ms");
+            future.complete(null);
+            return;
+        }
+        long delayMs = retryInMs;
+        AppLog.w(TAG, () -> "warm-up failed after " + elapsedMs + " ms, retry in " + delayMs + " ms", error);
+        future.completeExceptionally(error);
+        if (autoRetry) {
+            CompletableFuture.delayedExecutor(retryInMs, TimeUnit.MILLISECONDS).execute(this::start);
+        }
+    }
+
+    /**
+     * Backoff after {@code failures} failures in a row: doubles from retryBaseMs, capped.
+     */
+    private long retryDelayMs(int failures) {
+        long delay = retryBaseMs;
+        for (int i = 1; i < failures && delay < MAX_RETRY_DELAY_MS; i++) delay *= 2;
+        return Math.min(delay, MAX_RETRY_DELAY_MS);
+    }
+}
@@ -0,0 +1,114 @@
+package ex.dev.sample.pos.control.data;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * LatencyHistogram
+ * Lock-free, fixed-size histogram of latencies in microseconds.
+ * <p>
+ * - Log-linear buckets: values below 4 are exact, above that each power of two
+ * is split into 4 sub-buckets (relative error &lt;= 25%).
+ * - {@link #record(long)} is a couple of atomic increments; no locks, no allocation.
+ * - Percentiles report the upper bound of the bucket, capped at the recorded max.
+ * <p>
+ * Safe to record from any thread; a {@link #snapshot()} taken during concurrent
+ * recording may be off by the in-progress samples.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 2;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    // Highest tracked power of two (~2^40 us = 12 days); larger values are clamped
+    private static final int MAX_EXPONENT = 40;
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+    static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BITS + 2) * SUB_COUNT;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Immutable view of the histogram at one point in time.
+     */
+    public static final class Snapshot {
+        public final long count;
+        public final long p50Us;
+        public final long p99Us;
+        public final long maxUs;
+        public final long meanUs;
+
+        Snapshot(long count, long p50Us, long p99Us, long maxUs, long meanUs) {
+            this.count = count;
+            this.p50Us = p50Us;
+            this.p99Us = p99Us;
+            this.maxUs = maxUs;
+            this.meanUs = meanUs;
+        }
+    }
+
+    /**
+     * Record one latency; negative values count as 0.
+     */
+    public void record(long micros) {
+        long v = Math.max(0, Math.min(micros, MAX_VALUE));
+        buckets.incrementAndGet(indexOf(v));
+        sum.addAndGet(v);
+        long m;
+        while (v > (m = max.get())) {
+            if (max.compareAndSet(m, v)) break;
+        }
+    }
+
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        long n = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = buckets.get(i);
+            n += copy[i];
+        }
+        long maxUs = max.get();
+        long meanUs = n > 0 ? sum.get() / n : 0;
+        return new Snapshot(n,
+                percentile(copy, n, 0.50, maxUs),
+                percentile(copy, n, 0.99, maxUs),
+                maxUs, meanUs);
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) buckets.set(i, 0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    // -------------------- buckets --------------------
+
+    static int indexOf(long v) {
+        if (v < SUB_COUNT) return (int) v;
+        int exp = 63 - Long.numberOfLeadingZeros(v);
+        int sub = (int) (v >>> (exp - SUB_BITS)) & (SUB_COUNT - 1);
+        return (exp - SUB_BITS + 1) * SUB_COUNT + sub;
+    }
+
+    /**
+     * Largest value that falls into bucket {@code index}.
+     */
+    static long upperBound(int index) {
+        if (index < SUB_COUNT) return index;
+        int exp = index / SUB_COUNT + SUB_BITS - 1;
+        int sub = index % SUB_COUNT;
+        long width = 1L << (exp - SUB_BITS);
+        return ((long) (SUB_COUNT + sub) << (exp - SUB_BITS)) + width - 1;
+    }
+
+    private static long percentile(long[] buckets, long n, double q, long maxUs) {
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(q * n));
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) return Math.min(upperBound(i), maxUs);
+        }
+        return maxUs;
+    }
+}
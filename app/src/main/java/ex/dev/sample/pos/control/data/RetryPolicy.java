@@ -0,0 +1,103 @@
+package ex.dev.sample.pos.control.data;
+
+import android.os.RemoteException;
+import android.os.TransactionTooLargeException;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+import ex.dev.sample.pos.control.data.CallMetrics.Op;
+
+/**
+ * RetryPolicy
+ * When and how long {@link ApiDataSource} waits before repeating a failed SDK call.
+ * <p>
+ * - Up to {@code maxAttempts} attempts in total (1 = no retry).
+ * - Exponential backoff from {@code baseDelayMs}, capped at {@code maxDelayMs}, with jitter:
+ * each delay is picked at random in [cap / 2, cap], so terminals retrying after the same
+ * fault do not hit the SDK in lockstep.
+ * - Only transient errors are retried ({@link #isRetryable}); by default these are failed
+ * binder calls to the device service ({@link #isTransientByDefault}). Opening the cash drawer is not
+ * idempotent: an exception may come after the drawer opened, so only a {@code false}
+ * result (the SDK reporting it did not open) is retried for it, and only while a status read
+ * finds the drawer still closed (the SDK also returns false for errors it caught itself).
+ * <p>
+ * Immutable.
+ */
+public final class RetryPolicy {
+
+    public static final RetryPolicy DEFAULT = new RetryPolicy(3, 100L, 1_000L);
+    public static final RetryPolicy NONE = new RetryPolicy(1, 0L, 0L);
+
+    public final int maxAttempts;
+    public final long baseDelayMs;
+    public final long maxDelayMs;
+    private final Predicate<Throwable> transientError;
+
+    public RetryPolicy(int maxAttempts, long baseDelayMs, long maxDelayMs) {
+        this(maxAttempts, baseDelayMs, maxDelayMs, RetryPolicy::isTransientByDefault);
+    }
+
+    /**
+     * @param transientError which exceptions are worth retrying (for idempotent operations)
+     */
+    public RetryPolicy(int maxAttempts, long baseDelayMs, long maxDelayMs,
+                       @NonNull Predicate<Throwable> transientError) {
+        if (maxAttempts < 1) throw new IllegalArgumentException("maxAttempts must be >= 1");
+        if (baseDelayMs < 0 || maxDelayMs < baseDelayMs) {
+            throw new IllegalArgumentException("need 0 <= baseDelayMs <= maxDelayMs");
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.transientError = transientError;
+    }
+
+    /**
+     * Whether a call of {@code op} that threw {@code t} may be attempted again.
+     */
+    public boolean isRetryable(@NonNull Op op, @NonNull Throwable t) {
+        switch (op) {
+            case OPEN_CASH_BOX:
+            case REBOOT:
+                return false;   // not idempotent
+            default:
+                break;
+        }
+        return transientError.test(t);
+    }
+
+    /**
+     * Default classification: only a failed binder call to the device service is transient
+     * (a {@link RemoteException} such as {@code DeadObjectException}, thrown or wrapped while the
+     * service restarts). Anything else, e.g. an NPE from a bug, will not go away by retrying.
+     * A transaction too large for the binder fails the same way every time.
+     */
+    public static boolean isTransientByDefault(@NonNull Throwable t) {
+        for (Throwable c = t; c != null; c = c.getCause()) {
+            if (c instanceof RemoteException) return !(c instanceof TransactionTooLargeException);
+        }
+        return false;
+    }
+
+    /**
+     * Whether a call of {@code op} that returned the failure result {@code false} may be
+     * attempted again, once the device confirms the call had no effect.
+     */
+    public boolean isRetryableResult(@NonNull Op op) {
+        return op == Op.OPEN_CASH_BOX;
+    }
+
+    /**
+     * Delay before attempt {@code attempt + 1}, after attempt {@code attempt} (1-based) failed.
+     */
+    public long delayMs(int attempt) {
+        long cap = baseDelayMs;
+        for (int i = 1; i < attempt && cap < maxDelayMs; i++) cap *= 2;
+        cap = Math.min(cap, maxDelayMs);
+        long half = cap / 2;
+        return half + ThreadLocalRandom.current().nextLong(cap - half + 1);
+    }
+}
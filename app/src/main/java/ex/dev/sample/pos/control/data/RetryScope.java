@@ -0,0 +1,75 @@
+package ex.dev.sample.pos.control.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+import ex.dev.sample.pos.control.data.CallMetrics.Op;
+
+/**
+ * RetryScope
+ * Retry state of one task on the SDK thread that can be run again.
+ * <p>
+ * Sleeping between attempts would stall every call queued behind the task on the single SDK
+ * thread. Instead, an SDK call that failed transiently inside the scope asks for the whole
+ * task to be queued again after the backoff ({@link #retryAfter}); {@link SdkExecutor} does the
+ * re-queuing. Attempts are counted per operation across runs, so the retry policy and the
+ * metrics still see one call.
+ * <p>
+ * Confined to the SDK thread.
+ */
+final class RetryScope {
+
+    private static final ThreadLocal<RetryScope> CURRENT = new ThreadLocal<>();
+
+    private final int[] retried = new int[Op.values().length];
+    private long retryInMs = -1;
+
+    /**
+     * Scope of the task running on the calling thread, or null if it cannot be run again.
+     */
+    @Nullable
+    static RetryScope current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Attempts of {@code op} that asked for a retry in earlier runs of the task.
+     */
+    int retried(@NonNull Op op) {
+        return retried[op.ordinal()];
+    }
+
+    /**
+     * Ask for the task to run again in {@code delayMs}, after the failed attempt of {@code op}.
+     * The caller then finishes the current run with its failure (or failure result).
+     */
+    void retryAfter(@NonNull Op op, long delayMs) {
+        retried[op.ordinal()]++;
+        if (retryInMs < 0) retryInMs = delayMs;
+    }
+
+    /**
+     * Run {@code task} once in this scope; complete {@code result} unless a retry was asked for.
+     *
+     * @return delay before the task should run again, or -1 if it is finished
+     */
+    <T> long run(@NonNull Callable<T> task, @NonNull CompletableFuture<T> result) {
+        RetryScope outer = CURRENT.get();
+        CURRENT.set(this);
+        retryInMs = -1;
+        T value;
+        try {
+            value = task.call();
+        } catch (Throwable t) {
+            if (retryInMs < 0) result.completeExceptionally(t);
+            return retryInMs;
+        } finally {
+            CURRENT.set(outer);
+        }
+        if (retryInMs < 0) result.complete(value);
+        return retryInMs;
+    }
+}
@@ -0,0 +1,244 @@
+package ex.dev.sample.pos.control.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+
+import ex.dev.sample.pos.control.data.CallMetrics.Op;
+
+/**
+ * SdkCallGuard
+ * Per-operation deadlines and a circuit breaker for the calls queued on one {@link SdkExecutor}.
+ * <p>
+ * A hung SDK call blocks the SDK thread, and every call queued behind it hangs too. So:
+ * - Each async call gets a deadline ({@link #getTimeoutMs}), counted from when it starts
+ * running; when it passes, the caller gets a {@link CallTimeoutException} instead of waiting forever.
+ * - A call that waits in the queue longer than {@link #getQueueTimeoutMs} is dropped with a
+ * {@link QueueTimeoutException}. That counts against the SDK only while the running call is
+ * past its deadline: waiting behind slow but healthy work (a commit, a reboot) is not a hang.
+ * - After {@link #DEFAULT_FAILURE_THRESHOLD} consecutive timeouts the circuit opens: new
+ * calls fail at once with {@link CircuitOpenException}, without queuing behind the hung call.
+ * - After {@link #DEFAULT_OPEN_MS} one probe call is let through (half-open). Any SDK
+ * answer (a result or an SDK exception) closes the circuit; a probe timeout re-opens it.
+ * <p>
+ * Only timeouts of running calls count as failures: an SDK exception means the SDK is responsive.
+ * Thread-safe.
+ */
+public final class SdkCallGuard {
+
+    public static final int DEFAULT_FAILURE_THRESHOLD = 3;
+    public static final long DEFAULT_OPEN_MS = 10_000L;
+    public static final long DEFAULT_READ_TIMEOUT_MS = 3_000L;
+    public static final long DEFAULT_WRITE_TIMEOUT_MS = 5_000L;
+    public static final long DEFAULT_QUEUE_TIMEOUT_MS = 10_000L;
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /**
+     * An SDK call did not complete before its deadline.
+     */
+    public static class CallTimeoutException extends TimeoutException {
+        public CallTimeoutException(@NonNull Op op, long timeoutMs) {
+            super(op.sdkName + " timed out after " + timeoutMs + " ms");
+        }
+
+        CallTimeoutException(@NonNull String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * An SDK call was dropped because it waited too long for the SDK thread.
+     */
+    public static class QueueTimeoutException extends CallTimeoutException {
+        public QueueTimeoutException(@NonNull Op op, long queueTimeoutMs) {
+            super(op.sdkName + " not started after " + queueTimeoutMs + " ms in the SDK queue");
+        }
+    }
+
+    /**
+     * A call was rejected without reaching the SDK because the circuit is open.
+     */
+    public static class CircuitOpenException extends IllegalStateException {
+        public CircuitOpenException(@Nullable Op op, long retryInMs) {
+            super((op != null ? op.sdkName : "SDK call") + " rejected: SDK not responding, retry in "
+                    + retryInMs + " ms");
+        }
+    }
+
+    private final LongSupplier clockNanos;
+    private final long[] timeoutMs = new long[Op.values().length];
+    private int failureThreshold = DEFAULT_FAILURE_THRESHOLD;
+    private long openNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_OPEN_MS);
+    private long queueTimeoutMs = DEFAULT_QUEUE_TIMEOUT_MS;
+
+    private State state = State.CLOSED;
+    private int consecutiveTimeouts = 0;
+    private long openedAt = 0;       // OPEN: when it opened; HALF_OPEN: when the probe started
+    private boolean stalled = false; // a running call passed its deadline and has not answered yet
+    private long timeouts = 0;
+    private long queueTimeouts = 0;
+    private long rejected = 0;
+    private long trips = 0;
+
+    public SdkCallGuard() {
+        this(System::nanoTime);
+    }
+
+    SdkCallGuard(@NonNull LongSupplier clockNanos) {
+        this.clockNanos = clockNanos;
+        for (Op op : Op.values()) timeoutMs[op.ordinal()] = defaultTimeoutMs(op);
+    }
+
+    private static long defaultTimeoutMs(Op op) {
+        switch (op) {
+            case REBOOT:
+                return 0;   // may never return
+            case OPEN_CASH_BOX:
+            case SET_VID_ALLOW_LIST_ENABLED:
+            case SET_VID_ALLOW_LIST:
+            case CLEAR_VID_ALLOW_LIST:
+            case SET_2ND_DISPLAY_TOUCH_ENABLED:
+                return DEFAULT_WRITE_TIMEOUT_MS;
+            default:
+                return DEFAULT_READ_TIMEOUT_MS;
+        }
+    }
+
+    // -------------------- configuration --------------------
+
+    /**
+     * Deadline of {@code op}'s async calls; 0 means none.
+     */
+    public synchronized long getTimeoutMs(@NonNull Op op) {
+        return timeoutMs[op.ordinal()];
+    }
+
+    public synchronized void setTimeoutMs(@NonNull Op op, long ms) {
+        if (ms < 0) throw new IllegalArgumentException("timeoutMs must be >= 0");
+        timeoutMs[op.ordinal()] = ms;
+    }
+
+    /**
+     * Longest a deadline-bound call may wait for the SDK thread before it is dropped; 0 means no limit.
+     */
+    public synchronized long getQueueTimeoutMs() {
+        return queueTimeoutMs;
+    }
+
+    public synchronized void setQueueTimeoutMs(long ms) {
+        if (ms < 0) throw new IllegalArgumentException("queueTimeoutMs must be >= 0");
+        queueTimeoutMs = ms;
+    }
+
+    public synchronized void setFailureThreshold(int threshold) {
+        if (threshold < 1) throw new IllegalArgumentException("threshold must be >= 1");
+        failureThreshold = threshold;
+    }
+
+    public synchronized void setOpenMs(long ms) {
+        if (ms < 0) throw new IllegalArgumentException("openMs must be >= 0");
+        openNanos = TimeUnit.MILLISECONDS.toNanos(ms);
+    }
+
+    // -------------------- circuit --------------------
+
+    /**
+     * Check whether a call for {@code op} may be queued.
+     *
+     * @throws CircuitOpenException if the circuit is open (or a probe is already running)
+     */
+    public synchronized void acquire(@Nullable Op op) {
+        if (state == State.CLOSED) return;
+        long now = clockNanos.getAsLong();
+        // A probe that never reported (e.g. cancelled before it ran) does not block forever
+        if (now - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+            openedAt = now;
+            return;
+        }
+        rejected++;
+        throw new CircuitOpenException(op, TimeUnit.NANOSECONDS.toMillis(openNanos - (now - openedAt)));
+    }
+
+    /**
+     * Check whether a call for {@code op} may join one already queued or running. Unlike
+     * {@link #acquire}, this never starts a probe.
+     *
+     * @throws CircuitOpenException unless the circuit is closed
+     */
+    public synchronized void check(@Nullable Op op) {
+        if (state == State.CLOSED) return;
+        rejected++;
+        long retryInNanos = Math.max(0, openNanos - (clockNanos.getAsLong() - openedAt));
+        throw new CircuitOpenException(op, TimeUnit.NANOSECONDS.toMillis(retryInNanos));
+    }
+
+    /**
+     * The SDK answered a call (with a result or an exception).
+     */
+    public synchronized void onCompleted() {
+        consecutiveTimeouts = 0;
+        stalled = false;
+        state = State.CLOSED;
+    }
+
+    /**
+     * A running call passed its deadline.
+     */
+    public synchronized void onTimeout() {
+        stalled = true;
+        timeouts++;
+        consecutiveTimeouts++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveTimeouts >= failureThreshold)) {
+            state = State.OPEN;
+            openedAt = clockNanos.getAsLong();
+            trips++;
+        }
+    }
+
+    /**
+     * A call was dropped before it started. Counts as a timeout only if it queued behind a
+     * call that is past its deadline.
+     */
+    public synchronized void onQueueTimeout() {
+        queueTimeouts++;
+        if (stalled) onTimeout();
+    }
+
+    // -------------------- stats --------------------
+
+    @NonNull
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized long timeoutCount() {
+        return timeouts;
+    }
+
+    /**
+     * Calls dropped after waiting for the SDK thread past the queue timeout.
+     */
+    public synchronized long queueTimeoutCount() {
+        return queueTimeouts;
+    }
+
+    public synchronized long rejectedCount() {
+        return rejected;
+    }
+
+    /**
+     * Times the circuit opened.
+     */
+    public synchronized long tripCount() {
+        return trips;
+    }
+}
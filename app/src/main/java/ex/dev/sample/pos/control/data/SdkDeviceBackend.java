@@ -0,0 +1,78 @@
+package ex.dev.sample.pos.control.data;
+
+import device.sdk.Control;
+import device.sdk.PosManager;
+
+/**
+ * SdkDeviceBackend
+ * {@link DeviceBackend} backed by the real device SDK (PosManager and Control).
+ * <p>
+ * The SDK is bound on the first call, not on construction, so creating an
+ * {@link ApiDataSource} on the main thread is cheap; the binding cost is paid on the SDK
+ * thread (normally by {@link DeviceWarmUp} at process start).
+ */
+public class SdkDeviceBackend implements DeviceBackend {
+
+    // Resolved on first use (class initialization is thread-safe)
+    private static final class ManagerHolder {
+        static final PosManager INSTANCE = PosManager.get();
+    }
+
+    private static final class ControlHolder {
+        static final Control INSTANCE = Control.getInstance();
+    }
+
+    private static PosManager manager() {
+        return ManagerHolder.INSTANCE;
+    }
+
+    @Override
+    public boolean openCashBox() {
+        return manager().openCashBox();
+    }
+
+    @Override
+    public boolean getCashBoxStatus() {
+        return manager().getCashBoxStatus();
+    }
+
+    @Override
+    public boolean isVidAllowListEnabled() {
+        return manager().isVidAllowListEnabled();
+    }
+
+    @Override
+    public boolean setVidAllowListEnabled(boolean isEnabled) {
+        return manager().setVidAllowListEnabled(isEnabled);
+    }
+
+    @Override
+    public String[] getVidAllowList() {
+        return manager().getVidAllowList();
+    }
+
+    @Override
+    public boolean setVidAllowList(String[] vids) {
+        return manager().setVidAllowList(vids);
+    }
+
+    @Override
+    public boolean clearVidAllowList() {
+        return manager().clearVidAllowList();
+    }
+
+    @Override
+    public boolean is2ndDisplayTouchEnabled() {
+        return manager().is2ndDisplayTouchEnabled();
+    }
+
+    @Override
+    public boolean set2ndDisplayTouchEnabled(boolean isEnabled) {
+        return manager().set2ndDisplayTouchEnabled(isEnabled);
+    }
+
+    @Override
+    public void reboot(boolean confirm, String reason, boolean wait) {
+        ControlHolder.INSTANCE.reboot(confirm, reason, wait);
+    }
+}
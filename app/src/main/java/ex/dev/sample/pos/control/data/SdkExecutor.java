@@ -0,0 +1,410 @@
+package ex.dev.sample.pos.control.data;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * SdkExecutor
+ * Runs SDK calls off the UI thread and delivers results back on a callback executor.
+ * <p>
+ * - All work is executed on a single dedicated "sdk-executor" thread, so SDK
+ * access stays serialized exactly like the previous synchronous calls.
+ * - Callbacks are delivered on the main thread by default.
+ * - A cancelled future never delivers its callback.
+ * - The {@code Op} overloads apply the {@link SdkCallGuard} of this executor: per-operation
+ * deadlines and a circuit breaker, so a hung SDK call degrades to quick errors. A deadline
+ * starts when the call starts running, so waiting behind slow but healthy work is bounded
+ * only by the (longer) queue timeout.
+ * - A single-operation call that fails transiently is queued again after its backoff
+ * ({@link RetryScope}), so a retry never sleeps on the SDK thread.
+ */
+public final class SdkExecutor {
+
+    private static final String THREAD_NAME = "sdk-executor";
+
+    private static volatile SdkExecutor defaultInstance;
+
+    // Executor whose task is running on the calling thread
+    private static final ThreadLocal<SdkExecutor> RUNNING = new ThreadLocal<>();
+
+    private final ExecutorService worker;
+    private final Executor callbackExecutor;
+    private final SdkCallGuard guard;
+    // Shared SDK calls whose outcome the guard is already waiting for
+    private final Set<CompletableFuture<?>> reported = ConcurrentHashMap.newKeySet();
+
+    public SdkExecutor(@NonNull ExecutorService worker, @NonNull Executor callbackExecutor) {
+        this(worker, callbackExecutor, new SdkCallGuard());
+    }
+
+    public SdkExecutor(@NonNull ExecutorService worker, @NonNull Executor callbackExecutor,
+                       @NonNull SdkCallGuard guard) {
+        this.worker = worker;
+        this.callbackExecutor = callbackExecutor;
+        this.guard = guard;
+    }
+
+    /**
+     * Shared executor: one SDK thread for the whole process, callbacks on main thread.
+     */
+    public static SdkExecutor getDefault() {
+        SdkExecutor instance = defaultInstance;
+        if (instance == null) {
+            synchronized (SdkExecutor.class) {
+                instance = defaultInstance;
+                if (instance == null) {
+                    Handler main = new Handler(Looper.getMainLooper());
+                    ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+                        Thread t = new Thread(r, THREAD_NAME);
+                        t.setDaemon(true);
+                        return t;
+                    });
+                    instance = new SdkExecutor(worker, main::post);
+                    defaultInstance = instance;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Run {@code task} on the SDK thread and deliver the outcome to {@code callback}.
+     *
+     * @return future of the task; cancel it to drop the callback
+     */
+    public <T> Future<T> submit(@NonNull Callable<T> task, @Nullable ApiDataSource.Callback<T> callback) {
+        FutureTask<T> future = new FutureTask<T>(task) {
+            @Override
+            protected void done() {
+                if (callback == null || isCancelled()) return;
+                callbackExecutor.execute(() -> deliver(this, callback));
+            }
+        };
+        execute(future);
+        return future;
+    }
+
+    /**
+     * Run an SDK call for {@code op} on the SDK thread, guarded by {@link #guard()}.
+     * <p>
+     * Fails at once with {@link SdkCallGuard.CircuitOpenException} while the circuit is open.
+     * {@code op}'s deadline counts from when the call starts running: past it the callback gets
+     * {@link SdkCallGuard.CallTimeoutException}. A call still queued after the queue timeout
+     * gets {@link SdkCallGuard.QueueTimeoutException} and never runs.
+     * <p>
+     * With an {@code op}, the task is one operation: when its SDK call fails transiently, the
+     * task is queued again after the backoff instead of sleeping on the SDK thread.
+     * Without one, the task runs once and its SDK calls are not retried.
+     *
+     * @param op operation whose deadline applies, or null for none (breaker only)
+     */
+    public <T> Future<T> submit(@NonNull Callable<T> task, @Nullable CallMetrics.Op op,
+                                @Nullable ApiDataSource.Callback<T> callback) {
+        CompletableFuture<T> future = submitGuarded(task, op);
+        deliverWhenDone(future, callback);
+        return future;
+    }
+
+    /**
+     * Like {@link #submit(Callable, CallMetrics.Op, ApiDataSource.Callback)}, for callers composing
+     * futures: the returned future completes on the SDK thread (or a timer thread).
+     */
+    <T> CompletableFuture<T> submitGuarded(@NonNull Callable<T> task, @Nullable CallMetrics.Op op) {
+        try {
+            guard.acquire(op);
+        } catch (SdkCallGuard.CircuitOpenException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        long timeoutMs = op != null ? guard.getTimeoutMs(op) : 0;
+        ExpiringTask<T> future = new ExpiringTask<>(() -> {
+            try {
+                return task.call();
+            } finally {
+                guard.onCompleted();
+            }
+        }, op, timeoutMs);
+        execute(future);
+        long queueMs = timeoutMs > 0 ? guard.getQueueTimeoutMs() : 0;
+        if (queueMs > 0) {
+            CompletableFuture.delayedExecutor(queueMs, TimeUnit.MILLISECONDS).execute(() -> {
+                if (future.expireQueued(new SdkCallGuard.QueueTimeoutException(op, queueMs))) {
+                    guard.onQueueTimeout();
+                }
+            });
+        }
+        return future;
+    }
+
+    /**
+     * Deliver {@code error} to {@code callback} without running anything.
+     *
+     * @return failed future; cancel it to drop the callback
+     */
+    public <T> Future<T> failed(@NonNull Throwable error, @Nullable ApiDataSource.Callback<T> callback) {
+        FutureTask<T> future = new FutureTask<T>(() -> {
+            if (error instanceof Exception) throw (Exception) error;
+            throw new ExecutionException(error);
+        }) {
+            @Override
+            protected void done() {
+                if (callback == null || isCancelled()) return;
+                callbackExecutor.execute(() -> deliver(this, callback));
+            }
+        };
+        future.run();
+        return future;
+    }
+
+    /**
+     * Deliver an already known {@code value} (e.g. a cache hit) to {@code callback}
+     * without going through the SDK thread. The callback still runs on the callback executor.
+     *
+     * @return completed future; cancel it to drop the callback
+     */
+    public <T> Future<T> completed(T value, @Nullable ApiDataSource.Callback<T> callback) {
+        FutureTask<T> future = new FutureTask<T>(() -> value) {
+            @Override
+            protected void done() {
+                if (callback == null || isCancelled()) return;
+                callbackExecutor.execute(() -> deliver(this, callback));
+            }
+        };
+        future.run();
+        return future;
+    }
+
+    /**
+     * Deliver the outcome of {@code source} (e.g. a shared in-flight call) to {@code callback}.
+     *
+     * @return future for this caller; cancelling it drops the callback but not {@code source}
+     */
+    public <T> Future<T> attach(@NonNull CompletableFuture<T> source, @Nullable ApiDataSource.Callback<T> callback) {
+        return attach(source, source, null, callback);
+    }
+
+    /**
+     * Like {@link #attach(CompletableFuture, ApiDataSource.Callback)}, with {@code op}'s deadline
+     * for this caller; {@code source} is an SDK call whose completion is reported to {@link #guard()}.
+     *
+     * @param started completes when {@code source}'s SDK work starts running on the SDK thread;
+     *                the deadline counts from then, the queue timeout until then
+     */
+    public <T> Future<T> attach(@NonNull CompletableFuture<T> source, @NonNull CompletableFuture<?> started,
+                                @Nullable CallMetrics.Op op, @Nullable ApiDataSource.Callback<T> callback) {
+        CompletableFuture<T> future = guarded(source, started, op);
+        deliverWhenDone(future, callback);
+        return future;
+    }
+
+    /**
+     * Per-caller copy of {@code source}, failing with a timeout past {@code op}'s deadline
+     * (counted from {@code started}) or past the queue timeout if it has not started by then.
+     * <p>
+     * The guard hears about {@code source} once, however many callers share it
+     * ({@link #report}); the per-caller timers only fail their caller's copy.
+     */
+    <T> CompletableFuture<T> guarded(@NonNull CompletableFuture<T> source, @NonNull CompletableFuture<?> started,
+                                     @Nullable CallMetrics.Op op) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        source.whenComplete((value, error) -> {
+            if (error != null) future.completeExceptionally(error);
+            else future.complete(value);
+        });
+        long timeoutMs = op != null ? guard.getTimeoutMs(op) : 0;
+        if (op != null) report(source, started, timeoutMs);
+        if (timeoutMs > 0 && !future.isDone()) {
+            long queueMs = guard.getQueueTimeoutMs();
+            if (queueMs > 0 && !started.isDone()) {
+                CompletableFuture.delayedExecutor(queueMs, TimeUnit.MILLISECONDS).execute(() -> {
+                    if (!started.isDone()) {
+                        future.completeExceptionally(new SdkCallGuard.QueueTimeoutException(op, queueMs));
+                    }
+                });
+            }
+            started.whenComplete((ignored, error) ->
+                    CompletableFuture.delayedExecutor(timeoutMs, TimeUnit.MILLISECONDS).execute(() ->
+                            future.completeExceptionally(new SdkCallGuard.CallTimeoutException(op, timeoutMs))));
+        }
+        return future;
+    }
+
+    /**
+     * Report the SDK call behind {@code source} to the guard, once per source: its completion,
+     * its deadline passing while it runs, or its queue timeout passing before it starts.
+     */
+    private void report(CompletableFuture<?> source, CompletableFuture<?> started, long timeoutMs) {
+        if (source.isDone() || !reported.add(source)) return;
+        source.whenComplete((value, error) -> {
+            reported.remove(source);
+            guard.onCompleted();
+        });
+        if (timeoutMs <= 0) return;
+        long queueMs = guard.getQueueTimeoutMs();
+        if (queueMs > 0 && !started.isDone()) {
+            CompletableFuture.delayedExecutor(queueMs, TimeUnit.MILLISECONDS).execute(() -> {
+                if (!started.isDone() && !source.isDone()) guard.onQueueTimeout();
+            });
+        }
+        started.whenComplete((ignored, error) ->
+                CompletableFuture.delayedExecutor(timeoutMs, TimeUnit.MILLISECONDS).execute(() -> {
+                    if (!source.isDone()) guard.onTimeout();
+                }));
+    }
+
+    /**
+     * Run {@code task} now (the caller is on the SDK thread) and complete {@code result} with
+     * its outcome. When an SDK call in it asks for a retry ({@link RetryScope}), the task is
+     * queued again after the backoff, behind the calls submitted meanwhile. Nothing runs again
+     * once {@code result} is done (e.g. timed out or cancelled).
+     */
+    <T> void runRetrying(@NonNull Callable<T> task, @NonNull CompletableFuture<T> result) {
+        runRetrying(task, result, new RetryScope());
+    }
+
+    private <T> void runRetrying(Callable<T> task, CompletableFuture<T> result, RetryScope scope) {
+        if (result.isDone()) return;
+        long retryInMs = scope.run(task, result);
+        if (retryInMs < 0) return;
+        CompletableFuture.delayedExecutor(retryInMs, TimeUnit.MILLISECONDS).execute(() -> {
+            try {
+                execute(() -> runRetrying(task, result, scope));
+            } catch (RejectedExecutionException e) {
+                result.completeExceptionally(e);
+            }
+        });
+    }
+
+    /**
+     * Whether the calling thread is running a task of this executor (the SDK thread).
+     */
+    boolean isWorkerThread() {
+        return RUNNING.get() == this;
+    }
+
+    /**
+     * Deadlines and circuit breaker of the SDK calls run on this executor.
+     */
+    @NonNull
+    public SdkCallGuard guard() {
+        return guard;
+    }
+
+    /**
+     * Executor that runs tasks on the SDK thread (for callers composing their own work).
+     */
+    public Executor worker() {
+        return this::execute;
+    }
+
+    private void execute(Runnable task) {
+        worker.execute(() -> {
+            SdkExecutor outer = RUNNING.get();
+            RUNNING.set(this);
+            try {
+                task.run();
+            } finally {
+                RUNNING.set(outer);
+            }
+        });
+    }
+
+    /**
+     * Executor that callbacks are delivered on.
+     */
+    public Executor callbackExecutor() {
+        return callbackExecutor;
+    }
+
+    /**
+     * Task whose outcome can be set to a timeout before (or while) it runs.
+     * Its deadline starts when it starts running.
+     */
+    private final class ExpiringTask<T> extends CompletableFuture<T> implements Runnable {
+        private final Callable<T> task;
+        @Nullable
+        private final CallMetrics.Op op;
+        private final long timeoutMs;
+
+        // Set by the SDK thread when it runs the task, or by the queue timeout when it drops it
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        ExpiringTask(@NonNull Callable<T> task, @Nullable CallMetrics.Op op, long timeoutMs) {
+            this.task = task;
+            this.op = op;
+            this.timeoutMs = timeoutMs;
+        }
+
+        @Override
+        public void run() {
+            if (!started.compareAndSet(false, true)) return;   // expired while queued
+            if (timeoutMs > 0) {
+                CompletableFuture.delayedExecutor(timeoutMs, TimeUnit.MILLISECONDS).execute(() -> {
+                    if (completeExceptionally(new SdkCallGuard.CallTimeoutException(op, timeoutMs))) {
+                        guard.onTimeout();
+                    }
+                });
+            }
+            if (op != null) {
+                runRetrying(task, this);
+                return;
+            }
+            try {
+                complete(task.call());
+            } catch (Throwable t) {
+                completeExceptionally(t);
+            }
+        }
+
+        /**
+         * @return true if the task had not started and now never runs, failing with {@code error}
+         */
+        boolean expireQueued(@NonNull Throwable error) {
+            return started.compareAndSet(false, true) && completeExceptionally(error);
+        }
+    }
+
+    /**
+     * Deliver the outcome of {@code future} to {@code callback} unless it is cancelled.
+     */
+    private <T> void deliverWhenDone(CompletableFuture<T> future, @Nullable ApiDataSource.Callback<T> callback) {
+        if (callback == null) return;
+        future.whenComplete((value, error) -> {
+            if (!future.isCancelled()) callbackExecutor.execute(() -> deliver(future, callback));
+        });
+    }
+
+    private static <T> void deliver(Future<T> future, ApiDataSource.Callback<T> callback) {
+        // Re-check: the caller may have cancelled between completion and delivery
+        if (future.isCancelled()) return;
+
+        T result;
+        try {
+            result = future.get();
+        } catch (ExecutionException e) {
+            callback.onError(e.getCause() != null ? e.getCause() : e);
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            callback.onError(e);
+            return;
+        }
+        callback.onSuccess(result);
+    }
+}
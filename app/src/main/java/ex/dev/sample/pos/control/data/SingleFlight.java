@@ -0,0 +1,221 @@
+package ex.dev.sample.pos.control.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * SingleFlight
+ * Coalesces concurrent identical reads: while a load for a key is queued or running,
+ * further requests for that key share its result instead of starting another SDK call.
+ * <p>
+ * - {@link #submit} (async) queues the load on the SDK thread, or attaches to the one in flight.
+ * - {@link #run} (blocking) joins a load that is already running; if the load is only
+ * queued, the caller runs it right away and the queued task becomes a no-op. A caller on
+ * the SDK thread therefore never waits for work queued behind itself.
+ * - Failures are shared too; the next request after completion starts a new load. A queued
+ * load that fails transiently stays in flight and is queued again after its backoff; until
+ * then a blocking caller may claim and run it.
+ * <p>
+ * Thread-safe. Per-key counters report requests and loads; the difference is the
+ * number of SDK calls saved.
+ */
+public final class SingleFlight<K> {
+
+    /**
+     * One load: its shared result, and when it started running.
+     */
+    static final class Flight<T> {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final CompletableFuture<Void> started = new CompletableFuture<>();
+        final AtomicBoolean claimed = new AtomicBoolean();
+    }
+
+    private static final class Counters {
+        final LongAdder requests = new LongAdder();
+        final LongAdder loads = new LongAdder();
+    }
+
+    private final Map<K, Flight<?>> flights = new HashMap<>();
+    private final Map<K, Counters> counters = new ConcurrentHashMap<>();
+
+    // -------------------- loading --------------------
+
+    /**
+     * Load {@code key} on {@code executor}'s SDK thread, sharing a load already in flight.
+     *
+     * @return future for this caller; cancelling it drops only this caller's callback
+     */
+    public <T> Future<T> submit(@NonNull K key, @NonNull Supplier<T> loader,
+                                @NonNull SdkExecutor executor, @Nullable ApiDataSource.Callback<T> callback) {
+        return executor.attach(share(key, loader, executor).result, callback);
+    }
+
+    /**
+     * Like {@link #submit}, for callers composing futures: returns the shared flight itself,
+     * whose result is completed on the SDK thread. Do not cancel or complete its futures.
+     */
+    <T> Flight<T> share(@NonNull K key, @NonNull Supplier<T> loader,
+                                   @NonNull SdkExecutor executor) {
+        counters(key).requests.increment();
+        Flight<T> flight;
+        boolean created = false;
+        synchronized (flights) {
+            flight = cast(flights.get(key));
+            if (flight == null) {
+                flight = new Flight<>();
+                flights.put(key, flight);
+                created = true;
+            }
+        }
+        if (created) {
+            Flight<T> f = flight;
+            RetryScope scope = new RetryScope();
+            executor.worker().execute(() -> loadQueued(key, f, loader, executor, scope));
+        }
+        return flight;
+    }
+
+    /**
+     * Load {@code key} in the calling thread, or wait for the identical load already running.
+     */
+    public <T> T run(@NonNull K key, @NonNull Supplier<T> loader) {
+        counters(key).requests.increment();
+        Flight<T> flight;
+        synchronized (flights) {
+            flight = cast(flights.get(key));
+            if (flight == null) {
+                flight = new Flight<>();
+                flights.put(key, flight);
+            }
+        }
+        if (!claim(key, flight)) {
+            // Running on another thread; share its outcome
+            try {
+                return flight.result.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                if (cause instanceof Error) throw (Error) cause;
+                throw e;
+            }
+        }
+        T value;
+        try {
+            value = loader.get();
+        } catch (Throwable t) {
+            settle(key, flight, null, t);
+            throw t;
+        }
+        settle(key, flight, value, null);
+        return value;
+    }
+
+    /**
+     * Run a queued load on the SDK thread unless a blocking caller claimed it first.
+     * <p>
+     * A transient failure does not sleep here: the claim is released and the load queued again
+     * after the backoff, so a blocking caller on the SDK thread never waits for a retry queued
+     * behind itself (it runs the load instead).
+     */
+    private <T> void loadQueued(K key, Flight<T> flight, Supplier<T> loader, SdkExecutor executor,
+                                RetryScope scope) {
+        if (!claim(key, flight)) return;
+        CompletableFuture<T> loaded = new CompletableFuture<>();
+        long retryInMs = scope.run(loader::get, loaded);
+        if (retryInMs < 0) {
+            loaded.whenComplete((value, error) -> settle(key, flight, value, error));
+            return;
+        }
+        flight.claimed.set(false);
+        CompletableFuture.delayedExecutor(retryInMs, TimeUnit.MILLISECONDS).execute(() -> {
+            try {
+                executor.worker().execute(() -> loadQueued(key, flight, loader, executor, scope));
+            } catch (RejectedExecutionException e) {
+                if (claim(key, flight)) settle(key, flight, null, e);
+            }
+        });
+    }
+
+    /**
+     * Claim the load for the calling thread if nobody has yet.
+     *
+     * @return false if another thread is already running it
+     */
+    private boolean claim(K key, Flight<?> flight) {
+        if (!flight.claimed.compareAndSet(false, true)) return false;
+        // Retries of a queued load are the same load
+        if (flight.started.complete(null)) counters(key).loads.increment();
+        return true;
+    }
+
+    /**
+     * Share the outcome of a claimed load; requests from now on start a new one.
+     */
+    private <T> void settle(K key, Flight<T> flight, @Nullable T value, @Nullable Throwable error) {
+        finish(key, flight);
+        if (error != null) flight.result.completeExceptionally(error);
+        else flight.result.complete(value);
+    }
+
+    /**
+     * Let the next request for {@code key} start a new load instead of joining the one in
+     * flight (e.g. after a write made its result stale). Current joiners keep their result.
+     */
+    public void forget(@NonNull K key) {
+        synchronized (flights) {
+            flights.remove(key);
+        }
+    }
+
+    private void finish(K key, Flight<?> flight) {
+        synchronized (flights) {
+            if (flights.get(key) == flight) flights.remove(key);
+        }
+    }
+
+    // -------------------- stats --------------------
+
+    /**
+     * Read requests for {@code key} (coalesced or not).
+     */
+    public long requestCount(@NonNull K key) {
+        Counters c = counters.get(key);
+        return c != null ? c.requests.sum() : 0;
+    }
+
+    /**
+     * Loads (SDK calls) actually run for {@code key}.
+     */
+    public long loadCount(@NonNull K key) {
+        Counters c = counters.get(key);
+        return c != null ? c.loads.sum() : 0;
+    }
+
+    /**
+     * SDK calls saved by coalescing for {@code key}.
+     */
+    public long savedCount(@NonNull K key) {
+        return requestCount(key) - loadCount(key);
+    }
+
+    private Counters counters(K key) {
+        return counters.computeIfAbsent(key, k -> new Counters());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Flight<T> cast(Flight<?> flight) {
+        return (Flight<T>) flight;
+    }
+}
@@ -0,0 +1,218 @@
+package ex.dev.sample.pos.control.data;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.Future;
+
+/**
+ * TouchWriteDebouncer
+ * Collapses rapid 2nd display touch toggles into one verified write of the final state.
+ * <p>
+ * Write policy:
+ * - Each {@link #request} restarts a {@link #DEFAULT_DEBOUNCE_MS} timer; only the state
+ * requested last is written when it fires.
+ * - If that state is already the last known device state (e.g. the switch was flipped
+ * back), the device is read instead of written, and written only if it differs (the
+ * last known state may be stale: changed outside the app, a failed write, a reboot).
+ * - Every write is followed by a read-back ({@link ApiDataSource#set2ndMonitorTouchEnabledVerified}),
+ * and a failed write by a read of the state the device was left in. The listener only
+ * gets states the device actually reported.
+ * - Only one write is in flight at a time; requests made meanwhile are written after it.
+ * <p>
+ * The listener is called on the main thread, only for the latest request (outcomes
+ * superseded by a newer request are not reported). All methods must be called on the
+ * main thread.
+ */
+public class TouchWriteDebouncer {
+
+    public static final long DEFAULT_DEBOUNCE_MS = 300L;
+
+    /**
+     * Receives the outcome of the latest request.
+     */
+    public interface Listener {
+        /**
+         * @param actual state read back from the device; differs from {@code requested}
+         *               if the device did not apply the write
+         */
+        void onTouchApplied(boolean requested, boolean actual);
+
+        /**
+         * @param actual state read from the device after the failure, or null if that read
+         *               failed too
+         */
+        void onTouchWriteFailed(boolean requested, @NonNull Throwable t, @Nullable Boolean actual);
+    }
+
+    private final ApiDataSource dataSource;
+    private final long debounceMs;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable flushTask = this::flush;
+
+    @Nullable
+    private Listener listener;
+    @Nullable
+    private Boolean desired = null;          // latest requested state not yet written
+    @Nullable
+    private Future<Boolean> writing = null;  // write + read-back (or verifying read) in flight
+    private long requests = 0;
+    private long writes = 0;
+
+    public TouchWriteDebouncer(@NonNull ApiDataSource dataSource, long debounceMs) {
+        this.dataSource = dataSource;
+        this.debounceMs = debounceMs;
+    }
+
+    @MainThread
+    public void setListener(@Nullable Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Ask for the touch state to become {@code enabled}.
+     */
+    @MainThread
+    public void request(boolean enabled) {
+        requests++;
+        desired = enabled;
+        handler.removeCallbacks(flushTask);
+        handler.postDelayed(flushTask, debounceMs);
+    }
+
+    /**
+     * True while a requested state has not been written and verified yet.
+     */
+    @MainThread
+    public boolean isPending() {
+        return desired != null || writing != null;
+    }
+
+    /**
+     * Write a pending request now, without waiting for the timer or reporting the outcome.
+     * Call it when the screen goes away so the user's last toggle is not lost.
+     */
+    @MainThread
+    public void release() {
+        handler.removeCallbacks(flushTask);
+        listener = null;
+        if (writing != null) {
+            // Its callback would start the pending write; keep it, only the report is dropped
+            return;
+        }
+        if (desired != null) flush();
+    }
+
+    /**
+     * Toggle requests received.
+     */
+    public long getRequestCount() {
+        return requests;
+    }
+
+    /**
+     * SDK writes actually issued (verifying reads are not counted).
+     */
+    public long getWriteCount() {
+        return writes;
+    }
+
+    // -------------------- writing --------------------
+
+    @MainThread
+    private void flush() {
+        if (desired == null || writing != null) return;  // a running write flushes again when done
+        boolean target = desired;
+        desired = null;
+
+        Boolean known = dataSource.getCache().lastKnown().get().touchEnabled;
+        if (known != null && known == target) {
+            verify(target);
+        } else {
+            write(target);
+        }
+    }
+
+    /**
+     * Read the device; write {@code target} only if it is not already there.
+     */
+    @MainThread
+    private void verify(boolean target) {
+        writing = dataSource.is2ndDisplayTouchEnabledAsync(true, new ApiDataSource.Callback<Boolean>() {
+            @Override
+            public void onSuccess(Boolean actual) {
+                writing = null;
+                if (superseded()) return;
+                if (actual == target) {
+                    if (listener != null) listener.onTouchApplied(target, actual);
+                } else {
+                    write(target);  // changed outside the app
+                }
+            }
+
+            @Override
+            public void onError(@NonNull Throwable t) {
+                writing = null;
+                if (superseded()) return;
+                write(target);      // unknown: write it anyway (the write reads back)
+            }
+        });
+    }
+
+    @MainThread
+    private void write(boolean target) {
+        writes++;
+        writing = dataSource.set2ndMonitorTouchEnabledVerifiedAsync(target, new ApiDataSource.Callback<Boolean>() {
+            @Override
+            public void onSuccess(Boolean actual) {
+                writing = null;
+                if (superseded()) return;
+                if (listener != null) listener.onTouchApplied(target, actual);
+            }
+
+            @Override
+            public void onError(@NonNull Throwable t) {
+                writing = null;
+                if (superseded()) return;
+                readAfterFailure(target, t);
+            }
+        });
+    }
+
+    /**
+     * The write failed; report it with the state the device was actually left in.
+     */
+    @MainThread
+    private void readAfterFailure(boolean target, @NonNull Throwable error) {
+        writing = dataSource.is2ndDisplayTouchEnabledAsync(true, new ApiDataSource.Callback<Boolean>() {
+            @Override
+            public void onSuccess(Boolean actual) {
+                writing = null;
+                if (superseded()) return;
+                if (listener != null) listener.onTouchWriteFailed(target, error, actual);
+            }
+
+            @Override
+            public void onError(@NonNull Throwable t) {
+                writing = null;
+                if (superseded()) return;
+                if (listener != null) listener.onTouchWriteFailed(target, error, null);
+            }
+        });
+    }
+
+    /**
+     * After an SDK call completed: if a newer state was requested meanwhile, write that
+     * instead of reporting this outcome.
+     */
+    @MainThread
+    private boolean superseded() {
+        if (desired == null) return false;
+        flush();
+        return true;
+    }
+}
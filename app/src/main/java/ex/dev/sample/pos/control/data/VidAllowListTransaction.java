@@ -0,0 +1,120 @@
+package ex.dev.sample.pos.control.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * VidAllowListTransaction
+ * Staged VID allow list changes, committed together by
+ * {@link ApiDataSource#commit(VidAllowListTransaction)} with a single reboot.
+ * <p>
+ * - Enable/disable and list changes are staged independently.
+ * - Later list operations replace earlier ones (set then clear = clear).
+ * - Nothing touches the device until commit.
+ * <p>
+ * Not thread-safe; stage on the main thread and hand a {@link #copy()} to the SDK thread.
+ */
+public class VidAllowListTransaction {
+
+    private static final String[] CLEAR = new String[0];
+
+    @Nullable
+    private Boolean enabled = null;   // null = unchanged
+    @Nullable
+    private String[] list = null;     // null = unchanged, empty = clear
+
+    /**
+     * Stage enabling/disabling the allow list.
+     */
+    public VidAllowListTransaction setEnabled(boolean isEnabled) {
+        enabled = isEnabled;
+        return this;
+    }
+
+    /**
+     * Drop a staged enable/disable (e.g. the user toggled back).
+     */
+    public VidAllowListTransaction unsetEnabled() {
+        enabled = null;
+        return this;
+    }
+
+    /**
+     * Stage replacing the device list; an empty array stages a clear.
+     */
+    public VidAllowListTransaction setList(@NonNull String[] vids) {
+        list = vids.length == 0 ? CLEAR : vids.clone();
+        return this;
+    }
+
+    /**
+     * Stage clearing the device list.
+     */
+    public VidAllowListTransaction clearList() {
+        list = CLEAR;
+        return this;
+    }
+
+    /**
+     * Drop a staged list change.
+     */
+    public VidAllowListTransaction unsetList() {
+        list = null;
+        return this;
+    }
+
+    /**
+     * Staged enabled flag, or null if unchanged.
+     */
+    @Nullable
+    public Boolean getEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Staged list (empty = clear), or null if unchanged.
+     */
+    @Nullable
+    public String[] getList() {
+        return list != null ? list.clone() : null;
+    }
+
+    public boolean hasListChange() {
+        return list != null;
+    }
+
+    public boolean isEmpty() {
+        return enabled == null && list == null;
+    }
+
+    public void reset() {
+        enabled = null;
+        list = null;
+    }
+
+    /**
+     * Independent copy, safe to commit while this one keeps being edited.
+     */
+    public VidAllowListTransaction copy() {
+        VidAllowListTransaction tx = new VidAllowListTransaction();
+        tx.enabled = enabled;
+        tx.list = list;  // arrays are never mutated after staging
+        return tx;
+    }
+
+    /**
+     * Short human-readable summary, e.g. "allow list ON, set 12 VID(s)".
+     */
+    @NonNull
+    public String describe() {
+        if (isEmpty()) return "no changes";
+        StringBuilder sb = new StringBuilder();
+        if (enabled != null) sb.append("allow list ").append(enabled ? "ON" : "OFF");
+        if (list != null) {
+            if (sb.length() > 0) sb.append(", ");
+            if (list.length == 0) sb.append("clear list");
+            else sb.append("set ").append(list.length).append(" VID(s)");
+        }
+        return sb.toString();
+    }
+}
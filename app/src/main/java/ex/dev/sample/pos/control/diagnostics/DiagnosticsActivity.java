@@ -0,0 +1,168 @@
+package ex.dev.sample.pos.control.diagnostics;
+
+import android.graphics.Typeface;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.TypedValue;
+import android.widget.Button;
+import android.widget.HorizontalScrollView;
+import android.widget.ScrollView;
+import android.widget.TextView;
+
+import androidx.annotation.Nullable;
+import androidx.appcompat.app.AlertDialog;
+import androidx.appcompat.app.AppCompatActivity;
+
+import java.util.Locale;
+
+import ex.dev.sample.pos.control.R;
+import ex.dev.sample.pos.control.data.CallMetrics;
+import ex.dev.sample.pos.control.data.CallTrace;
+import ex.dev.sample.pos.control.data.CashDrawerCommandQueue;
+import ex.dev.sample.pos.control.data.DeviceStateCache;
+import ex.dev.sample.pos.control.data.LatencyHistogram;
+import ex.dev.sample.pos.control.data.SdkCallGuard;
+import ex.dev.sample.pos.control.data.SdkExecutor;
+import ex.dev.sample.pos.control.data.SingleFlight;
+import ex.dev.sample.pos.control.log.AppLog;
+
+/**
+ * Diagnostics screen
+ * Responsibilities:
+ * - Show per-call SDK metrics (count, failures, in-flight, p50/p99/max latency)
+ * and device state cache hits/misses
+ * - Show how many SDK reads were saved by coalescing
+ * - Show cash drawer open queue depth, collapsed opens and time-to-actuation
+ * - Show the SDK circuit breaker state and timeouts
+ * - Refresh periodically while visible
+ * - Reset the counters
+ * - Dump the trace of the last SDK calls (dialog + logcat)
+ */
+public class DiagnosticsActivity extends AppCompatActivity {
+
+    // -------------------- constants --------------------
+    private static final String TAG = "DiagnosticsActivity";
+    private static final long REFRESH_INTERVAL_MS = 1000;
+
+    // -------------------- dependencies & state --------------------
+    private final CallMetrics metrics = CallMetrics.getDefault();
+    private final CallTrace trace = CallTrace.getDefault();
+    private final DeviceStateCache cache = DeviceStateCache.getDefault();
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable refreshTask = new Runnable() {
+        @Override
+        public void run() {
+            render();
+            handler.postDelayed(this, REFRESH_INTERVAL_MS);
+        }
+    };
+
+    // -------------------- views --------------------
+    private TextView tvMetrics;   // metrics table
+    private Button btnReset;      // reset counters
+    private Button btnTrace;      // dump call trace
+
+    // -------------------- lifecycle --------------------
+    @Override
+    protected void onCreate(@Nullable Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_diagnostics);
+
+        tvMetrics = findViewById(R.id.tv_metrics);
+        btnReset = findViewById(R.id.btn_reset_metrics);
+        btnTrace = findViewById(R.id.btn_dump_trace);
+
+        btnReset.setOnClickListener(v -> {
+            metrics.reset();
+            render();
+        });
+        btnTrace.setOnClickListener(v -> showTrace());
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        refreshTask.run();
+    }
+
+    @Override
+    protected void onPause() {
+        handler.removeCallbacks(refreshTask);
+        super.onPause();
+    }
+
+    // -------------------- rendering --------------------
+
+    /**
+     * Render the current metrics snapshot as a fixed-width table
+     */
+    private void render() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.US, "%-26s %6s %5s %3s %5s %6s %8s %8s %8s%n",
+                "call", "ok", "fail", "run", "retry", "att/ok", "p50", "p99", "max"));
+        for (CallMetrics.OpSnapshot s : metrics.snapshot()) {
+            LatencyHistogram.Snapshot l = s.latency;
+            sb.append(String.format(Locale.US, "%-26s %6d %5d %3d %5d %6.2f %8s %8s %8s%n",
+                    s.op.sdkName, s.successes, s.failures, s.inFlight, s.retries, s.attemptsPerSuccess,
+                    formatMicros(l.count, l.p50Us), formatMicros(l.count, l.p99Us),
+                    formatMicros(l.count, l.maxUs)));
+        }
+        sb.append(String.format(Locale.US, "%ncache: %d hit(s), %d miss(es)%n",
+                cache.hitCount(), cache.missCount()));
+        SingleFlight<DeviceStateCache.Key> flights = cache.flights();
+        for (DeviceStateCache.Key key : DeviceStateCache.Key.values()) {
+            sb.append(String.format(Locale.US, "coalesced %-22s %d of %d read(s) saved%n",
+                    key, flights.savedCount(key), flights.requestCount(key)));
+        }
+        CashDrawerCommandQueue.Stats q = CashDrawerCommandQueue.getDefault().getStats();
+        sb.append(String.format(Locale.US,
+                "%nopen queue: %d request(s), %d open(s), %d collapsed, depth %d%n"
+                        + "time-to-actuation p50 %s, p99 %s, max %s%n",
+                q.requests, q.actuations, q.collapsed, q.depth,
+                formatMicros(q.timeToActuation.count, q.timeToActuation.p50Us),
+                formatMicros(q.timeToActuation.count, q.timeToActuation.p99Us),
+                formatMicros(q.timeToActuation.count, q.timeToActuation.maxUs)));
+        SdkCallGuard guard = SdkExecutor.getDefault().guard();
+        sb.append(String.format(Locale.US, "%nsdk circuit: %s, %d timeout(s), %d queue timeout(s), %d trip(s), %d rejected%n",
+                guard.getState(), guard.timeoutCount(), guard.queueTimeoutCount(), guard.tripCount(),
+                guard.rejectedCount()));
+        tvMetrics.setText(sb);
+    }
+
+    /**
+     * Show the call trace in a dialog and write it to logcat
+     */
+    private void showTrace() {
+        String dump = trace.dump();
+        AppLog.i(TAG, dump);
+
+        TextView tv = new TextView(this);
+        tv.setTypeface(Typeface.MONOSPACE);
+        tv.setTextSize(TypedValue.COMPLEX_UNIT_SP, 11);
+        tv.setTextIsSelectable(true);
+        tv.setText(dump);
+        int pad = Math.round(16 * getResources().getDisplayMetrics().density);
+        tv.setPadding(pad, pad, pad, pad);
+        HorizontalScrollView hScroll = new HorizontalScrollView(this);
+        hScroll.addView(tv);
+        ScrollView scroll = new ScrollView(this);
+        scroll.addView(hScroll);
+
+        new AlertDialog.Builder(this)
+                .setTitle(R.string.diagnostics_trace)
+                .setView(scroll)
+                .setPositiveButton(android.R.string.ok, null)
+                .show();
+    }
+
+    /**
+     * "850us", "12.3ms", "1.20s", or "-" when nothing was recorded
+     */
+    private static String formatMicros(long count, long us) {
+        if (count == 0) return "-";
+        if (us < 1000) return us + "us";
+        if (us < 1_000_000) return String.format(Locale.US, "%.1fms", us / 1000.0);
+        return String.format(Locale.US, "%.2fs", us / 1_000_000.0);
+    }
+}
@@ -7,19 +7,28 @@ import android.widget.CompoundButton;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.SwitchCompat;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
 import ex.dev.sample.pos.control.R;
 import ex.dev.sample.pos.control.data.ApiDataSource;
+import ex.dev.sample.pos.control.data.TouchWriteDebouncer;
 
 /**
  * Second Display screen
  * Responsibilities:
  * - Toggle 2nd display touch enable/disable
  * - Refresh current state from API
- * - Optimistic UI update with rollback on failure
+ * - Optimistic UI update, confirmed by a read-back or rolled back
+ * <p>
+ * All API calls run asynchronously; the UI is busy while any read is in flight.
+ * Rapid toggles are collapsed into one write of the final state ({@link TouchWriteDebouncer}).
  */
 public class SecondDisplayControlActivity extends AppCompatActivity {
 
@@ -28,8 +37,24 @@ public class SecondDisplayControlActivity extends AppCompatActivity {
 
     // -------------------- dependencies & state --------------------
     private final ApiDataSource dataSource = new ApiDataSource();
+    private final TouchWriteDebouncer touchWriter =
+            new TouchWriteDebouncer(dataSource, TouchWriteDebouncer.DEFAULT_DEBOUNCE_MS);
+    private final TouchWriteDebouncer.Listener touchWriteListener = new TouchWriteDebouncer.Listener() {
+        @Override
+        public void onTouchApplied(boolean requested, boolean actual) {
+            SecondDisplayControlActivity.this.onTouchApplied(requested, actual);
+        }
+
+        @Override
+        public void onTouchWriteFailed(boolean requested, @NonNull Throwable t, @Nullable Boolean actual) {
+            SecondDisplayControlActivity.this.onTouchWriteFailed(requested, t, actual);
+        }
+    };
     private boolean isBusy = false;
 
+    // API calls that have been submitted but not yet delivered
+    private final List<Future<?>> inFlight = new ArrayList<>();
+
     // -------------------- views --------------------
     private SwitchCompat swTouchEnabled;   // toggle for 2nd display touch
     private Button btnRefresh;             // refresh button
@@ -44,8 +69,20 @@ public class SecondDisplayControlActivity extends AppCompatActivity {
         initViews();
         bindInteractions();
 
-        // Fetch initial state from API
-        loadState();
+        // Show the state known from the warm-up right away, then fetch it from API
+        Boolean known = dataSource.getCache().lastKnown().get().touchEnabled;
+        if (known != null) showState(known);
+        loadState(false);
+    }
+
+    @Override
+    protected void onDestroy() {
+        // Still write the last toggle, but without reporting back to this screen
+        touchWriter.release();
+        // Drop pending callbacks; they must not touch views after destroy
+        for (Future<?> f : inFlight) f.cancel(false);
+        inFlight.clear();
+        super.onDestroy();
     }
 
     // -------------------- init / bind --------------------
@@ -65,62 +102,94 @@ public class SecondDisplayControlActivity extends AppCompatActivity {
     private void bindInteractions() {
         // Optimistic update on switch toggle
         swTouchEnabled.setOnCheckedChangeListener(this::onToggle);
+        touchWriter.setListener(touchWriteListener);
 
-        // Refresh button explicitly re-queries API
-        btnRefresh.setOnClickListener(v -> loadState());
+        // Refresh button explicitly re-queries API (bypasses the cache)
+        btnRefresh.setOnClickListener(v -> loadState(true));
     }
 
     // -------------------- actions --------------------
 
     /**
-     * Called when user toggles the switch
+     * Called when user toggles the switch; the write is debounced and verified
      */
     private void onToggle(CompoundButton buttonView, boolean newChecked) {
         if (isBusy) return;
+        tvStatus.setText("Status: APPLYING...");
+        touchWriter.request(newChecked);
+    }
 
-        try {
-            setBusy(true);
-            dataSource.set2ndMonitorTouchEnabled(newChecked);
-            updateStatusText(newChecked);
-            showToast("2nd Touch: " + (newChecked ? "ENABLED" : "DISABLED"));
-
-        } catch (Throwable t) {
-            Log.e(TAG, "set2ndMonitorTouchEnabled error", t);
-            showToast("Failed to change: " + t.getMessage());
+    /**
+     * Outcome of the last toggle, after the device state was read back
+     */
+    private void onTouchApplied(boolean requested, boolean actual) {
+        updateStatusText(actual);
+        if (actual == requested) {
+            showToast("2nd Touch: " + (requested ? "ENABLED" : "DISABLED"));
+        } else {
+            showToast("Device kept touch " + (actual ? "ENABLED" : "DISABLED"));
+            rollbackSwitch(requested);
+        }
+    }
 
-            rollbackSwitch(newChecked);
-        } finally {
-            setBusy(false);
+    /**
+     * The last toggle could not be written
+     *
+     * @param actual state read from the device afterwards, or null if unknown
+     */
+    private void onTouchWriteFailed(boolean requested, Throwable t, @Nullable Boolean actual) {
+        Log.e(TAG, "set2ndMonitorTouchEnabled error", t);
+        showToast("Failed to change: " + t.getMessage());
+
+        if (actual != null) {
+            showState(actual);
+        } else {
+            rollbackSwitch(requested);
+            tvStatus.setText("Status: UNKNOWN");
         }
     }
 
     /**
      * Load current state from API and update UI
+     *
+     * @param forceRefresh skip the cached state
      */
-    private void loadState() {
-        if (isBusy) return;
-        setBusy(true);
-        try {
-            boolean enabled = dataSource.is2ndDisplayTouchEnabled();
-
-            // Avoid triggering listener while programmatically setting value
-            swTouchEnabled.setOnCheckedChangeListener(null);
-            swTouchEnabled.setChecked(enabled);
-            swTouchEnabled.setOnCheckedChangeListener(this::onToggle);
-
-            updateStatusText(enabled);
-        } catch (Throwable t) {
-            Log.e(TAG, "loadState error", t);
-            showToast("Load failed: " + t.getMessage());
-        } finally {
-            setBusy(false);
-        }
+    private void loadState(boolean forceRefresh) {
+        // A pending toggle would be overwritten on screen by the pre-write state
+        if (isBusy || touchWriter.isPending()) return;
+        track(dataSource.is2ndDisplayTouchEnabledAsync(forceRefresh, new ApiDataSource.Callback<Boolean>() {
+            @Override
+            public void onSuccess(Boolean enabled) {
+                settle();
+                if (touchWriter.isPending()) return;  // toggled while loading
+                showState(enabled);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                settle();
+                Log.e(TAG, "loadState error", t);
+                showToast("Load failed: " + t.getMessage());
+            }
+        }));
     }
 
     // -------------------- helpers --------------------
 
     /**
-     * Roll back the switch state after a failed toggle
+     * Show {@code enabled} on the switch and status label
+     */
+    private void showState(boolean enabled) {
+        // Avoid triggering listener while programmatically setting value
+        swTouchEnabled.setOnCheckedChangeListener(null);
+        swTouchEnabled.setChecked(enabled);
+        swTouchEnabled.setOnCheckedChangeListener(this::onToggle);
+
+        updateStatusText(enabled);
+    }
+
+    /**
+     * Roll back the switch state after a failed or unconfirmed toggle
      */
     private void rollbackSwitch(boolean attemptedValue) {
         swTouchEnabled.setOnCheckedChangeListener(null);
@@ -135,6 +204,22 @@ public class SecondDisplayControlActivity extends AppCompatActivity {
         tvStatus.setText(enabled ? "Status: TOUCH ENABLED" : "Status: TOUCH DISABLED");
     }
 
+    /**
+     * Register a submitted API call and mark UI busy
+     */
+    private void track(Future<?> future) {
+        inFlight.add(future);
+        setBusy(true);
+    }
+
+    /**
+     * Forget completed API calls; UI stays busy while any call is still in flight
+     */
+    private void settle() {
+        inFlight.removeIf(Future::isDone);
+        setBusy(!inFlight.isEmpty());
+    }
+
     /**
      * Set busy state and disable controls during operations
      */
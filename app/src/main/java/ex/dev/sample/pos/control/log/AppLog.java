@@ -0,0 +1,100 @@
+package ex.dev.sample.pos.control.log;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import ex.dev.sample.pos.control.BuildConfig;
+
+/**
+ * AppLog
+ * Thin facade over {@link Log} that does no formatting work for disabled levels.
+ * <p>
+ * - One process-wide minimum level (DEBUG in debug builds, INFO in release).
+ * - {@code (tag, label, value)} overloads format {@code "label: value"} only when
+ * the level is enabled; arrays are expanded. No allocation when disabled.
+ * - {@link Supplier} overloads build the message lazily (note: a capturing lambda
+ * is itself an allocation; prefer the label/value form on hot paths).
+ * - Errors are always logged.
+ */
+public final class AppLog {
+
+    private static volatile int minLevel = BuildConfig.DEBUG ? Log.DEBUG : Log.INFO;
+
+    private AppLog() {
+    }
+
+    /**
+     * Set the minimum level that is logged ({@link Log#VERBOSE} .. {@link Log#ASSERT}).
+     */
+    public static void setLevel(int level) {
+        minLevel = level;
+    }
+
+    public static int getLevel() {
+        return minLevel;
+    }
+
+    public static boolean isLoggable(int level) {
+        return level >= minLevel;
+    }
+
+    // -------------------- debug --------------------
+
+    public static void d(@NonNull String tag, @NonNull String msg) {
+        if (isLoggable(Log.DEBUG)) Log.d(tag, msg);
+    }
+
+    /**
+     * Log {@code "label: value"}; {@code value} is only formatted if DEBUG is enabled.
+     */
+    public static void d(@NonNull String tag, @NonNull String label, @Nullable Object value) {
+        if (isLoggable(Log.DEBUG)) Log.d(tag, label + ": " + format(value));
+    }
+
+    public static void d(@NonNull String tag, @NonNull Supplier<String> msg) {
+        if (isLoggable(Log.DEBUG)) Log.d(tag, msg.get());
+    }
+
+    // -------------------- info --------------------
+
+    public static void i(@NonNull String tag, @NonNull String msg) {
+        if (isLoggable(Log.INFO)) Log.i(tag, msg);
+    }
+
+    public static void i(@NonNull String tag, @NonNull Supplier<String> msg) {
+        if (isLoggable(Log.INFO)) Log.i(tag, msg.get());
+    }
+
+    // -------------------- warn / error --------------------
+
+    public static void w(@NonNull String tag, @NonNull String msg, @Nullable Throwable t) {
+        if (isLoggable(Log.WARN)) Log.w(tag, msg, t);
+    }
+
+    public static void w(@NonNull String tag, @NonNull Supplier<String> msg, @Nullable Throwable t) {
+        if (isLoggable(Log.WARN)) Log.w(tag, msg.get(), t);
+    }
+
+    public static void e(@NonNull String tag, @NonNull String msg, @Nullable Throwable t) {
+        Log.e(tag, msg, t);
+    }
+
+    // -------------------- formatting --------------------
+
+    /**
+     * String form of a log value; arrays are expanded, null is "null".
+     */
+    @NonNull
+    public static String format(@Nullable Object value) {
+        if (value == null) return "null";
+        if (value instanceof Object[]) return Arrays.deepToString((Object[]) value);
+        if (value instanceof int[]) return Arrays.toString((int[]) value);
+        if (value instanceof long[]) return Arrays.toString((long[]) value);
+        return String.valueOf(value);
+    }
+}
@@ -0,0 +1,78 @@
+package ex.dev.sample.pos.control.provider;
+
+import android.content.ContentResolver;
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+
+/**
+ * DeviceStateContract
+ * URIs and columns of {@link DeviceStateProvider}.
+ * <p>
+ * - {@link Vids#CONTENT_URI}: one row per VID of the allow list, in device order.
+ * - {@link Vids#buildVidUri}: zero or one row; the VID can be given in any accepted form
+ * ("046D", "46d", "0x046D").
+ * - {@link State#CONTENT_URI}: exactly one row with the allow list and touch flags.
+ * <p>
+ * Values are the last state this app read or wrote; unknown values are NULL while the
+ * provider loads them. Register a ContentObserver on a URI to be told when it changes.
+ * <p>
+ * Client apps can copy this class; the constants are the contract.
+ */
+public final class DeviceStateContract {
+
+    public static final String AUTHORITY = "ex.dev.sample.pos.control.devicestate";
+    public static final String PERMISSION = "ex.dev.sample.pos.control.permission.READ_DEVICE_STATE";
+
+    public static final Uri AUTHORITY_URI = Uri.parse("content://" + AUTHORITY);
+
+    private DeviceStateContract() {
+    }
+
+    /**
+     * VID allow list.
+     */
+    public static final class Vids {
+        public static final String PATH = "vids";
+        public static final Uri CONTENT_URI = Uri.withAppendedPath(AUTHORITY_URI, PATH);
+
+        public static final String CONTENT_TYPE =
+                ContentResolver.CURSOR_DIR_BASE_TYPE + "/vnd.ex.dev.sample.pos.control.vid";
+        public static final String CONTENT_ITEM_TYPE =
+                ContentResolver.CURSOR_ITEM_BASE_TYPE + "/vnd.ex.dev.sample.pos.control.vid";
+
+        public static final String _ID = "_id";          // position in the list
+        public static final String VID = "vid";          // as stored on the device
+        public static final String VALUE = "value";      // numeric VID, NULL if not hex
+
+        private Vids() {
+        }
+
+        /**
+         * URI matching {@code vid} only.
+         */
+        @NonNull
+        public static Uri buildVidUri(@NonNull String vid) {
+            return Uri.withAppendedPath(CONTENT_URI, vid);
+        }
+    }
+
+    /**
+     * Allow list and second display flags.
+     */
+    public static final class State {
+        public static final String PATH = "state";
+        public static final Uri CONTENT_URI = Uri.withAppendedPath(AUTHORITY_URI, PATH);
+
+        public static final String CONTENT_ITEM_TYPE =
+                ContentResolver.CURSOR_ITEM_BASE_TYPE + "/vnd.ex.dev.sample.pos.control.state";
+
+        public static final String VID_ALLOW_LIST_ENABLED = "vid_allow_list_enabled";  // 0/1/NULL
+        public static final String VID_COUNT = "vid_count";                            // NULL if unknown
+        public static final String TOUCH_ENABLED = "touch_enabled";                    // 0/1/NULL
+        public static final String UPDATED_AT = "updated_at";                          // epoch ms, 0 if never
+
+        private State() {
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package ex.dev.sample.pos.control.provider;
+
+import android.content.ContentProvider;
+import android.content.ContentResolver;
+import android.content.ContentValues;
+import android.content.Context;
+import android.content.UriMatcher;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import ex.dev.sample.pos.control.data.ApiDataSource;
+import ex.dev.sample.pos.control.data.DeviceStateStore;
+import ex.dev.sample.pos.control.provider.DeviceStateContract.State;
+import ex.dev.sample.pos.control.provider.DeviceStateContract.Vids;
+import ex.dev.sample.pos.control.vid.VidSet;
+
+/**
+ * DeviceStateProvider
+ * Read-only ContentProvider over the last known device state (see {@link DeviceStateContract}).
+ * <p>
+ * - Queries are answered from the in-memory {@link DeviceStateStore} snapshot; they never
+ * wait for the SDK. VID lookups are a hash lookup on the already parsed list.
+ * - A value that is not known yet is returned as NULL and loaded in the background
+ * (coalesced with any identical read); observers are notified when it arrives.
+ * - Any change made through {@link ApiDataSource} (setAllowList, clearAllowList, flags)
+ * notifies {@link Vids#CONTENT_URI} and/or {@link State#CONTENT_URI}.
+ * <p>
+ * Selection and sort order are ignored; insert/update/delete are not supported.
+ */
+public class DeviceStateProvider extends ContentProvider {
+
+    private static final int MATCH_VIDS = 1;
+    private static final int MATCH_VID = 2;
+    private static final int MATCH_STATE = 3;
+
+    private static final String[] VID_COLUMNS = {Vids._ID, Vids.VID, Vids.VALUE};
+    private static final String[] STATE_COLUMNS = {
+            State.VID_ALLOW_LIST_ENABLED, State.VID_COUNT, State.TOUCH_ENABLED, State.UPDATED_AT};
+
+    private static final UriMatcher MATCHER = new UriMatcher(UriMatcher.NO_MATCH);
+
+    static {
+        MATCHER.addURI(DeviceStateContract.AUTHORITY, Vids.PATH, MATCH_VIDS);
+        MATCHER.addURI(DeviceStateContract.AUTHORITY, Vids.PATH + "/*", MATCH_VID);
+        MATCHER.addURI(DeviceStateContract.AUTHORITY, State.PATH, MATCH_STATE);
+    }
+
+    private ApiDataSource dataSource;
+    private DeviceStateStore store;
+
+    private final DeviceStateStore.Listener storeListener = (snapshot, allowListChanged) -> {
+        Context context = getContext();
+        if (context == null) return;
+        ContentResolver resolver = context.getContentResolver();
+        if (allowListChanged) resolver.notifyChange(Vids.CONTENT_URI, null);
+        resolver.notifyChange(State.CONTENT_URI, null);
+    };
+
+    @Override
+    public boolean onCreate() {
+        // Runs on the main thread before Application#onCreate; no SDK calls here
+        dataSource = new ApiDataSource();
+        store = dataSource.getCache().lastKnown();
+        store.addListener(storeListener);
+        return true;
+    }
+
+    @Nullable
+    @Override
+    public Cursor query(@NonNull Uri uri, @Nullable String[] projection, @Nullable String selection,
+                        @Nullable String[] selectionArgs, @Nullable String sortOrder) {
+        DeviceStateStore.Snapshot snapshot = store.get();
+        MatrixCursor cursor;
+        switch (MATCHER.match(uri)) {
+            case MATCH_VIDS:
+                cursor = new MatrixCursor(projection != null ? projection : VID_COLUMNS, snapshot.allowListSize());
+                for (int i = 0; i < snapshot.allowListSize(); i++) addVidRow(cursor, snapshot, i);
+                break;
+            case MATCH_VID:
+                cursor = new MatrixCursor(projection != null ? projection : VID_COLUMNS, 1);
+                int index = snapshot.indexOf(uri.getLastPathSegment());
+                if (index >= 0) addVidRow(cursor, snapshot, index);
+                break;
+            case MATCH_STATE:
+                cursor = new MatrixCursor(projection != null ? projection : STATE_COLUMNS, 1);
+                cursor.newRow()
+                        .add(State.VID_ALLOW_LIST_ENABLED, toInt(snapshot.allowListEnabled))
+                        .add(State.VID_COUNT, snapshot.hasAllowList() ? snapshot.allowListSize() : null)
+                        .add(State.TOUCH_ENABLED, toInt(snapshot.touchEnabled))
+                        .add(State.UPDATED_AT, snapshot.updatedAtMs);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown URI: " + uri);
+        }
+        loadMissing(snapshot);
+        Context context = getContext();
+        if (context != null) cursor.setNotificationUri(context.getContentResolver(), uri);
+        return cursor;
+    }
+
+    @Nullable
+    @Override
+    public String getType(@NonNull Uri uri) {
+        switch (MATCHER.match(uri)) {
+            case MATCH_VIDS:
+                return Vids.CONTENT_TYPE;
+            case MATCH_VID:
+                return Vids.CONTENT_ITEM_TYPE;
+            case MATCH_STATE:
+                return State.CONTENT_ITEM_TYPE;
+            default:
+                return null;
+        }
+    }
+
+    // -------------------- read-only --------------------
+
+    @Nullable
+    @Override
+    public Uri insert(@NonNull Uri uri, @Nullable ContentValues values) {
+        throw readOnly("insert", uri);
+    }
+
+    @Override
+    public int update(@NonNull Uri uri, @Nullable ContentValues values, @Nullable String selection,
+                      @Nullable String[] selectionArgs) {
+        throw readOnly("update", uri);
+    }
+
+    @Override
+    public int delete(@NonNull Uri uri, @Nullable String selection, @Nullable String[] selectionArgs) {
+        throw readOnly("delete", uri);
+    }
+
+    // -------------------- helpers --------------------
+
+    /**
+     * Writes are refused for every URI; device state changes go through DeviceControlService.
+     */
+    private static UnsupportedOperationException readOnly(String operation, Uri uri) {
+        return new UnsupportedOperationException(
+                "DeviceStateProvider is read-only: " + operation + " is not supported for " + uri);
+    }
+
+    private static void addVidRow(MatrixCursor cursor, DeviceStateStore.Snapshot snapshot, int index) {
+        int value = snapshot.valueAt(index);
+        cursor.newRow()
+                .add(Vids._ID, index)
+                .add(Vids.VID, snapshot.vidAt(index))
+                .add(Vids.VALUE, value != VidSet.NO_VALUE ? value : null);
+    }
+
+    /**
+     * Start background reads for values not known yet; results arrive through the store listener.
+     */
+    private void loadMissing(DeviceStateStore.Snapshot snapshot) {
+        if (!snapshot.hasAllowList()) dataSource.getAllowListAsync(null);
+        if (snapshot.allowListEnabled == null) dataSource.isVidAllowListEnabledAsync(null);
+        if (snapshot.touchEnabled == null) dataSource.is2ndDisplayTouchEnabledAsync(null);
+    }
+
+    @Nullable
+    private static Integer toInt(@Nullable Boolean value) {
+        return value == null ? null : (value ? 1 : 0);
+    }
+}
@@ -0,0 +1,186 @@
+package ex.dev.sample.pos.control.service;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import ex.dev.sample.pos.control.data.ApiDataSource;
+import ex.dev.sample.pos.control.data.CashDrawerCommandQueue;
+
+/**
+ * DeviceCommandBatch
+ * Executes a batch of device commands received over IPC, in order.
+ * <p>
+ * - Each command goes through the regular {@link ApiDataSource} async API (cache,
+ * coalescing, SDK thread) and opens go through the {@link CashDrawerCommandQueue}.
+ * - A command starts only after the previous one finished, so a read after a write
+ * in the same batch sees the write.
+ * - With {@code stopOnError}, commands after the first failure are skipped.
+ * - The whole batch has a deadline: each command waits at most for what is left of it,
+ * and commands not started by then are skipped, so one batch cannot hold the caller's
+ * thread for {@code commands x timeoutMs}.
+ * <p>
+ * Blocking; call it from an IPC thread, never from the main or SDK thread.
+ */
+public final class DeviceCommandBatch {
+
+    public static final long DEFAULT_COMMAND_TIMEOUT_MS = 10_000L;
+    public static final long DEFAULT_BATCH_TIMEOUT_MS = 15_000L;
+
+    /**
+     * Operations available to other apps.
+     */
+    public enum Op {
+        OPEN_CASH_DRAWER,
+        GET_CASH_DRAWER_STATUS,
+        IS_VID_ALLOW_LIST_ENABLED,
+        GET_VID_ALLOW_LIST,
+        IS_2ND_DISPLAY_TOUCH_ENABLED,
+        SET_2ND_DISPLAY_TOUCH_ENABLED
+    }
+
+    /**
+     * One command of a batch.
+     */
+    public static final class Command {
+        public final Op op;
+        public final boolean enabled;   // SET_2ND_DISPLAY_TOUCH_ENABLED
+        public final boolean refresh;   // reads: bypass the cache
+
+        public Command(@NonNull Op op, boolean enabled, boolean refresh) {
+            this.op = op;
+            this.enabled = enabled;
+            this.refresh = refresh;
+        }
+
+        public static Command of(@NonNull Op op) {
+            return new Command(op, false, false);
+        }
+    }
+
+    /**
+     * Outcome of one command.
+     */
+    public static final class Result {
+        public final boolean ok;
+        public final boolean skipped;
+        @Nullable
+        public final Object value;    // Boolean, String[] or null
+        @Nullable
+        public final String error;
+
+        private Result(boolean ok, boolean skipped, @Nullable Object value, @Nullable String error) {
+            this.ok = ok;
+            this.skipped = skipped;
+            this.value = value;
+            this.error = error;
+        }
+
+        static Result success(@Nullable Object value) {
+            return new Result(true, false, value, null);
+        }
+
+        static Result failure(@NonNull String error) {
+            return new Result(false, false, null, error);
+        }
+
+        static Result skip() {
+            return new Result(false, true, null, "skipped");
+        }
+
+        static Result expired() {
+            return new Result(false, true, null, "skipped: batch deadline exceeded");
+        }
+    }
+
+    private final ApiDataSource dataSource;
+    private final CashDrawerCommandQueue openQueue;
+    private final long timeoutMs;
+    private final long batchTimeoutMs;
+
+    /**
+     * @param timeoutMs      longest wait for one command
+     * @param batchTimeoutMs longest wait for all commands of a batch together
+     */
+    public DeviceCommandBatch(@NonNull ApiDataSource dataSource, @NonNull CashDrawerCommandQueue openQueue,
+                              long timeoutMs, long batchTimeoutMs) {
+        if (timeoutMs <= 0 || batchTimeoutMs <= 0) {
+            throw new IllegalArgumentException("timeouts must be > 0");
+        }
+        this.dataSource = dataSource;
+        this.openQueue = openQueue;
+        this.timeoutMs = timeoutMs;
+        this.batchTimeoutMs = batchTimeoutMs;
+    }
+
+    /**
+     * Execute {@code commands} in order.
+     *
+     * @return one result per command, in the same order
+     */
+    @NonNull
+    public List<Result> execute(@NonNull List<Command> commands, boolean stopOnError) {
+        List<Result> results = new ArrayList<>(commands.size());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchTimeoutMs);
+        boolean failed = false;
+        for (Command command : commands) {
+            if (failed && stopOnError) {
+                results.add(Result.skip());
+                continue;
+            }
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMs <= 0) {
+                results.add(Result.expired());
+                continue;
+            }
+            Result result = executeOne(command, Math.min(timeoutMs, remainingMs));
+            if (!result.ok) failed = true;
+            results.add(result);
+        }
+        return results;
+    }
+
+    private Result executeOne(Command command, long waitMs) {
+        Future<?> future;
+        switch (command.op) {
+            case OPEN_CASH_DRAWER:
+                future = openQueue.requestOpen(null);
+                break;
+            case GET_CASH_DRAWER_STATUS:
+                future = dataSource.isOpenedCashDrawerAsync(command.refresh, null);
+                break;
+            case IS_VID_ALLOW_LIST_ENABLED:
+                future = dataSource.isVidAllowListEnabledAsync(command.refresh, null);
+                break;
+            case GET_VID_ALLOW_LIST:
+                future = dataSource.getAllowListAsync(command.refresh, null);
+                break;
+            case IS_2ND_DISPLAY_TOUCH_ENABLED:
+                future = dataSource.is2ndDisplayTouchEnabledAsync(command.refresh, null);
+                break;
+            case SET_2ND_DISPLAY_TOUCH_ENABLED:
+                future = dataSource.set2ndMonitorTouchEnabledAsync(command.enabled, null);
+                break;
+            default:
+                return Result.failure("unsupported op: " + command.op);
+        }
+        try {
+            return Result.success(future.get(waitMs, TimeUnit.MILLISECONDS));
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            return Result.failure(String.valueOf(cause.getMessage()));
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            return Result.failure("timeout after " + waitMs + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.failure("interrupted");
+        }
+    }
+}
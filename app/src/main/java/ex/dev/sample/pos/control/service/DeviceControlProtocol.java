@@ -0,0 +1,122 @@
+package ex.dev.sample.pos.control.service;
+
+import android.os.Bundle;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DeviceControlProtocol
+ * Message format of {@link DeviceControlService} (Messenger IPC).
+ * <p>
+ * Request: {@link #MSG_EXECUTE_BATCH}, {@code arg1} = caller's request id, {@code replyTo} set,
+ * data = {@link #KEY_COMMANDS} (list of command bundles) and optional {@link #KEY_STOP_ON_ERROR}.
+ * A command bundle holds {@link #KEY_OP} (a {@link DeviceCommandBatch.Op} name) plus
+ * {@link #KEY_ENABLED} / {@link #KEY_REFRESH} where relevant.
+ * <p>
+ * Reply: {@link #MSG_BATCH_RESULT}, same {@code arg1}, data = {@link #KEY_RESULTS}: one bundle
+ * per command with {@link #KEY_OK}, {@link #KEY_SKIPPED}, {@link #KEY_ERROR} and the value in
+ * {@link #KEY_BOOLEAN} or {@link #KEY_VIDS}.
+ * <p>
+ * Client apps can copy this class; the constants are the contract.
+ */
+public final class DeviceControlProtocol {
+
+    public static final String ACTION_BIND = "ex.dev.sample.pos.control.action.DEVICE_CONTROL";
+    public static final String PERMISSION = "ex.dev.sample.pos.control.permission.DEVICE_CONTROL";
+
+    public static final int MSG_EXECUTE_BATCH = 1;
+    public static final int MSG_BATCH_RESULT = 2;
+
+    // request
+    public static final String KEY_COMMANDS = "commands";
+    public static final String KEY_STOP_ON_ERROR = "stop_on_error";
+    public static final String KEY_OP = "op";
+    public static final String KEY_ENABLED = "enabled";
+    public static final String KEY_REFRESH = "refresh";
+
+    // reply
+    public static final String KEY_RESULTS = "results";
+    public static final String KEY_OK = "ok";
+    public static final String KEY_SKIPPED = "skipped";
+    public static final String KEY_ERROR = "error";
+    public static final String KEY_BOOLEAN = "boolean";
+    public static final String KEY_VIDS = "vids";
+
+    // Guard against oversized batches from misbehaving clients
+    public static final int MAX_COMMANDS = 32;
+
+    private DeviceControlProtocol() {
+    }
+
+    // -------------------- client side --------------------
+
+    /**
+     * Command bundle for {@code op}.
+     */
+    @NonNull
+    public static Bundle command(@NonNull DeviceCommandBatch.Op op) {
+        Bundle b = new Bundle();
+        b.putString(KEY_OP, op.name());
+        return b;
+    }
+
+    // -------------------- service side --------------------
+
+    /**
+     * Decode the commands of a request.
+     *
+     * @throws IllegalArgumentException on a malformed request; a Bundle that cannot be
+     *                                  unparcelled may also throw other runtime exceptions
+     *                                  (e.g. BadParcelableException)
+     */
+    @NonNull
+    static List<DeviceCommandBatch.Command> readCommands(@NonNull Bundle data) {
+        ArrayList<Bundle> bundles = data.getParcelableArrayList(KEY_COMMANDS, Bundle.class);
+        if (bundles == null || bundles.isEmpty()) {
+            throw new IllegalArgumentException("no commands");
+        }
+        if (bundles.size() > MAX_COMMANDS) {
+            throw new IllegalArgumentException("too many commands: " + bundles.size());
+        }
+        List<DeviceCommandBatch.Command> commands = new ArrayList<>(bundles.size());
+        for (Bundle b : bundles) {
+            String op = b.getString(KEY_OP);
+            if (op == null) throw new IllegalArgumentException("missing op");
+            commands.add(new DeviceCommandBatch.Command(
+                    DeviceCommandBatch.Op.valueOf(op),
+                    b.getBoolean(KEY_ENABLED),
+                    b.getBoolean(KEY_REFRESH)));
+        }
+        return commands;
+    }
+
+    @NonNull
+    static Bundle writeResults(@NonNull List<DeviceCommandBatch.Result> results) {
+        ArrayList<Bundle> bundles = new ArrayList<>(results.size());
+        for (DeviceCommandBatch.Result r : results) {
+            Bundle b = new Bundle();
+            b.putBoolean(KEY_OK, r.ok);
+            b.putBoolean(KEY_SKIPPED, r.skipped);
+            if (r.error != null) b.putString(KEY_ERROR, r.error);
+            if (r.value instanceof Boolean) b.putBoolean(KEY_BOOLEAN, (Boolean) r.value);
+            else if (r.value instanceof String[]) b.putStringArray(KEY_VIDS, (String[]) r.value);
+            bundles.add(b);
+        }
+        Bundle data = new Bundle();
+        data.putParcelableArrayList(KEY_RESULTS, bundles);
+        return data;
+    }
+
+    /**
+     * Reply data for a request that could not be decoded.
+     */
+    @NonNull
+    static Bundle writeError(@NonNull String error) {
+        Bundle data = new Bundle();
+        data.putString(KEY_ERROR, error);
+        return data;
+    }
+}
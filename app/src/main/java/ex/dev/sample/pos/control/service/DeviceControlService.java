@@ -0,0 +1,113 @@
+package ex.dev.sample.pos.control.service;
+
+import android.app.Service;
+import android.content.Intent;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.IBinder;
+import android.os.Looper;
+import android.os.Message;
+import android.os.Messenger;
+import android.os.RemoteException;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.List;
+
+import ex.dev.sample.pos.control.data.ApiDataSource;
+import ex.dev.sample.pos.control.data.CashDrawerCommandQueue;
+
+/**
+ * DeviceControlService
+ * Bound service that lets other apps use the cash drawer, second display touch and
+ * (read-only) VID allow list without linking the SDK themselves.
+ * <p>
+ * - One Messenger request carries a whole batch of commands (one IPC per batch),
+ * see {@link DeviceControlProtocol}.
+ * - Batches are executed one at a time on a dedicated IPC thread; every SDK call still
+ * goes through this app's single SDK thread. Each batch is bounded by a total deadline
+ * ({@link DeviceCommandBatch#DEFAULT_BATCH_TIMEOUT_MS}), so one client's batch holds the
+ * others back for at most that long.
+ * - Callers need {@link DeviceControlProtocol#PERMISSION} (signature).
+ */
+public class DeviceControlService extends Service {
+
+    private static final String TAG = "DeviceControlService";
+    private static final String THREAD_NAME = "device-control-ipc";
+
+    private HandlerThread ipcThread;
+    private Messenger messenger;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        ipcThread = new HandlerThread(THREAD_NAME);
+        ipcThread.start();
+        DeviceCommandBatch batch = new DeviceCommandBatch(new ApiDataSource(),
+                CashDrawerCommandQueue.getDefault(), DeviceCommandBatch.DEFAULT_COMMAND_TIMEOUT_MS,
+                DeviceCommandBatch.DEFAULT_BATCH_TIMEOUT_MS);
+        messenger = new Messenger(new IncomingHandler(ipcThread.getLooper(), batch));
+    }
+
+    @Nullable
+    @Override
+    public IBinder onBind(Intent intent) {
+        return messenger.getBinder();
+    }
+
+    @Override
+    public void onDestroy() {
+        ipcThread.quitSafely();
+        super.onDestroy();
+    }
+
+    /**
+     * Decodes a batch, runs it and replies; runs on the IPC thread.
+     */
+    private static final class IncomingHandler extends Handler {
+        private final DeviceCommandBatch batch;
+
+        IncomingHandler(@NonNull Looper looper, @NonNull DeviceCommandBatch batch) {
+            super(looper);
+            this.batch = batch;
+        }
+
+        @Override
+        public void handleMessage(@NonNull Message msg) {
+            if (msg.what != DeviceControlProtocol.MSG_EXECUTE_BATCH) {
+                super.handleMessage(msg);
+                return;
+            }
+            Messenger replyTo = msg.replyTo;
+            int requestId = msg.arg1;
+            Bundle data = msg.getData();
+
+            Bundle result;
+            try {
+                List<DeviceCommandBatch.Command> commands = DeviceControlProtocol.readCommands(data);
+                boolean stopOnError = data.getBoolean(DeviceControlProtocol.KEY_STOP_ON_ERROR, true);
+                result = DeviceControlProtocol.writeResults(batch.execute(commands, stopOnError));
+            } catch (IllegalArgumentException e) {
+                Log.w(TAG, "bad request " + requestId, e);
+                result = DeviceControlProtocol.writeError(String.valueOf(e.getMessage()));
+            } catch (RuntimeException e) {
+                // e.g. BadParcelableException or ClassCastException from a malformed Bundle;
+                // must not kill the IPC thread shared by every client
+                Log.w(TAG, "unreadable request " + requestId, e);
+                result = DeviceControlProtocol.writeError(e.getClass().getSimpleName() + ": " + e.getMessage());
+            }
+            if (replyTo == null) return;
+
+            Message reply = Message.obtain(null, DeviceControlProtocol.MSG_BATCH_RESULT, requestId, 0);
+            reply.setData(result);
+            try {
+                replyTo.send(reply);
+            } catch (RemoteException e) {
+                Log.w(TAG, "client gone before reply " + requestId, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package ex.dev.sample.pos.control.vid;
+
+import androidx.annotation.NonNull;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Persistent, append-only log of blocked-VID detections with hourly rollups.
+ * <p>
+ * Raw log ({@code events-current.bin}, rotated to {@code events-<millis>.bin}):
+ * - 8-byte header: magic, version
+ * - fixed 24-byte records: seq (long), timestamp millis (long), VID value (int, -1 = unknown), reserved (int)
+ * - rotated when the current file reaches {@code maxFileBytes}; only the newest
+ * {@code maxFiles} rotated files are kept.
+ * <p>
+ * Rollups ({@code rollup.bin}): per-hour, per-VID counts kept in memory and
+ * snapshotted on {@link #flush()} and on rotation, together with the last
+ * covered seq. On open, only records of the current file newer than that seq
+ * are re-aggregated, so queries like {@link #topVids} never scan raw records.
+ * <p>
+ * Plain Java; not thread-safe. Use from a single background thread.
+ */
+public class BlockedVidLog implements Closeable {
+
+    public static final int RECORD_SIZE = 24;
+    public static final long HOUR_MS = 3_600_000L;
+
+    private static final int EVENTS_MAGIC = 0x42564C47;  // "BVLG"
+    private static final int ROLLUP_MAGIC = 0x4256524C;  // "BVRL"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int BUFFERED_RECORDS = 64;
+
+    private static final String CURRENT_FILE = "events-current.bin";
+    private static final String ROTATED_PREFIX = "events-";
+    private static final String ROLLUP_FILE = "rollup.bin";
+
+    /**
+     * Count of detections for one VID.
+     */
+    public static final class VidCount {
+        public final int vid;      // VID value, or -1 if unknown
+        public final long count;
+
+        VidCount(int vid, long count) {
+            this.vid = vid;
+            this.count = count;
+        }
+    }
+
+    private final File dir;
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private final long retentionMs;
+
+    // hour (epoch millis / HOUR_MS) -> VID value -> count
+    private final TreeMap<Integer, Map<Integer, int[]>> rollups = new TreeMap<>();
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * BUFFERED_RECORDS);
+    private FileChannel channel;
+    private long lastSeq = 0;
+
+    /**
+     * Open (or create) the log in {@code dir}.
+     *
+     * @param maxFileBytes rotate the current file at this size
+     * @param maxFiles     rotated files to keep
+     * @param retentionMs  rollup hours older than this (relative to the newest event) are dropped;
+     *                     {@code <= 0} keeps all hours
+     */
+    public BlockedVidLog(@NonNull File dir, long maxFileBytes, int maxFiles, long retentionMs) throws IOException {
+        if (maxFileBytes < HEADER_SIZE + RECORD_SIZE || maxFiles < 0) {
+            throw new IllegalArgumentException("maxFileBytes too small or maxFiles < 0");
+        }
+        this.dir = dir;
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = maxFiles;
+        this.retentionMs = retentionMs;
+
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        if (!loadRollups()) {
+            // No usable snapshot: rebuild from every raw file we still have
+            rollups.clear();
+            lastSeq = 0;
+            for (File f : rotatedFiles()) scan(f, 0);
+        }
+        openCurrent();
+    }
+
+    // -------------------- write --------------------
+
+    /**
+     * Append one detection (buffered; see {@link #flush()}).
+     */
+    public void append(int vidValue, long timestampMs) throws IOException {
+        if (buffer.remaining() < RECORD_SIZE) writeBuffer();
+        lastSeq++;
+        buffer.putLong(lastSeq).putLong(timestampMs).putInt(vidValue).putInt(0);
+        aggregate(vidValue, timestampMs);
+
+        if (channel.size() + buffer.position() >= maxFileBytes) rotate();
+    }
+
+    /**
+     * Write buffered records and persist the rollup snapshot.
+     */
+    public void flush() throws IOException {
+        writeBuffer();
+        channel.force(false);
+        saveRollups();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel == null) return;
+        try {
+            flush();
+        } finally {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    // -------------------- query --------------------
+
+    /**
+     * Most-blocked VIDs between {@code fromMs} and {@code toMs}, from hourly rollups.
+     * Hours overlapping the range are counted whole.
+     */
+    @NonNull
+    public List<VidCount> topVids(long fromMs, long toMs, int limit) {
+        Map<Integer, long[]> totals = new HashMap<>();
+        NavigableMap<Integer, Map<Integer, int[]>> range =
+                rollups.subMap(hourOf(fromMs), true, hourOf(toMs), true);
+        for (Map<Integer, int[]> hour : range.values()) {
+            for (Map.Entry<Integer, int[]> e : hour.entrySet()) {
+                long[] t = totals.get(e.getKey());
+                if (t == null) totals.put(e.getKey(), t = new long[1]);
+                t[0] += e.getValue()[0];
+            }
+        }
+        List<VidCount> out = new ArrayList<>(totals.size());
+        for (Map.Entry<Integer, long[]> e : totals.entrySet()) {
+            out.add(new VidCount(e.getKey(), e.getValue()[0]));
+        }
+        Collections.sort(out, (a, b) -> Long.compare(b.count, a.count));
+        return out.size() > limit ? new ArrayList<>(out.subList(0, limit)) : out;
+    }
+
+    /**
+     * Total events appended since the log was created (or rebuilt).
+     */
+    public long lastSeq() {
+        return lastSeq;
+    }
+
+    // -------------------- rollups --------------------
+
+    private static int hourOf(long ms) {
+        return (int) Math.floorDiv(ms, HOUR_MS);
+    }
+
+    private void aggregate(int vidValue, long timestampMs) {
+        int hour = hourOf(timestampMs);
+        Map<Integer, int[]> bucket = rollups.get(hour);
+        if (bucket == null) {
+            rollups.put(hour, bucket = new HashMap<>());
+            // New hour: drop buckets past retention
+            if (retentionMs > 0 && retentionMs < timestampMs) {
+                rollups.headMap(hourOf(timestampMs - retentionMs), false).clear();
+            }
+        }
+        int[] c = bucket.get(vidValue);
+        if (c == null) bucket.put(vidValue, c = new int[1]);
+        c[0]++;
+    }
+
+    /**
+     * @return false if there is no valid snapshot
+     */
+    private boolean loadRollups() throws IOException {
+        File f = new File(dir, ROLLUP_FILE);
+        if (!f.isFile()) return false;
+        ByteBuffer b = ByteBuffer.wrap(Files.readAllBytes(f.toPath()));
+        if (b.remaining() < 20 || b.getInt() != ROLLUP_MAGIC || b.getInt() != VERSION) return false;
+        long seq = b.getLong();
+        int n = b.getInt();
+        if (n < 0 || b.remaining() != n * 12L) return false;
+        for (int i = 0; i < n; i++) {
+            int hour = b.getInt();
+            int vid = b.getInt();
+            int count = b.getInt();
+            Map<Integer, int[]> bucket = rollups.get(hour);
+            if (bucket == null) rollups.put(hour, bucket = new HashMap<>());
+            bucket.put(vid, new int[]{count});
+        }
+        lastSeq = seq;
+        return true;
+    }
+
+    /**
+     * Atomically replace the rollup snapshot (write temp file, then rename).
+     */
+    private void saveRollups() throws IOException {
+        int n = 0;
+        for (Map<Integer, int[]> bucket : rollups.values()) n += bucket.size();
+        ByteBuffer b = ByteBuffer.allocate(20 + n * 12);
+        b.putInt(ROLLUP_MAGIC).putInt(VERSION).putLong(lastSeq).putInt(n);
+        for (Map.Entry<Integer, Map<Integer, int[]>> hour : rollups.entrySet()) {
+            for (Map.Entry<Integer, int[]> e : hour.getValue().entrySet()) {
+                b.putInt(hour.getKey()).putInt(e.getKey()).putInt(e.getValue()[0]);
+            }
+        }
+        b.flip();
+
+        File tmp = new File(dir, ROLLUP_FILE + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (b.hasRemaining()) out.write(b);
+            out.force(false);
+        }
+        Files.move(tmp.toPath(), new File(dir, ROLLUP_FILE).toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // -------------------- raw files --------------------
+
+    private void openCurrent() throws IOException {
+        File f = new File(dir, CURRENT_FILE);
+        channel = FileChannel.open(f.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() < HEADER_SIZE || !hasValidHeader(channel)) {
+            channel.truncate(0);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(EVENTS_MAGIC).putInt(VERSION);
+            header.flip();
+            channel.write(header, 0);
+        } else {
+            // Drop a torn trailing record from a crash mid-write
+            long records = (channel.size() - HEADER_SIZE) / RECORD_SIZE;
+            channel.truncate(HEADER_SIZE + records * RECORD_SIZE);
+            scan(channel, lastSeq);
+        }
+        channel.position(channel.size());
+    }
+
+    private static boolean hasValidHeader(FileChannel ch) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        ch.read(header, 0);
+        header.flip();
+        return header.remaining() == HEADER_SIZE
+                && header.getInt() == EVENTS_MAGIC && header.getInt() == VERSION;
+    }
+
+    private void scan(File f, long afterSeq) throws IOException {
+        try (FileChannel ch = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+            if (ch.size() >= HEADER_SIZE && hasValidHeader(ch)) scan(ch, afterSeq);
+        }
+    }
+
+    /**
+     * Aggregate records with seq > {@code afterSeq}.
+     */
+    private void scan(FileChannel ch, long afterSeq) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(RECORD_SIZE * 256);
+        long pos = HEADER_SIZE;
+        long end = ch.size() - (ch.size() - HEADER_SIZE) % RECORD_SIZE;
+        while (pos < end) {
+            b.clear();
+            b.limit((int) Math.min(b.capacity(), end - pos));
+            int read = ch.read(b, pos);
+            if (read <= 0) break;
+            pos += read;
+            b.flip();
+            while (b.remaining() >= RECORD_SIZE) {
+                long seq = b.getLong();
+                long ts = b.getLong();
+                int vid = b.getInt();
+                b.getInt(); // reserved
+                if (seq > afterSeq) {
+                    aggregate(vid, ts);
+                    if (seq > lastSeq) lastSeq = seq;
+                }
+            }
+            // keep a partial record for the next read
+            pos -= b.remaining();
+        }
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * Close the current file under a timestamped name and start a new one.
+     * The rollup snapshot is saved first, so rotated files never need rescanning.
+     */
+    private void rotate() throws IOException {
+        flush();
+        channel.close();
+        File current = new File(dir, CURRENT_FILE);
+        File rotated = new File(dir, ROTATED_PREFIX + System.currentTimeMillis() + ".bin");
+        Files.move(current.toPath(), rotated.toPath(), StandardCopyOption.ATOMIC_MOVE);
+
+        List<File> files = rotatedFiles();
+        for (int i = 0; i < files.size() - maxFiles; i++) {
+            //noinspection ResultOfMethodCallIgnored
+            files.get(i).delete();
+        }
+        openCurrent();
+    }
+
+    /**
+     * Rotated files, oldest first (the current file is not included).
+     */
+    private List<File> rotatedFiles() {
+        File[] all = dir.listFiles((d, name) -> name.startsWith(ROTATED_PREFIX) && name.endsWith(".bin")
+                && !name.equals(CURRENT_FILE));
+        List<File> files = new ArrayList<>();
+        if (all != null) {
+            Arrays.sort(all, (a, b) -> Long.compare(stamp(a), stamp(b)));
+            Collections.addAll(files, all);
+        }
+        return files;
+    }
+
+    private static long stamp(File f) {
+        String name = f.getName();
+        try {
+            return Long.parseLong(name.substring(ROTATED_PREFIX.length(), name.length() - 4));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
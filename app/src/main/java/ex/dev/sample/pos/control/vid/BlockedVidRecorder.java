@@ -0,0 +1,179 @@
+package ex.dev.sample.pos.control.vid;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.util.Log;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.core.content.ContextCompat;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BlockedVidRecorder
+ * Process-wide owner of the disallowed-VID broadcast receiver and the persistent {@link BlockedVidLog}.
+ * <p>
+ * - {@link #register()} is called once from {@code PosControlApplication}, so detections are
+ * logged whether or not any screen is in the foreground.
+ * - Records are appended on a background thread and flushed at most {@link #FLUSH_DELAY_MS}
+ * after a detection.
+ * - Screens only read: live events through {@link #addListener}, history through {@link #topVids}.
+ */
+public final class BlockedVidRecorder {
+
+    public static final String ACTION_DETECTED_DISALLOW_VID = "ACTION_DETECTED_DISALLOW_VID";
+    public static final String EXTRA_DISALLOW_VID = "disallow_vid";
+    public static final long FLUSH_DELAY_MS = 5_000L;
+
+    private static final String TAG = "BlockedVidRecorder";
+    private static final String THREAD_NAME = "blocked-vid-log";
+    private static final String LOG_DIR = "blocked_vid_log";
+    private static final long LOG_MAX_BYTES = 256 * 1024L;
+    private static final int LOG_MAX_FILES = 8;
+    private static final long LOG_RETENTION_MS = 30L * 24 * BlockedVidLog.HOUR_MS;
+
+    /**
+     * Receives detections on the main thread.
+     */
+    public interface Listener {
+        void onBlockedVid(@NonNull String vid, long timeMs);
+    }
+
+    private static volatile BlockedVidRecorder defaultInstance;
+
+    private final Context context;
+    private final File logDir;
+    private final ScheduledExecutorService io = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, THREAD_NAME);
+        t.setDaemon(true);
+        return t;
+    });
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final Object logLock = new Object();
+
+    // Guarded by logLock; opened on first use
+    @Nullable
+    private BlockedVidLog log = null;
+    private boolean flushScheduled = false;
+    private boolean registered = false;
+
+    private final BroadcastReceiver receiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            if (ACTION_DETECTED_DISALLOW_VID.equals(intent.getAction())) {
+                String vid = intent.getStringExtra(EXTRA_DISALLOW_VID);
+                record(vid != null ? vid : "(unknown)", System.currentTimeMillis());
+            }
+        }
+    };
+
+    private BlockedVidRecorder(@NonNull Context context) {
+        this.context = context.getApplicationContext();
+        this.logDir = new File(this.context.getNoBackupFilesDir(), LOG_DIR);
+    }
+
+    /**
+     * Shared recorder of this process.
+     */
+    public static BlockedVidRecorder getDefault(@NonNull Context context) {
+        BlockedVidRecorder instance = defaultInstance;
+        if (instance == null) {
+            synchronized (BlockedVidRecorder.class) {
+                instance = defaultInstance;
+                if (instance == null) {
+                    instance = new BlockedVidRecorder(context);
+                    defaultInstance = instance;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Start receiving detections for the lifetime of the process. Idempotent.
+     */
+    @MainThread
+    public void register() {
+        if (registered) return;
+        registered = true;
+        ContextCompat.registerReceiver(context, receiver,
+                new IntentFilter(ACTION_DETECTED_DISALLOW_VID), ContextCompat.RECEIVER_EXPORTED);
+    }
+
+    @MainThread
+    public void addListener(@NonNull Listener listener) {
+        listeners.add(listener);
+    }
+
+    @MainThread
+    public void removeListener(@NonNull Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Most-blocked VIDs detected in [fromMs, toMs), from the log's hourly rollups.
+     * Blocks on the log; call it off the main thread.
+     */
+    @WorkerThread
+    @NonNull
+    public List<BlockedVidLog.VidCount> topVids(long fromMs, long toMs, int limit) throws IOException {
+        synchronized (logLock) {
+            return openLog().topVids(fromMs, toMs, limit);
+        }
+    }
+
+    // -------------------- recording --------------------
+
+    @MainThread
+    private void record(@NonNull String vid, long nowMs) {
+        int parsed = VidParser.parse(vid);
+        int value = parsed >= 0 ? VidParser.value(parsed) : VidSet.NO_VALUE;
+        io.execute(() -> {
+            synchronized (logLock) {
+                try {
+                    openLog().append(value, nowMs);
+                } catch (IOException e) {
+                    Log.e(TAG, "blocked log append error", e);
+                    return;
+                }
+                if (!flushScheduled) {
+                    flushScheduled = true;
+                    io.schedule(this::flush, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+                }
+            }
+        });
+        for (Listener l : listeners) l.onBlockedVid(vid, nowMs);
+    }
+
+    private void flush() {
+        synchronized (logLock) {
+            flushScheduled = false;
+            try {
+                if (log != null) log.flush();
+            } catch (IOException e) {
+                Log.e(TAG, "blocked log flush error", e);
+            }
+        }
+    }
+
+    /**
+     * Open the persistent log on first use (under logLock)
+     */
+    private BlockedVidLog openLog() throws IOException {
+        if (log == null) {
+            log = new BlockedVidLog(logDir, LOG_MAX_BYTES, LOG_MAX_FILES, LOG_RETENTION_MS);
+        }
+        return log;
+    }
+}
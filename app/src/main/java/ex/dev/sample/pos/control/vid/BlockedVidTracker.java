@@ -0,0 +1,159 @@
+package ex.dev.sample.pos.control.vid;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregates "blocked VID detected" events.
+ * <p>
+ * - Keeps the last {@code capacity} raw events in a ring buffer (oldest overwritten).
+ * - Keeps per-VID totals with first/last-seen times (bounded number of VIDs;
+ * the least recently seen VID is evicted).
+ * - VIDs are keyed by numeric value, so "046D" and "0x046d" count as one VID;
+ * unparseable strings are keyed as given.
+ * - Rate-limits notifications: at most one per VID per {@code windowMs}.
+ * <p>
+ * Plain Java; not thread-safe (broadcasts are delivered on the main thread).
+ */
+public class BlockedVidTracker {
+
+    /**
+     * Aggregated stats for one VID.
+     */
+    public static final class Stats {
+        public final String vid;     // as first seen
+        public final int value;      // VidSet.NO_VALUE if unparseable
+        public int count;
+        public long firstSeenMs;
+        public long lastSeenMs;
+        // rate limiting
+        long windowStartMs;
+
+        Stats(String vid, int value, long nowMs) {
+            this.vid = vid;
+            this.value = value;
+            this.firstSeenMs = nowMs;
+            this.lastSeenMs = nowMs;
+            this.windowStartMs = Long.MIN_VALUE;
+        }
+
+        Object key() {
+            return value != VidSet.NO_VALUE ? (Object) value : vid;
+        }
+    }
+
+    private final int maxVids;
+    private final long windowMs;
+
+    // ring buffer of raw events
+    private final String[] ringVids;
+    private final long[] ringTimes;
+    private int ringHead = 0;    // next write index
+    private int ringSize = 0;
+    private long totalEvents = 0;
+
+    // VID value (Integer) or unparseable string -> stats
+    private final Map<Object, Stats> stats = new HashMap<>();
+
+    /**
+     * @param capacity raw events kept in the ring buffer
+     * @param maxVids  distinct VIDs kept in the aggregate
+     * @param windowMs notification window per VID
+     */
+    public BlockedVidTracker(int capacity, int maxVids, long windowMs) {
+        if (capacity <= 0 || maxVids <= 0 || windowMs < 0) {
+            throw new IllegalArgumentException("capacity/maxVids must be > 0, windowMs >= 0");
+        }
+        this.ringVids = new String[capacity];
+        this.ringTimes = new long[capacity];
+        this.maxVids = maxVids;
+        this.windowMs = windowMs;
+    }
+
+    /**
+     * Record one detection.
+     *
+     * @return true if the caller should notify the user about this event,
+     * false if it falls inside the VID's rate-limit window
+     */
+    public boolean record(@NonNull String vid, long nowMs) {
+        ringVids[ringHead] = vid;
+        ringTimes[ringHead] = nowMs;
+        ringHead = (ringHead + 1) % ringVids.length;
+        if (ringSize < ringVids.length) ringSize++;
+        totalEvents++;
+
+        int parsed = VidParser.parse(vid);
+        int value = parsed >= 0 ? VidParser.value(parsed) : VidSet.NO_VALUE;
+        Object key = value != VidSet.NO_VALUE ? (Object) value : vid;
+        Stats s = stats.get(key);
+        if (s == null) {
+            if (stats.size() >= maxVids) evictOldest();
+            s = new Stats(vid, value, nowMs);
+            stats.put(key, s);
+        }
+        s.count++;
+        s.lastSeenMs = nowMs;
+
+        // New window if the previous one expired (or the clock went backwards)
+        if (s.windowStartMs == Long.MIN_VALUE
+                || nowMs - s.windowStartMs >= windowMs
+                || nowMs < s.windowStartMs) {
+            s.windowStartMs = nowMs;
+            return true;
+        }
+        return false;
+    }
+
+    public long totalEvents() {
+        return totalEvents;
+    }
+
+    /**
+     * Copy up to {@code max} raw events, newest first, into {@code vidsOut} (and {@code timesOut}).
+     *
+     * @return number of events copied
+     */
+    public int recent(int max, @NonNull List<String> vidsOut, @Nullable List<Long> timesOut) {
+        int n = Math.min(max, ringSize);
+        for (int i = 0; i < n; i++) {
+            int idx = (ringHead - 1 - i + ringVids.length) % ringVids.length;
+            vidsOut.add(ringVids[idx]);
+            if (timesOut != null) timesOut.add(ringTimes[idx]);
+        }
+        return n;
+    }
+
+    /**
+     * Per-VID stats, most recently seen first.
+     */
+    @NonNull
+    public List<Stats> snapshot() {
+        List<Stats> list = new ArrayList<>(stats.values());
+        Collections.sort(list, (a, b) -> Long.compare(b.lastSeenMs, a.lastSeenMs));
+        return list;
+    }
+
+    public void clear() {
+        Arrays.fill(ringVids, null);
+        ringHead = 0;
+        ringSize = 0;
+        totalEvents = 0;
+        stats.clear();
+    }
+
+    private void evictOldest() {
+        Stats oldest = null;
+        for (Stats s : stats.values()) {
+            if (oldest == null || s.lastSeenMs < oldest.lastSeenMs) oldest = s;
+        }
+        if (oldest != null) stats.remove(oldest.key());
+    }
+}
@@ -1,79 +1,139 @@
 package ex.dev.sample.pos.control.vid;
 
-import android.annotation.SuppressLint;
-import android.content.BroadcastReceiver;
-import android.content.Context;
-import android.content.Intent;
-import android.content.IntentFilter;
-import android.text.TextUtils;
+import android.content.ContentResolver;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Editable;
+import android.text.format.DateFormat;
+import android.text.TextWatcher;
 import android.util.Log;
+import android.view.Choreographer;
+import android.view.View;
 import android.view.inputmethod.EditorInfo;
 import android.os.Bundle;
 import android.widget.Button;
 import android.widget.EditText;
+import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.activity.OnBackPressedCallback;
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.SwitchCompat;
-import androidx.core.content.ContextCompat;
 import androidx.recyclerview.widget.DividerItemDecoration;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 import ex.dev.sample.pos.control.R;
 import ex.dev.sample.pos.control.data.ApiDataSource;
+import ex.dev.sample.pos.control.data.DeviceStateStore;
+import ex.dev.sample.pos.control.data.VidAllowListTransaction;
+import ex.dev.sample.pos.control.log.AppLog;
 
 /**
  * VidActivity
  * Responsibilities:
- * - Toggle VID allow list enable/disable
+ * - Toggle VID allow list enable/disable (staged until Apply)
  * - Show current allow list from the device
  * - Add/remove VIDs from the list (with validation)
- * - Apply or clear the allow list to the device
- * - Listen for broadcasts of disallowed VIDs
+ * - Bulk import VIDs from a text/CSV file
+ * - Apply or clear the allow list to the device (skipped when nothing changed);
+ * staged changes are committed together with a single reboot
+ * - Show disallowed VIDs detected while in the foreground (aggregated, rate-limited toasts)
+ * - Show the weekly top list from the persistent log kept by {@link BlockedVidRecorder}
+ * <p>
+ * All API calls run asynchronously; inputs are disabled while any call is in flight.
  */
 public class VidAllowListActivity extends AppCompatActivity implements VidAllowListAdapter.OnItemActionListener {
 
     // -------------------- constants --------------------
-    public static final String ACTION_DETECTED_DISALLOW_VID = "ACTION_DETECTED_DISALLOW_VID";
-    public static final String EXTRA_DISALLOW_VID = "disallow_vid";
     private static final String TAG = "VidActivity";
-
-    // -------------------- broadcast receiver --------------------
+    private static final String[] IMPORT_MIME_TYPES = {"text/plain", "text/csv", "text/comma-separated-values"};
+    private static final int MAX_DIFF_ITEMS_SHOWN = 20;
+
+    // Blocked-VID aggregation
+    private static final int BLOCKED_EVENT_CAPACITY = 256;
+    private static final int BLOCKED_MAX_VIDS = 64;
+    private static final long BLOCKED_TOAST_WINDOW_MS = 10_000L;
+    private static final int BLOCKED_SUMMARY_ROWS = 3;
+    private static final int BLOCKED_RECENT_EVENTS = 5;
+
+    // Blocked-VID history
+    private static final long BLOCKED_HISTORY_WINDOW_MS = 7L * 24 * BlockedVidLog.HOUR_MS;
+    private static final int BLOCKED_HISTORY_ROWS = 10;
+    private static final String MSG_INVALID_VID = "Invalid VID. Use 4 or 6 hex digits (e.g., 046D or 0x18D1FF).";
+
+    // -------------------- blocked-VID listener --------------------
     /**
-     * Listens for broadcast from SDK/system whenever a disallowed VID is detected.
-     * Displays a toast with the blocked VID.
+     * Detections while this screen is in the foreground (the recorder logs all of them).
+     * Events are aggregated; a toast is shown at most once per VID per window and
+     * the on-screen summary is refreshed at most once per frame.
      */
-    private final BroadcastReceiver disallowVidReceiver = new BroadcastReceiver() {
-        @Override
-        public void onReceive(Context context, Intent intent) {
-            if (ACTION_DETECTED_DISALLOW_VID.equals(intent.getAction())) {
-                String vid = intent.getStringExtra(EXTRA_DISALLOW_VID);
-                if (vid == null) vid = "(unknown)";
-                showToast("[Blocked VID detected] " + vid);
-            }
-        }
-    };
+    private final BlockedVidRecorder.Listener blockedVidListener = this::onBlockedVid;
 
     // -------------------- dependencies & state --------------------
     private final ApiDataSource dataSource = new ApiDataSource();
-    private final ArrayList<String> vidList = new ArrayList<>();
+    private final VidSet vidList = new VidSet();  // ordered, deduped by numeric value
+
+    // API calls that have been submitted but not yet delivered
+    private final List<Future<?>> inFlight = new ArrayList<>();
+
+    // Changes staged until Apply/Clear, committed with one reboot
+    private final VidAllowListTransaction pending = new VidAllowListTransaction();
+    // Blocked-VID events and the once-per-frame summary refresh
+    private final BlockedVidTracker blockedTracker =
+            new BlockedVidTracker(BLOCKED_EVENT_CAPACITY, BLOCKED_MAX_VIDS, BLOCKED_TOAST_WINDOW_MS);
+    private final Choreographer.FrameCallback blockedSummaryFrame = frameTimeNanos -> {
+        blockedSummaryScheduled = false;
+        renderBlockedSummary();
+    };
+    private boolean blockedSummaryScheduled = false;
+
+    private BlockedVidRecorder blockedRecorder;
+
+    // Enabled flag as last read from the device (null = not loaded)
+    @Nullable
+    private Boolean deviceEnabled = null;
+
+    // File import and log queries run here so they never queue behind (or delay) SDK calls
+    private final ExecutorService ioWorker = Executors.newSingleThreadExecutor();
+    // Delivers ioWorker results; cleared in onDestroy
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Storage Access Framework picker for bulk import
+    private final ActivityResultLauncher<String[]> importLauncher =
+            registerForActivityResult(new ActivityResultContracts.OpenDocument(), this::importFromUri);
 
     // -------------------- views --------------------
     private SwitchCompat swEnabled;  // switch to enable/disable allow list
+    private TextView tvPending;      // staged (not yet applied) changes
     private EditText etVid;          // input field for VID
     private Button btnAdd;           // add VID to list
+    private Button btnImport;        // import VIDs from a file
     private Button btnApply;         // apply VID list to device
     private Button btnClear;         // clear VID list on device
+    private Button btnHistory;       // blocked-VID history
     private RecyclerView rvList;     // recycler view showing VID list
+    private TextView tvBlocked;      // blocked-VID summary
     private VidAllowListAdapter adapter;      // adapter for RecyclerView
 
     // -------------------- lifecycle --------------------
@@ -83,10 +143,12 @@ public class VidAllowListActivity extends AppCompatActivity implements VidAllowL
         setContentView(R.layout.activity_vid_allow_list);
 
         initViews();
+        blockedRecorder = BlockedVidRecorder.getDefault(this);
         bindInteractions();
         setupRecycler();
 
-        // Load initial states
+        // Show the state known from the warm-up right away, then load it from device
+        showLastKnown();
         loadEnabled();
         loadListFromDevice();
 
@@ -102,21 +164,29 @@ public class VidAllowListActivity extends AppCompatActivity implements VidAllowL
     @Override
     protected void onResume() {
         super.onResume();
-        // Register broadcast receiver for disallowed VIDs
-        ContextCompat.registerReceiver(
-                this,
-                disallowVidReceiver,
-                new IntentFilter(ACTION_DETECTED_DISALLOW_VID),
-                ContextCompat.RECEIVER_EXPORTED
-        );
+        blockedRecorder.addListener(blockedVidListener);
     }
 
     @Override
     protected void onPause() {
-        unregisterReceiver(disallowVidReceiver);
+        blockedRecorder.removeListener(blockedVidListener);
+        if (blockedSummaryScheduled) {
+            Choreographer.getInstance().removeFrameCallback(blockedSummaryFrame);
+            blockedSummaryScheduled = false;
+        }
         super.onPause();
     }
 
+    @Override
+    protected void onDestroy() {
+        // Drop pending callbacks; they must not touch views after destroy
+        for (Future<?> f : inFlight) f.cancel(false);
+        inFlight.clear();
+        mainHandler.removeCallbacksAndMessages(null);
+        ioWorker.shutdownNow();
+        super.onDestroy();
+    }
+
     // -------------------- init / bind --------------------
 
     /**
@@ -124,11 +194,15 @@ public class VidAllowListActivity extends AppCompatActivity implements VidAllowL
      */
     private void initViews() {
         swEnabled = findViewById(R.id.sw_enable);
+        tvPending = findViewById(R.id.tv_pending);
         etVid = findViewById(R.id.et_vid);
         btnAdd = findViewById(R.id.btn_add);
+        btnImport = findViewById(R.id.btn_import);
         btnApply = findViewById(R.id.btn_apply);
         btnClear = findViewById(R.id.btn_clear);
+        btnHistory = findViewById(R.id.btn_history);
         rvList = findViewById(R.id.rv_vids);
+        tvBlocked = findViewById(R.id.tv_blocked_summary);
     }
 
     /**
@@ -141,6 +215,25 @@ public class VidAllowListActivity extends AppCompatActivity implements VidAllowL
         // Add button
         btnAdd.setOnClickListener(v -> addFromInput());
 
+        // Import button opens the file picker
+        btnImport.setOnClickListener(v -> importLauncher.launch(IMPORT_MIME_TYPES));
+
+        // Validate as the user types
+        etVid.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                validateInput(s);
+            }
+        });
+
         // Keyboard "Done" key triggers add
         etVid.setOnEditorActionListener((tv, actionId, ev) -> {
             if (actionId == EditorInfo.IME_ACTION_DONE) {
@@ -162,13 +255,16 @@ public class VidAllowListActivity extends AppCompatActivity implements VidAllowL
                         .setNegativeButton(android.R.string.cancel, null)
                         .show()
         );
+
+        // Blocked-VID history from the persistent log
+        btnHistory.setOnClickListener(v -> showBlockedHistory());
     }
 
     /**
      * Setup RecyclerView and adapter
      */
     private void setupRecycler() {
-        adapter = new VidAllowListAdapter(vidList, this);
+        adapter = new VidAllowListAdapter(this);
         rvList.setLayoutManager(new LinearLayoutManager(this));
         rvList.setAdapter(adapter);
         rvList.addItemDecoration(new DividerItemDecoration(this, DividerItemDecoration.VERTICAL));
@@ -177,181 +273,523 @@ public class VidAllowListActivity extends AppCompatActivity implements VidAllowL
     // -------------------- actions --------------------
 
     /**
-     * Enable/disable VID allow list
+     * Stage enable/disable of the VID allow list; written on the next Apply/Clear
      */
     private void onToggleEnable(boolean isChecked) {
-        try {
-            dataSource.setAllowListEnabled(isChecked);
-            if (isChecked) {
-                dataSource.reboot(); // reboot only when enabling
-                showToast("Allow List: ON (rebooting to apply)");
-            } else {
-                showToast("Allow List: OFF");
-            }
-        } catch (Throwable t) {
-            // rollback on failure
-            swEnabled.setOnCheckedChangeListener(null);
-            swEnabled.setChecked(!isChecked);
-            swEnabled.setOnCheckedChangeListener((b, st) -> {
-                try {
-                    dataSource.setAllowListEnabled(st);
-                } catch (Throwable ignore) {
-                }
-            });
-            Log.e(TAG, "setAllowListEnabled error", t);
-            showToast("Toggle failed: " + t.getMessage());
+        if (deviceEnabled != null && deviceEnabled == isChecked) {
+            pending.unsetEnabled(); // toggled back to the device state
+        } else {
+            pending.setEnabled(isChecked);
         }
+        updatePendingIndicator();
     }
 
     /**
-     * Apply current list to device
+     * Apply current list (and any staged toggle) to device.
+     * Reads the device list first; if nothing differs, nothing is written and
+     * the device is not rebooted. Otherwise the changes are shown for confirmation.
      */
     private void onClickApply() {
-        safeEnable(false);
-        try {
-            if (vidList.isEmpty()) {
-                // clear
-                dataSource.clearAllowList();
-                dataSource.reboot(); // reboot after clear
-                showToast("Cleared on device (empty list), rebooting...");
-
-            } else {
-                // set
-                String[] arr = vidList.toArray(new String[0]);
-                dataSource.setAllowList(arr);
-                dataSource.reboot(); // reboot after apply
-                showToast("Applied " + arr.length + " item(s), rebooting...");
+        // Snapshot on the main thread; the list may change while calls are in flight
+        VidSet snapshot = new VidSet(vidList);
+        // Diff against what is really on the device, not a cached copy
+        track(dataSource.getAllowListAsync(true, new ApiDataSource.Callback<String[]>() {
+            @Override
+            public void onSuccess(String[] deviceList) {
+                settle();
+                VidListDiff diff = VidListDiff.compute(deviceList, snapshot);
+                if (diff.isEmpty()) {
+                    pending.unsetList();
+                } else {
+                    pending.setList(snapshot.toArray(new String[0]));
+                }
+                updatePendingIndicator();
+                if (pending.isEmpty()) {
+                    showToast("No changes to apply");
+                    return;
+                }
+                confirmApply(diff);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                settle();
+                Log.e(TAG, "apply: read device list error", t);
+                showToast("Apply failed: " + t.getMessage());
             }
-        } catch (Throwable t) {
-            Log.e(TAG, "apply error", t);
-            showToast("Apply failed: " + t.getMessage());
-        } finally {
-            safeEnable(true);
+        }));
+    }
+
+    /**
+     * Show staged changes and commit them (one reboot) on confirmation
+     */
+    private void confirmApply(VidListDiff diff) {
+        StringBuilder msg = new StringBuilder();
+        Boolean enabled = pending.getEnabled();
+        if (enabled != null) {
+            msg.append("Allow list: ").append(enabled ? "ON" : "OFF").append('\n');
         }
+        appendDiffSection(msg, "Added", diff.added);
+        appendDiffSection(msg, "Removed", diff.removed);
+        msg.append("\nThe device will reboot to apply.");
+
+        new AlertDialog.Builder(this)
+                .setTitle("Apply Allow List")
+                .setMessage(msg)
+                .setPositiveButton("Apply", (d, w) -> commitPending(null))
+                .setNegativeButton(android.R.string.cancel, null)
+                .show();
     }
 
     /**
-     * Clear list on device and UI
+     * Clear list on device and UI (together with any staged toggle).
+     * Reads the device list first; if it is already empty, only the UI list is cleared
+     * and, unless a toggle is staged, nothing is written and the device is not rebooted.
      */
-    @SuppressLint("NotifyDataSetChanged")
     private void performClearAll() {
-        safeEnable(false);
-        try {
-            dataSource.clearAllowList();
-            vidList.clear();
-            adapter.notifyDataSetChanged();
-            dataSource.reboot(); // reboot after clear
-            showToast("Cleared, rebooting...");
-        } catch (Throwable t) {
-            Log.e(TAG, "clear error", t);
-            showToast("Clear failed: " + t.getMessage());
-        } finally {
-            safeEnable(true);
-        }
+        track(dataSource.getAllowListAsync(true, new ApiDataSource.Callback<String[]>() {
+            @Override
+            public void onSuccess(String[] deviceList) {
+                settle();
+                Runnable clearUi = () -> {
+                    vidList.clear();
+                    publishList();
+                };
+                if (deviceList.length > 0) {
+                    pending.clearList();
+                    commitPending(clearUi);
+                    return;
+                }
+                pending.unsetList();
+                clearUi.run();
+                updatePendingIndicator();
+                if (pending.isEmpty()) {
+                    showToast("Allow list is already empty");
+                    return;
+                }
+                commitPending(null);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                settle();
+                Log.e(TAG, "clear: read device list error", t);
+                showToast("Clear failed: " + t.getMessage());
+            }
+        }));
+    }
+
+    /**
+     * Commit all staged changes with a single reboot
+     *
+     * @param onCommitted extra UI work after a successful commit (may be null)
+     */
+    private void commitPending(@Nullable Runnable onCommitted) {
+        String summary = pending.describe();
+        track(dataSource.commitAsync(pending, new ApiDataSource.Callback<Boolean>() {
+            @Override
+            public void onSuccess(Boolean rebooting) {
+                settle();
+                pending.reset();
+                updatePendingIndicator();
+                if (onCommitted != null) onCommitted.run();
+                showToast(rebooting ? "Applied: " + summary + ", rebooting..." : "No changes to apply");
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                settle();
+                Log.e(TAG, "commit error", t);
+                showToast("Apply failed: " + t.getMessage());
+                // Writes before the failing one are on the device (not rebooted yet)
+                reconcilePending();
+            }
+        }));
+    }
+
+    /**
+     * Re-read the device after a failed commit and drop the staged changes it already has,
+     * so the pending line shows only what Apply still has to write
+     */
+    private void reconcilePending() {
+        updatePendingIndicator();
+        track(dataSource.isVidAllowListEnabledAsync(true, new ApiDataSource.Callback<Boolean>() {
+            @Override
+            public void onSuccess(Boolean enabled) {
+                settle();
+                Boolean staged = pending.getEnabled();
+                if (staged == null || staged.equals(enabled)) {
+                    pending.unsetEnabled();
+                    showEnabled(enabled);
+                } else {
+                    deviceEnabled = enabled;  // the switch keeps showing the staged state
+                }
+                updatePendingIndicator();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                settle();
+                Log.e(TAG, "reconcile: read toggle error", t);
+            }
+        }));
+        if (!pending.hasListChange()) return;
+        track(dataSource.getAllowListAsync(true, new ApiDataSource.Callback<String[]>() {
+            @Override
+            public void onSuccess(String[] deviceList) {
+                settle();
+                String[] staged = pending.getList();
+                if (staged == null) return;
+                VidSet stagedSet = new VidSet();
+                Collections.addAll(stagedSet, staged);
+                if (VidListDiff.compute(deviceList, stagedSet).isEmpty()) pending.unsetList();
+                updatePendingIndicator();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                settle();
+                Log.e(TAG, "reconcile: read list error", t);
+            }
+        }));
     }
 
     /**
      * Add new VID from input field
      */
     private void addFromInput() {
-        String raw = etVid.getText() != null ? etVid.getText().toString() : "";
-        String norm = normalizeVid(raw);
-        if (TextUtils.isEmpty(norm)) {
-            showToast("Invalid VID. Use 4 or 6 hex digits (e.g., 046D or 0x18D1FF).");
+        int parsed = VidParser.parse(etVid.getText());
+        if (parsed < 0) {
+            showToast(MSG_INVALID_VID);
             return;
         }
-        if (containsVidByKey(vidList, norm)) {
+        String norm = VidParser.format(parsed);
+        // keep original format (with/without 0x); false if the same value exists
+        if (!vidList.add(norm, VidParser.value(parsed))) {
             showToast("Already exists: " + norm);
             etVid.setText("");
             return;
         }
-        vidList.add(norm); // keep original format (with/without 0x)
-        adapter.notifyItemInserted(vidList.size() - 1);
+        publishList();
         etVid.setText("");
     }
 
+    /**
+     * Import VIDs from a picked file: parse and dedupe off the main thread,
+     * then insert all new rows with a single ranged notification.
+     */
+    private void importFromUri(@Nullable Uri uri) {
+        if (uri == null) return; // picker cancelled
+
+        VidSet snapshot = new VidSet(vidList);
+        ContentResolver resolver = getContentResolver();
+        track(submitIo(() -> {
+            try (InputStream in = resolver.openInputStream(uri)) {
+                if (in == null) throw new FileNotFoundException(uri.toString());
+                return VidListImporter.read(new InputStreamReader(in, StandardCharsets.UTF_8), snapshot);
+            }
+        }, new ApiDataSource.Callback<VidListImporter.Result>() {
+            @Override
+            public void onSuccess(VidListImporter.Result result) {
+                settle();
+                int start = vidList.size();
+                for (int i = 0; i < result.added.size(); i++) {
+                    vidList.add(result.added.get(i), result.added.valueAt(i));
+                }
+                int count = vidList.size() - start;
+                if (count > 0) publishList();
+                AppLog.d(TAG, () -> "import: added=" + count + " duplicates=" + result.duplicates
+                        + " invalidLines=" + result.invalidLineCount);
+                showImportReport(result, count);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                settle();
+                Log.e(TAG, "import error", t);
+                showToast("Import failed: " + t.getMessage());
+            }
+        }));
+    }
+
+    /**
+     * Summarize an import; invalid lines are listed with their line numbers.
+     */
+    private void showImportReport(VidListImporter.Result result, int added) {
+        if (result.invalidLineCount == 0) {
+            showToast("Imported " + added + " item(s), " + result.duplicates + " duplicate(s) skipped");
+            return;
+        }
+        StringBuilder msg = new StringBuilder()
+                .append("Added: ").append(added)
+                .append("\nDuplicates skipped: ").append(result.duplicates)
+                .append("\nInvalid lines: ").append(result.invalidLineCount)
+                .append("\n");
+        for (String line : result.invalidLines) {
+            msg.append('\n').append(line);
+        }
+        int hidden = result.invalidLineCount - result.invalidLines.size();
+        if (hidden > 0) msg.append("\n... and ").append(hidden).append(" more");
+
+        new AlertDialog.Builder(this)
+                .setTitle("Import")
+                .setMessage(msg)
+                .setPositiveButton(android.R.string.ok, null)
+                .show();
+    }
+
+    /**
+     * Show a blocked VID: toast only outside the VID's rate-limit window,
+     * and coalesce summary updates into the next frame
+     */
+    private void onBlockedVid(String vid, long timeMs) {
+        if (blockedTracker.record(vid, timeMs)) {
+            showToast("[Blocked VID detected] " + vid);
+        }
+        if (!blockedSummaryScheduled) {
+            blockedSummaryScheduled = true;
+            Choreographer.getInstance().postFrameCallback(blockedSummaryFrame);
+        }
+    }
+
+    /**
+     * Show the most-blocked VIDs of the last 7 days (from hourly rollups)
+     */
+    private void showBlockedHistory() {
+        long now = System.currentTimeMillis();
+        track(submitIo(
+                () -> blockedRecorder.topVids(now - BLOCKED_HISTORY_WINDOW_MS, now, BLOCKED_HISTORY_ROWS),
+                new ApiDataSource.Callback<List<BlockedVidLog.VidCount>>() {
+                    @Override
+                    public void onSuccess(List<BlockedVidLog.VidCount> top) {
+                        settle();
+                        StringBuilder msg = new StringBuilder();
+                        for (BlockedVidLog.VidCount c : top) {
+                            if (msg.length() > 0) msg.append('\n');
+                            msg.append(formatVidValue(c.vid)).append(": ").append(c.count);
+                        }
+                        new AlertDialog.Builder(VidAllowListActivity.this)
+                                .setTitle("Top blocked VIDs (7 days)")
+                                .setMessage(top.isEmpty() ? "No blocked VIDs recorded." : msg)
+                                .setPositiveButton(android.R.string.ok, null)
+                                .show();
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        settle();
+                        Log.e(TAG, "blocked history error", t);
+                        showToast("History failed: " + t.getMessage());
+                    }
+                }));
+    }
+
+    /**
+     * Display form of a logged VID value
+     */
+    private static String formatVidValue(int value) {
+        if (value == VidSet.NO_VALUE) return "(unknown)";
+        return String.format(Locale.US, value > 0xFFFF ? "%06X" : "%04X", value);
+    }
+
+    /**
+     * Render "Blocked: 046D x12 (last 10:05:33), ..." for the most recent VIDs, then the latest events
+     */
+    private void renderBlockedSummary() {
+        List<BlockedVidTracker.Stats> stats = blockedTracker.snapshot();
+        if (stats.isEmpty()) {
+            tvBlocked.setVisibility(View.GONE);
+            return;
+        }
+        StringBuilder sb = new StringBuilder("Blocked (")
+                .append(blockedTracker.totalEvents()).append(" events):");
+        int rows = Math.min(stats.size(), BLOCKED_SUMMARY_ROWS);
+        for (int i = 0; i < rows; i++) {
+            BlockedVidTracker.Stats st = stats.get(i);
+            sb.append("\n").append(st.vid).append(" x").append(st.count)
+                    .append(" (first ").append(DateFormat.format("HH:mm:ss", st.firstSeenMs))
+                    .append(", last ").append(DateFormat.format("HH:mm:ss", st.lastSeenMs))
+                    .append(')');
+        }
+        if (stats.size() > rows) sb.append("\n+").append(stats.size() - rows).append(" more VID(s)");
+
+        // The raw sequence shows bursts and interleaving the per-VID totals hide
+        List<String> recentVids = new ArrayList<>(BLOCKED_RECENT_EVENTS);
+        List<Long> recentTimes = new ArrayList<>(BLOCKED_RECENT_EVENTS);
+        int recent = blockedTracker.recent(BLOCKED_RECENT_EVENTS, recentVids, recentTimes);
+        sb.append("\nLatest:");
+        for (int i = 0; i < recent; i++) {
+            sb.append(i == 0 ? " " : ", ").append(recentVids.get(i))
+                    .append(' ').append(DateFormat.format("HH:mm:ss", recentTimes.get(i)));
+        }
+        tvBlocked.setText(sb);
+        tvBlocked.setVisibility(View.VISIBLE);
+    }
+
+    /**
+     * Live validation on each keystroke: flag input that more typing cannot fix.
+     * Parses the Editable directly, so no strings are built per keystroke.
+     */
+    private void validateInput(@Nullable CharSequence text) {
+        int parsed = VidParser.parse(text);
+        if (parsed == VidParser.ERROR_INVALID_CHAR) {
+            etVid.setError("Hex digits only (0-9, A-F), optional 0x prefix");
+        } else if (parsed == VidParser.ERROR_TOO_LONG) {
+            etVid.setError("Too many digits. Use 4 or 6 hex digits");
+        } else {
+            etVid.setError(null);
+        }
+    }
+
     /**
      * Load allow list enable state from device
      */
     private void loadEnabled() {
-        try {
-            boolean enabled = dataSource.isVidAllowListEnabled();
-
-            // Temporarily detach listener to prevent firing on programmatic setChecked.
-            swEnabled.setOnCheckedChangeListener(null);
-            swEnabled.setChecked(enabled);
-            swEnabled.setOnCheckedChangeListener((buttonView, isChecked) -> onToggleEnable(isChecked));
-            // If you created enableListener field, use: swEnabled.setOnCheckedChangeListener(enableListener);
-
-        } catch (Throwable t) {
-            Log.e(TAG, "loadEnabled error", t);
-            showToast("Load toggle failed: " + t.getMessage());
-        }
+        track(dataSource.isVidAllowListEnabledAsync(new ApiDataSource.Callback<Boolean>() {
+            @Override
+            public void onSuccess(Boolean enabled) {
+                settle();
+                showEnabled(enabled);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                settle();
+                Log.e(TAG, "loadEnabled error", t);
+                showToast("Load toggle failed: " + t.getMessage());
+            }
+        }));
     }
 
     /**
-     * Load current VID list from device
+     * Show the allow list state last read by this process (e.g. by the warm-up), if any
      */
-    @SuppressLint("NotifyDataSetChanged")
-    private void loadListFromDevice() {
-        try {
-            String[] arr = dataSource.getAllowList();
+    private void showLastKnown() {
+        DeviceStateStore.Snapshot snapshot = dataSource.getCache().lastKnown().get();
+        if (snapshot.allowListEnabled != null) showEnabled(snapshot.allowListEnabled);
+        if (snapshot.hasAllowList()) {
             vidList.clear();
-            Collections.addAll(vidList, arr);
-            adapter.notifyDataSetChanged();
-            Log.d(TAG, "loaded: " + Arrays.toString(vidList.toArray()));
-
-        } catch (
-                Throwable t) {
-            Log.e(TAG, "loadList error", t);
-            showToast("Load list failed: " + t.getMessage());
+            for (int i = 0; i < snapshot.allowListSize(); i++) vidList.add(snapshot.vidAt(i));
+            publishList();
         }
     }
 
-// -------------------- validation / helpers --------------------
+    /**
+     * Show the device's allow list enable state on the switch
+     */
+    private void showEnabled(boolean enabled) {
+        deviceEnabled = enabled;
+
+        // Temporarily detach listener to prevent firing on programmatic setChecked.
+        swEnabled.setOnCheckedChangeListener(null);
+        swEnabled.setChecked(enabled);
+        swEnabled.setOnCheckedChangeListener((buttonView, isChecked) -> onToggleEnable(isChecked));
+    }
 
     /**
-     * Normalize user input: trim, uppercase, keep 0x prefix if provided
+     * Load current VID list from device
      */
-    @Nullable
-    private String normalizeVid(@Nullable String input) {
-        if (input == null) return null;
+    private void loadListFromDevice() {
+        track(dataSource.getAllowListAsync(new ApiDataSource.Callback<String[]>() {
+            @Override
+            public void onSuccess(String[] arr) {
+                settle();
+                vidList.clear();
+                if (arr != null) Collections.addAll(vidList, arr);
+                publishList();
+                AppLog.d(TAG, "loaded", vidList);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                settle();
+                Log.e(TAG, "loadList error", t);
+                showToast("Load list failed: " + t.getMessage());
+            }
+        }));
+    }
 
-        String s = input.trim();
-        if (s.isEmpty()) return null;
+// -------------------- helpers --------------------
 
-        if (!s.matches("^(0[xX])?[0-9A-Fa-f]+$")) {
-            return null;
-        }
+    /**
+     * Hand a snapshot of the list to the adapter; the diff runs off the main thread
+     */
+    private void publishList() {
+        adapter.submitVids(vidList);
+    }
 
-        if (s.startsWith("0x") || s.startsWith("0X")) {
-            return "0x" + s.substring(2).toUpperCase(Locale.US);
+    /**
+     * Show or hide the "pending changes" line
+     */
+    private void updatePendingIndicator() {
+        if (pending.isEmpty()) {
+            tvPending.setVisibility(View.GONE);
         } else {
-            return s.toUpperCase(Locale.US);
+            tvPending.setText("Pending (tap Apply): " + pending.describe());
+            tvPending.setVisibility(View.VISIBLE);
         }
     }
 
+    /**
+     * Append "Title (n): a, b, c" to a diff message, abbreviating long lists
+     */
+    private static void appendDiffSection(StringBuilder msg, String title, List<String> vids) {
+        if (vids.isEmpty()) return;
+        msg.append(title).append(" (").append(vids.size()).append("): ");
+        int shown = Math.min(vids.size(), MAX_DIFF_ITEMS_SHOWN);
+        for (int i = 0; i < shown; i++) {
+            if (i > 0) msg.append(", ");
+            msg.append(vids.get(i));
+        }
+        if (vids.size() > shown) msg.append(", ...");
+        msg.append('\n');
+    }
 
+    /**
+     * Run {@code task} on ioWorker and deliver the outcome on the main thread
+     *
+     * @return future of the task; cancel it to drop the callback
+     */
+    private <T> Future<T> submitIo(Callable<T> task, ApiDataSource.Callback<T> callback) {
+        FutureTask<T> future = new FutureTask<T>(task) {
+            @Override
+            protected void done() {
+                if (isCancelled()) return;
+                mainHandler.post(() -> {
+                    if (isCancelled()) return;
+                    T result;
+                    try {
+                        result = get();
+                    } catch (ExecutionException e) {
+                        callback.onError(e.getCause() != null ? e.getCause() : e);
+                        return;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        callback.onError(e);
+                        return;
+                    }
+                    callback.onSuccess(result);
+                });
+            }
+        };
+        ioWorker.execute(future);
+        return future;
+    }
 
     /**
-     * Generate canonical key (without prefix) for dedupe checks
+     * Register a submitted API call and lock inputs
      */
-    private String vidKey(String vid) {
-        if (vid == null) return "";
-        String s = vid.trim();
-        if (s.startsWith("0x") || s.startsWith("0X")) s = s.substring(2);
-        return s.toUpperCase(Locale.US);
+    private void track(Future<?> future) {
+        inFlight.add(future);
+        safeEnable(false);
     }
 
     /**
-     * Check if VID is already present in the list (ignoring prefix differences)
+     * Forget completed API calls; inputs stay locked while any call is still in flight
      */
-    private boolean containsVidByKey(ArrayList<String> list, String candidate) {
-        String key = vidKey(candidate);
-        for (String v : list) {
-            if (vidKey(v).equals(key)) return true;
-        }
-        return false;
+    private void settle() {
+        inFlight.removeIf(Future::isDone);
+        safeEnable(inFlight.isEmpty());
     }
 
     /**
@@ -361,8 +799,10 @@ public class VidAllowListActivity extends AppCompatActivity implements VidAllowL
         swEnabled.setEnabled(enabled);
         etVid.setEnabled(enabled);
         btnAdd.setEnabled(enabled);
+        btnImport.setEnabled(enabled);
         btnApply.setEnabled(enabled);
         btnClear.setEnabled(enabled);
+        btnHistory.setEnabled(enabled);
         adapter.setEnabled(enabled);
     }
 
@@ -379,10 +819,11 @@ public class VidAllowListActivity extends AppCompatActivity implements VidAllowL
      * Called when delete button in list is pressed
      */
     @Override
-    public void onDelete(int position) {
-        if (position < 0 || position >= vidList.size()) return;
+    public void onDelete(String vid) {
+        int position = vidList.indexOf(vid);
+        if (position < 0) return;
         String removed = vidList.remove(position);
-        adapter.notifyItemRemoved(position);
+        publishList();
         showToast("Removed: " + removed);
     }
 }
\ No newline at end of file
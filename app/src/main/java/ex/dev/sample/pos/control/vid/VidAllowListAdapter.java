@@ -1,6 +1,5 @@
 package ex.dev.sample.pos.control.vid;
 
-import android.annotation.SuppressLint;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -8,9 +7,14 @@ import android.widget.ImageButton;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import ex.dev.sample.pos.control.R;
 
@@ -19,36 +23,115 @@ import ex.dev.sample.pos.control.R;
  * Each row shows:
  * - VID text
  * - Delete button to remove the VID from the list
+ * <p>
+ * The list is submitted as an immutable snapshot ({@link #submitVids}); the diff
+ * against the previous snapshot runs on a background thread, so only changed rows
+ * are rebound. Rows have stable IDs derived from the VID value; unparseable entries
+ * (which may repeat) get IDs assigned per occurrence, so no two rows share one.
+ * <p>
+ * Enabling/disabling rows uses a partial-bind payload that only touches the
+ * delete button, and each holder wires its click listener once at creation.
  */
-public class VidAllowListAdapter extends RecyclerView.Adapter<VidAllowListAdapter.Holder> {
+public class VidAllowListAdapter extends ListAdapter<VidAllowListAdapter.Row, VidAllowListAdapter.Holder> {
 
     /**
      * Callback interface for row actions (delete, etc.).
      * Implemented by VidActivity.
      */
     public interface OnItemActionListener {
-        void onDelete(int position);
+        void onDelete(String vid);
     }
 
-    // List of VID strings
-    private final ArrayList<String> items;
+    /**
+     * One row: the VID as shown and its stable ID.
+     */
+    static final class Row {
+        final String vid;
+        final long id;
+
+        Row(String vid, long id) {
+            this.vid = vid;
+            this.id = id;
+        }
+    }
+
+    /**
+     * Rows are the same VID if their IDs match ("046D" == "0x046D");
+     * contents differ if the display form changed.
+     */
+    private static final DiffUtil.ItemCallback<Row> DIFF = new DiffUtil.ItemCallback<Row>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Row oldItem, @NonNull Row newItem) {
+            return oldItem.id == newItem.id;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Row oldItem, @NonNull Row newItem) {
+            return oldItem.vid.equals(newItem.vid);
+        }
+    };
+
+    // IDs of unparseable entries start above the VID range
+    private static final long FIRST_UNPARSEABLE_ID = 1L << 32;
+
+    // Partial-bind payload: only the enabled state changed
+    private static final Object PAYLOAD_ENABLED = new Object();
+
     // Listener for actions
     private final OnItemActionListener listener;
     // Whether row actions are enabled (used when UI is locked/busy)
     private boolean enabled = true;
+    // "occurrence:entry" -> ID of the unparseable rows last submitted; rebuilt on each
+    // submission, so rows that stay keep their IDs and removed rows drop out
+    private Map<String, Long> unparseableIds = new HashMap<>();
+    private long nextUnparseableId = FIRST_UNPARSEABLE_ID;
 
-    public VidAllowListAdapter(ArrayList<String> items, OnItemActionListener listener) {
-        this.items = items;
+    public VidAllowListAdapter(OnItemActionListener listener) {
+        super(DIFF);
         this.listener = listener;
+        setHasStableIds(true);
     }
 
     /**
-     * Enable/disable row interactions
+     * Show {@code vids} (copied). Must be called on the main thread.
+     */
+    public void submitVids(@NonNull List<String> vids) {
+        List<Row> rows = new ArrayList<>(vids.size());
+        Map<String, Integer> occurrences = null;
+        Map<String, Long> ids = new HashMap<>();
+        for (String vid : vids) {
+            int parsed = VidParser.parse(vid);
+            if (parsed >= 0) {
+                rows.add(new Row(vid, VidParser.value(parsed)));  // VidSet keeps one entry per value
+                continue;
+            }
+            if (occurrences == null) occurrences = new HashMap<>();
+            Integer seen = occurrences.get(vid);
+            int occurrence = seen != null ? seen + 1 : 0;
+            occurrences.put(vid, occurrence);
+            String key = occurrence + ":" + vid;
+            Long id = unparseableIds.get(key);
+            if (id == null) id = nextUnparseableId++;
+            ids.put(key, id);
+            rows.add(new Row(vid, id));
+        }
+        unparseableIds = ids;
+        submitList(rows);
+    }
+
+    /**
+     * Enable/disable row interactions.
+     * Only bound rows are touched, and only their delete button is updated.
      */
-    @SuppressLint("NotifyDataSetChanged")
     public void setEnabled(boolean enabled) {
+        if (this.enabled == enabled) return;
         this.enabled = enabled;
-        notifyDataSetChanged();
+        notifyItemRangeChanged(0, getItemCount(), PAYLOAD_ENABLED);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).id;
     }
 
     @NonNull
@@ -56,28 +139,39 @@ public class VidAllowListAdapter extends RecyclerView.Adapter<VidAllowListAdapte
     public Holder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View v = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_vid, parent, false);
-        return new Holder(v);
+        Holder h = new Holder(v);
+
+        // Bind delete action once per holder; resolve the row at click time
+        h.btnDelete.setOnClickListener(view -> {
+            int pos = h.getBindingAdapterPosition();
+            if (listener != null && pos != RecyclerView.NO_POSITION) {
+                listener.onDelete(getItem(pos).vid);
+            }
+        });
+        return h;
     }
 
     @Override
     public void onBindViewHolder(@NonNull Holder h, int position) {
-        String vid = items.get(position);
-        h.tv.setText(vid);
+        h.tv.setText(getItem(position).vid);
 
         // Enable/disable delete button
         h.btnDelete.setEnabled(enabled);
-
-        // Bind delete action
-        h.btnDelete.setOnClickListener(v -> {
-            if (listener != null) {
-                listener.onDelete(h.getAdapterPosition());
-            }
-        });
     }
 
     @Override
-    public int getItemCount() {
-        return items.size();
+    public void onBindViewHolder(@NonNull Holder h, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(h, position);
+            return;
+        }
+        for (Object p : payloads) {
+            if (p != PAYLOAD_ENABLED) {
+                onBindViewHolder(h, position);
+                return;
+            }
+        }
+        h.btnDelete.setEnabled(enabled);
     }
 
     /**
@@ -93,4 +187,4 @@ public class VidAllowListAdapter extends RecyclerView.Adapter<VidAllowListAdapte
             btnDelete = itemView.findViewById(R.id.btn_delete);
         }
     }
-}
\ No newline at end of file
+}
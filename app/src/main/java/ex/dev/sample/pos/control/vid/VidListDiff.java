@@ -0,0 +1,61 @@
+package ex.dev.sample.pos.control.vid;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Set difference between the allow list on the device and the list on screen.
+ * <p>
+ * VIDs are compared by numeric value ("046D" == "0x46d"), and order is ignored,
+ * because the device treats the allow list as a set. Unparseable entries are
+ * compared as plain strings.
+ * Plain Java (no Android dependencies).
+ */
+public final class VidListDiff {
+
+    // VIDs on screen but not on the device, in screen order
+    public final List<String> added;
+    // VIDs on the device but not on screen, in device order
+    public final List<String> removed;
+
+    private VidListDiff(List<String> added, List<String> removed) {
+        this.added = Collections.unmodifiableList(added);
+        this.removed = Collections.unmodifiableList(removed);
+    }
+
+    /**
+     * @param device list returned by the device (null = empty)
+     * @param local  list about to be applied
+     */
+    @NonNull
+    public static VidListDiff compute(@Nullable String[] device, @NonNull VidSet local) {
+        VidSet deviceSet = new VidSet();
+        List<String> removed = new ArrayList<>();
+        if (device != null) {
+            for (String vid : device) {
+                if (vid == null || !deviceSet.add(vid)) continue; // duplicate on device
+                if (!local.contains(vid)) removed.add(vid);
+            }
+        }
+
+        List<String> added = new ArrayList<>();
+        for (int i = 0; i < local.size(); i++) {
+            String vid = local.get(i);
+            int value = local.valueAt(i);
+            boolean onDevice = value != VidSet.NO_VALUE ? deviceSet.containsValue(value) : deviceSet.contains(vid);
+            if (!onDevice) added.add(vid);
+        }
+        return new VidListDiff(added, removed);
+    }
+
+    /**
+     * True if applying would not change the device.
+     */
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty();
+    }
+}
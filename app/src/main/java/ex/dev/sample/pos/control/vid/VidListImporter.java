@@ -0,0 +1,117 @@
+package ex.dev.sample.pos.control.vid;
+
+import androidx.annotation.NonNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Streaming parser for VID allow-list files (plain text or CSV).
+ * <p>
+ * File format:
+ * - One or more VIDs per line, separated by commas, semicolons or whitespace
+ * (CSV double quotes are ignored).
+ * - Everything after '#' on a line is a comment; blank lines are ignored.
+ * - Each VID must satisfy {@link VidParser} (optional 0x, 4 or 6 hex digits).
+ * <p>
+ * The file is read line by line and deduplicated in the same pass against a
+ * snapshot of the current list, so memory stays proportional to the new entries.
+ * Plain Java; run it off the main thread.
+ */
+public final class VidListImporter {
+
+    // Keep the report readable and bounded for huge broken files
+    public static final int MAX_REPORTED_LINES = 50;
+    private static final int MAX_REPORTED_TEXT = 40;
+
+    private VidListImporter() {
+    }
+
+    /**
+     * Outcome of an import.
+     */
+    public static final class Result {
+        // New VIDs (not in the snapshot, no duplicates), in file order
+        public final VidSet added;
+        public final int duplicates;
+        public final int invalidLineCount;
+        // "Line N: text" for the first MAX_REPORTED_LINES invalid lines
+        public final List<String> invalidLines;
+
+        Result(VidSet added, int duplicates, int invalidLineCount, List<String> invalidLines) {
+            this.added = added;
+            this.duplicates = duplicates;
+            this.invalidLineCount = invalidLineCount;
+            this.invalidLines = Collections.unmodifiableList(invalidLines);
+        }
+    }
+
+    /**
+     * Read all VIDs from {@code reader}.
+     *
+     * @param existing snapshot of the current list; owned by the caller's thread
+     *                 and used (and extended) for dedupe only
+     */
+    @NonNull
+    public static Result read(@NonNull Reader reader, @NonNull VidSet existing) throws IOException {
+        VidSet added = new VidSet();
+        int duplicates = 0;
+        int invalidLineCount = 0;
+        List<String> invalidLines = new ArrayList<>();
+
+        BufferedReader in = reader instanceof BufferedReader
+                ? (BufferedReader) reader
+                : new BufferedReader(reader);
+        String line;
+        int lineNo = 0;
+        while ((line = in.readLine()) != null) {
+            lineNo++;
+            int end = line.indexOf('#');
+            if (end < 0) end = line.length();
+
+            boolean lineInvalid = false;
+            int i = 0;
+            while (i < end) {
+                // skip separators
+                while (i < end && isSeparator(line.charAt(i))) i++;
+                if (i >= end) break;
+                int tokenStart = i;
+                while (i < end && !isSeparator(line.charAt(i))) i++;
+
+                int parsed = VidParser.parse(line, tokenStart, i);
+                if (parsed < 0) {
+                    lineInvalid = true;
+                    continue;
+                }
+                int value = VidParser.value(parsed);
+                if (existing.containsValue(value)) {
+                    duplicates++;
+                    continue;
+                }
+                String vid = VidParser.format(parsed);
+                existing.add(vid, value);
+                added.add(vid, value);
+            }
+
+            if (lineInvalid) {
+                invalidLineCount++;
+                if (invalidLines.size() < MAX_REPORTED_LINES) {
+                    invalidLines.add("Line " + lineNo + ": " + abbreviate(line.trim()));
+                }
+            }
+        }
+        return new Result(added, duplicates, invalidLineCount, invalidLines);
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == ',' || c == ';' || c == '"' || c <= ' ';
+    }
+
+    private static String abbreviate(String s) {
+        return s.length() <= MAX_REPORTED_TEXT ? s : s.substring(0, MAX_REPORTED_TEXT) + "...";
+    }
+}
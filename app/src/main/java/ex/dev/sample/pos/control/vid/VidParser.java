@@ -0,0 +1,140 @@
+package ex.dev.sample.pos.control.vid;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Single-pass VID parser/validator.
+ * <p>
+ * Accepted input: optional surrounding whitespace, optional "0x"/"0X" prefix,
+ * then exactly 4 or 6 hex digits (e.g. "046D", "0x18D1FF").
+ * <p>
+ * {@link #parse(CharSequence)} does not allocate: it returns either a negative
+ * error code or a packed result holding the numeric value, the digit count and
+ * whether a prefix was given. {@link #format(int)} builds the canonical string
+ * ("0x" kept if given, digits uppercased) in a single allocation.
+ * <p>
+ * Plain Java (no Android dependencies) so the same code can be benchmarked on the JVM.
+ */
+public final class VidParser {
+
+    // -------------------- error codes (negative) --------------------
+    public static final int ERROR_EMPTY = -1;
+    public static final int ERROR_INVALID_CHAR = -2;
+    // fewer than 4 digits, or 5 digits: more typing can still make it valid
+    public static final int ERROR_INCOMPLETE = -3;
+    public static final int ERROR_TOO_LONG = -4;
+
+    // -------------------- packed result layout --------------------
+    private static final int VALUE_MASK = 0x00FFFFFF;   // bits 0..23: value
+    private static final int FLAG_SIX_DIGITS = 1 << 24; // bit 24: 6 digits (else 4)
+    private static final int FLAG_PREFIX = 1 << 25;     // bit 25: had 0x prefix
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private VidParser() {
+    }
+
+    /**
+     * Parse and validate {@code input}.
+     *
+     * @return packed result (>= 0) or one of the {@code ERROR_*} codes (< 0)
+     */
+    public static int parse(@Nullable CharSequence input) {
+        if (input == null) return ERROR_EMPTY;
+        return parse(input, 0, input.length());
+    }
+
+    /**
+     * Parse and validate {@code input[start, end)} (e.g. one token of a CSV line).
+     *
+     * @return packed result (>= 0) or one of the {@code ERROR_*} codes (< 0)
+     */
+    public static int parse(CharSequence input, int start, int end) {
+        while (start < end && input.charAt(start) <= ' ') start++;
+        while (end > start && input.charAt(end - 1) <= ' ') end--;
+        if (start == end) return ERROR_EMPTY;
+
+        int flags = 0;
+        if (end - start >= 2 && input.charAt(start) == '0'
+                && (input.charAt(start + 1) == 'x' || input.charAt(start + 1) == 'X')) {
+            flags = FLAG_PREFIX;
+            start += 2;
+        }
+
+        int value = 0;
+        int digits = 0;
+        for (int i = start; i < end; i++) {
+            int d = hexDigit(input.charAt(i));
+            if (d < 0) return ERROR_INVALID_CHAR;
+            if (++digits > 6) return ERROR_TOO_LONG;
+            value = (value << 4) | d;
+        }
+
+        if (digits == 6) return value | flags | FLAG_SIX_DIGITS;
+        if (digits == 4) return value | flags;
+        return ERROR_INCOMPLETE;
+    }
+
+    /**
+     * True if {@code input} is a complete, valid VID.
+     */
+    public static boolean isValid(@Nullable CharSequence input) {
+        return parse(input) >= 0;
+    }
+
+    /**
+     * Numeric value of a packed result.
+     */
+    public static int value(int parsed) {
+        return parsed & VALUE_MASK;
+    }
+
+    /**
+     * Digit count (4 or 6) of a packed result.
+     */
+    public static int digitCount(int parsed) {
+        return (parsed & FLAG_SIX_DIGITS) != 0 ? 6 : 4;
+    }
+
+    public static boolean hasPrefix(int parsed) {
+        return (parsed & FLAG_PREFIX) != 0;
+    }
+
+    /**
+     * Canonical display form of a packed result: "0x" kept if given, digits uppercased.
+     */
+    public static String format(int parsed) {
+        if (parsed < 0) throw new IllegalArgumentException("not a parsed VID: " + parsed);
+        int digits = digitCount(parsed);
+        int offset = hasPrefix(parsed) ? 2 : 0;
+        char[] out = new char[offset + digits];
+        if (offset == 2) {
+            out[0] = '0';
+            out[1] = 'x';
+        }
+        int value = value(parsed);
+        for (int i = out.length - 1; i >= offset; i--) {
+            out[i] = HEX[value & 0xF];
+            value >>>= 4;
+        }
+        return new String(out);
+    }
+
+    /**
+     * Normalize user input: trim, uppercase, keep 0x prefix if provided.
+     *
+     * @return canonical VID, or null if the input is not a valid 4/6-digit VID
+     */
+    @Nullable
+    public static String normalize(@Nullable CharSequence input) {
+        int parsed = parse(input);
+        return parsed < 0 ? null : format(parsed);
+    }
+
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') return c - '0';
+        if (c >= 'A' && c <= 'F') return c - 'A' + 10;
+        if (c >= 'a' && c <= 'f') return c - 'a' + 10;
+        return -1;
+    }
+}
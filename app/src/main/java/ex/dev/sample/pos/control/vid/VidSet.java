@@ -0,0 +1,284 @@
+package ex.dev.sample.pos.control.vid;
+
+import androidx.annotation.Nullable;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Ordered set of VIDs keyed by their numeric value.
+ * <p>
+ * - Keeps insertion order and the original display form (e.g. "0x046D" or "046D").
+ * - Membership is an open-addressing int hash set (linear probing) that also stores each
+ * value's position, so {@link #add(String)}, {@link #containsValue(int)} and
+ * {@link #indexOfValue(int)} are O(1) and allocation-free.
+ * - "046D", "0x046d" and " 046D " are the same VID; what counts as a VID is
+ * {@link VidParser}'s call (4 or 6 hex digits).
+ * - Entries that cannot be parsed (e.g. from the device) are kept for display
+ * but are not deduplicated.
+ * <p>
+ * Exposed as a read-mostly {@link java.util.List} so it can back the RecyclerView adapter.
+ * Not thread-safe while it is being modified. A set that is no longer modified once
+ * safely published (e.g. through a volatile field, as {@code DeviceStateStore} does)
+ * may be read from any thread.
+ */
+public class VidSet extends AbstractList<String> implements RandomAccess {
+
+    /**
+     * Value of an entry that is not a valid VID; also marks empty hash slots.
+     */
+    public static final int NO_VALUE = -1;
+
+    private static final int MIN_TABLE = 16;
+
+    // insertion-ordered entries
+    private String[] display = new String[MIN_TABLE];
+    private int[] values = new int[MIN_TABLE];
+    private int size = 0;
+
+    // hash set of values (NO_VALUE = empty slot), load factor <= 0.5
+    private int[] table = newTable(MIN_TABLE * 2);
+    // entry index of the value in the same slot of table
+    private int[] slotIndex = new int[MIN_TABLE * 2];
+    private int keyCount = 0;
+
+    public VidSet() {
+    }
+
+    /**
+     * Copy of {@code other} (e.g. a snapshot handed to a background thread).
+     */
+    public VidSet(VidSet other) {
+        display = Arrays.copyOf(other.display, Math.max(other.size, MIN_TABLE));
+        values = Arrays.copyOf(other.values, display.length);
+        size = other.size;
+        table = other.table.clone();
+        slotIndex = other.slotIndex.clone();
+        keyCount = other.keyCount;
+    }
+
+    /**
+     * Numeric value of {@code vid} as {@link VidParser} reads it, or {@link #NO_VALUE}.
+     */
+    private static int valueOf(@Nullable String vid) {
+        int parsed = VidParser.parse(vid);
+        return parsed >= 0 ? VidParser.value(parsed) : NO_VALUE;
+    }
+
+    // -------------------- set operations --------------------
+
+    /**
+     * Add a VID, keeping {@code vid} as its display form.
+     *
+     * @return false if a VID with the same value is already present
+     */
+    @Override
+    public boolean add(String vid) {
+        return add(vid, valueOf(vid));
+    }
+
+    /**
+     * Add a VID whose value is already known (see {@link VidParser#value}).
+     *
+     * @return false if {@code value} is already present
+     */
+    public boolean add(String vid, int value) {
+        if (value != NO_VALUE) {
+            if (!insertKey(value, size)) return false;
+        }
+        ensureCapacity(size + 1);
+        display[size] = vid;
+        values[size] = value;
+        size++;
+        modCount++;
+        return true;
+    }
+
+    public boolean containsValue(int value) {
+        return value != NO_VALUE && findSlot(value) >= 0;
+    }
+
+    /**
+     * Index of the entry with {@code value}, or -1.
+     */
+    public int indexOfValue(int value) {
+        if (value == NO_VALUE) return -1;
+        int slot = findSlot(value);
+        return slot >= 0 ? slotIndex[slot] : -1;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof String)) return false;
+        int value = valueOf((String) o);
+        if (value != NO_VALUE) return containsValue(value);
+        return super.contains(o);
+    }
+
+    /**
+     * Index of the VID with the same value as {@code o} (any accepted form), or of an
+     * equal unparseable entry; -1 if none.
+     */
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof String)) return -1;
+        int value = valueOf((String) o);
+        if (value != NO_VALUE) return indexOfValue(value);
+        return super.indexOf(o);
+    }
+
+    @Override
+    public String get(int index) {
+        checkIndex(index);
+        return display[index];
+    }
+
+    /**
+     * Numeric value at {@code index}, or {@link #NO_VALUE}.
+     */
+    public int valueAt(int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String remove(int index) {
+        checkIndex(index);
+        String removed = display[index];
+        int value = values[index];
+        if (value != NO_VALUE) removeKey(value);
+
+        int tail = size - index - 1;
+        if (tail > 0) {
+            System.arraycopy(display, index + 1, display, index, tail);
+            System.arraycopy(values, index + 1, values, index, tail);
+            // The shifted entries moved up by one
+            for (int i = index; i < index + tail; i++) {
+                if (values[i] != NO_VALUE) slotIndex[findSlot(values[i])] = i;
+            }
+        }
+        size--;
+        display[size] = null;
+        modCount++;
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(display, 0, size, null);
+        size = 0;
+        Arrays.fill(table, NO_VALUE);
+        keyCount = 0;
+        modCount++;
+    }
+
+    @Override
+    public Object[] toArray() {
+        return Arrays.copyOf(display, size, Object[].class);
+    }
+
+    // -------------------- hash table --------------------
+
+    private static int[] newTable(int capacity) {
+        int[] t = new int[capacity];
+        Arrays.fill(t, NO_VALUE);
+        return t;
+    }
+
+    private static int hash(int value, int mask) {
+        int h = value * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * @return slot index of {@code value}, or -1
+     */
+    private int findSlot(int value) {
+        int mask = table.length - 1;
+        int i = hash(value, mask);
+        while (true) {
+            int k = table[i];
+            if (k == NO_VALUE) return -1;
+            if (k == value) return i;
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * @return false if already present
+     */
+    private boolean insertKey(int value, int index) {
+        if ((keyCount + 1) * 2 > table.length) rehash(table.length * 2);
+        int mask = table.length - 1;
+        int i = hash(value, mask);
+        while (true) {
+            int k = table[i];
+            if (k == NO_VALUE) {
+                table[i] = value;
+                slotIndex[i] = index;
+                keyCount++;
+                return true;
+            }
+            if (k == value) return false;
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * Remove with backward-shift deletion (no tombstones).
+     */
+    private void removeKey(int value) {
+        int slot = findSlot(value);
+        if (slot < 0) return;
+        int mask = table.length - 1;
+        int hole = slot;
+        int i = (hole + 1) & mask;
+        while (table[i] != NO_VALUE) {
+            int home = hash(table[i], mask);
+            // Move entry i into the hole if its home is not in (hole, i]
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                table[hole] = table[i];
+                slotIndex[hole] = slotIndex[i];
+                hole = i;
+            }
+            i = (i + 1) & mask;
+        }
+        table[hole] = NO_VALUE;
+        keyCount--;
+    }
+
+    private void rehash(int capacity) {
+        int[] old = table;
+        int[] oldIndex = slotIndex;
+        table = newTable(capacity);
+        slotIndex = new int[capacity];
+        int mask = capacity - 1;
+        for (int s = 0; s < old.length; s++) {
+            int k = old[s];
+            if (k == NO_VALUE) continue;
+            int i = hash(k, mask);
+            while (table[i] != NO_VALUE) i = (i + 1) & mask;
+            table[i] = k;
+            slotIndex[i] = oldIndex[s];
+        }
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= display.length) return;
+        int capacity = Math.max(needed, display.length * 2);
+        display = Arrays.copyOf(display, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package ex.dev.sample.pos.control.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SimulatedDeviceBackend
+ * In-memory {@link DeviceBackend} for unit tests and benchmarks (no device, no Android).
+ * <p>
+ * Simulated state:
+ * - Cash drawer open/closed (opened by {@link #openCashBox()}, closed by {@link #closeCashBox()})
+ * - VID allow list and its enabled flag
+ * - Second display touch flag
+ * - Reboot counter
+ * <p>
+ * Fault injection (per {@link Call}):
+ * - Fixed latency: the calling thread sleeps before the call is served.
+ * - Failure rate: probability that a call throws {@link SimulatedFailureException}.
+ * - Forced failures: the next N calls throw.
+ * - Refused opens: the next N drawer opens return false, opening the drawer or not.
+ * <p>
+ * Latency is applied outside the state lock, so concurrent callers overlap the
+ * way independent IPC calls would.
+ */
+public class SimulatedDeviceBackend implements DeviceBackend {
+
+    /**
+     * Backend calls that can be configured and counted.
+     */
+    public enum Call {
+        OPEN_CASH_BOX,
+        GET_CASH_BOX_STATUS,
+        IS_VID_ALLOW_LIST_ENABLED,
+        SET_VID_ALLOW_LIST_ENABLED,
+        GET_VID_ALLOW_LIST,
+        SET_VID_ALLOW_LIST,
+        CLEAR_VID_ALLOW_LIST,
+        IS_2ND_DISPLAY_TOUCH_ENABLED,
+        SET_2ND_DISPLAY_TOUCH_ENABLED,
+        REBOOT
+    }
+
+    /**
+     * Thrown by an injected failure.
+     */
+    public static class SimulatedFailureException extends RuntimeException {
+        public SimulatedFailureException(Call call) {
+            super("Simulated failure: " + call);
+        }
+    }
+
+    // -------------------- fault configuration --------------------
+    private final Map<Call, Long> latencyMs = new EnumMap<>(Call.class);
+    private final Map<Call, Double> failureRate = new EnumMap<>(Call.class);
+    private final Map<Call, Integer> forcedFailures = new EnumMap<>(Call.class);
+    private final Map<Call, AtomicInteger> callCounts = new EnumMap<>(Call.class);
+    private int refusedOpens = 0;
+    private boolean refusedOpensActuate = false;
+    private final Random random;
+
+    // -------------------- device state (guarded by this) --------------------
+    private boolean cashBoxOpen = false;
+    private boolean vidAllowListEnabled = false;
+    private final List<String> vidAllowList = new ArrayList<>();
+    private boolean touchEnabled = true;
+    private int rebootCount = 0;
+
+    public SimulatedDeviceBackend() {
+        this(new Random());
+    }
+
+    /**
+     * @param random source for failure-rate decisions (pass a seeded Random for repeatable runs)
+     */
+    public SimulatedDeviceBackend(Random random) {
+        this.random = random;
+        for (Call c : Call.values()) {
+            callCounts.put(c, new AtomicInteger());
+        }
+    }
+
+    // -------------------- configuration --------------------
+
+    /**
+     * Apply the same latency to every call.
+     */
+    public synchronized SimulatedDeviceBackend setLatencyMs(long ms) {
+        for (Call c : Call.values()) {
+            latencyMs.put(c, ms);
+        }
+        return this;
+    }
+
+    public synchronized SimulatedDeviceBackend setLatencyMs(Call call, long ms) {
+        latencyMs.put(call, ms);
+        return this;
+    }
+
+    /**
+     * @param rate probability in [0, 1] that {@code call} throws
+     */
+    public synchronized SimulatedDeviceBackend setFailureRate(Call call, double rate) {
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("rate must be in [0, 1]: " + rate);
+        }
+        failureRate.put(call, rate);
+        return this;
+    }
+
+    /**
+     * Make the next {@code count} invocations of {@code call} throw.
+     */
+    public synchronized SimulatedDeviceBackend failNext(Call call, int count) {
+        forcedFailures.put(call, count);
+        return this;
+    }
+
+    /**
+     * Make the next {@code count} drawer opens return false, as the SDK does for errors it
+     * catches itself.
+     *
+     * @param actuate whether the drawer opens anyway (the error came after it fired)
+     */
+    public synchronized SimulatedDeviceBackend refuseNextOpens(int count, boolean actuate) {
+        refusedOpens = count;
+        refusedOpensActuate = actuate;
+        return this;
+    }
+
+    // -------------------- inspection --------------------
+
+    public int getCallCount(Call call) {
+        return callCounts.get(call).get();
+    }
+
+    public synchronized int getRebootCount() {
+        return rebootCount;
+    }
+
+    /**
+     * Simulate the cashier closing the drawer.
+     */
+    public synchronized void closeCashBox() {
+        cashBoxOpen = false;
+    }
+
+    // -------------------- DeviceBackend --------------------
+
+    @Override
+    public boolean openCashBox() {
+        enter(Call.OPEN_CASH_BOX);
+        synchronized (this) {
+            if (refusedOpens > 0) {
+                refusedOpens--;
+                if (refusedOpensActuate) cashBoxOpen = true;
+                return false;
+            }
+            cashBoxOpen = true;
+            return true;
+        }
+    }
+
+    @Override
+    public boolean getCashBoxStatus() {
+        enter(Call.GET_CASH_BOX_STATUS);
+        synchronized (this) {
+            return cashBoxOpen;
+        }
+    }
+
+    @Override
+    public boolean isVidAllowListEnabled() {
+        enter(Call.IS_VID_ALLOW_LIST_ENABLED);
+        synchronized (this) {
+            return vidAllowListEnabled;
+        }
+    }
+
+    @Override
+    public boolean setVidAllowListEnabled(boolean isEnabled) {
+        enter(Call.SET_VID_ALLOW_LIST_ENABLED);
+        synchronized (this) {
+            vidAllowListEnabled = isEnabled;
+            return true;
+        }
+    }
+
+    @Override
+    public String[] getVidAllowList() {
+        enter(Call.GET_VID_ALLOW_LIST);
+        synchronized (this) {
+            return vidAllowList.toArray(new String[0]);
+        }
+    }
+
+    @Override
+    public boolean setVidAllowList(String[] vids) {
+        enter(Call.SET_VID_ALLOW_LIST);
+        synchronized (this) {
+            vidAllowList.clear();
+            vidAllowList.addAll(Arrays.asList(vids));
+            return true;
+        }
+    }
+
+    @Override
+    public boolean clearVidAllowList() {
+        enter(Call.CLEAR_VID_ALLOW_LIST);
+        synchronized (this) {
+            vidAllowList.clear();
+            return true;
+        }
+    }
+
+    @Override
+    public boolean is2ndDisplayTouchEnabled() {
+        enter(Call.IS_2ND_DISPLAY_TOUCH_ENABLED);
+        synchronized (this) {
+            return touchEnabled;
+        }
+    }
+
+    @Override
+    public boolean set2ndDisplayTouchEnabled(boolean isEnabled) {
+        enter(Call.SET_2ND_DISPLAY_TOUCH_ENABLED);
+        synchronized (this) {
+            touchEnabled = isEnabled;
+            return true;
+        }
+    }
+
+    @Override
+    public void reboot(boolean confirm, String reason, boolean wait) {
+        enter(Call.REBOOT);
+        synchronized (this) {
+            rebootCount++;
+        }
+    }
+
+    // -------------------- helpers --------------------
+
+    /**
+     * Count the call, sleep for its latency and throw if a failure is injected.
+     */
+    private void enter(Call call) {
+        callCounts.get(call).incrementAndGet();
+
+        long sleepMs;
+        boolean fail;
+        synchronized (this) {
+            Long l = latencyMs.get(call);
+            sleepMs = l != null ? l : 0L;
+
+            Integer forced = forcedFailures.get(call);
+            if (forced != null && forced > 0) {
+                forcedFailures.put(call, forced - 1);
+                fail = true;
+            } else {
+                Double rate = failureRate.get(call);
+                fail = rate != null && rate > 0 && random.nextDouble() < rate;
+            }
+        }
+
+        if (sleepMs > 0) {
+            try {
+                Thread.sleep(sleepMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (fail) {
+            throw new SimulatedFailureException(call);
+        }
+    }
+}
@@ -0,0 +1,391 @@
+package ex.dev.sample.pos.control.data;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * ApiDataSource against {@link SimulatedDeviceBackend} (runs on the host JVM).
+ */
+public class ApiDataSourceTest {
+
+    private ExecutorService worker;
+    private ExecutorService callbacks;
+    private SimulatedDeviceBackend backend;
+    private CallMetrics metrics;
+    private CallTrace trace;
+    private ApiDataSource dataSource;
+
+    @Before
+    public void setUp() {
+        worker = Executors.newSingleThreadExecutor();
+        callbacks = Executors.newSingleThreadExecutor();
+        backend = new SimulatedDeviceBackend();
+        metrics = new CallMetrics();
+        trace = new CallTrace(4);
+        dataSource = new ApiDataSource(backend, new SdkExecutor(worker, callbacks), metrics, trace);
+    }
+
+    @After
+    public void tearDown() {
+        worker.shutdownNow();
+        callbacks.shutdownNow();
+    }
+
+    @Test
+    public void syncCalls_updateSimulatedState() {
+        assertFalse(dataSource.isOpenedCashDrawer());
+        assertTrue(dataSource.openCashDrawer());
+        assertTrue(dataSource.isOpenedCashDrawer());
+
+        dataSource.setAllowList(new String[]{"046D", "0x18D1"});
+        assertArrayEquals(new String[]{"046D", "0x18D1"}, dataSource.getAllowList());
+        dataSource.clearAllowList();
+        assertEquals(0, dataSource.getAllowList().length);
+
+        dataSource.reboot();
+        assertEquals(1, backend.getRebootCount());
+    }
+
+    @Test
+    public void asyncCall_doesNotBlockCaller() throws Exception {
+        backend.setLatencyMs(SimulatedDeviceBackend.Call.GET_CASH_BOX_STATUS, 300);
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<Boolean> result = new AtomicReference<>();
+
+        long start = System.nanoTime();
+        dataSource.isOpenedCashDrawerAsync(new ApiDataSource.Callback<Boolean>() {
+            @Override
+            public void onSuccess(Boolean r) {
+                result.set(r);
+                done.countDown();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                done.countDown();
+            }
+        });
+        long submitMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue("submit blocked for " + submitMs + " ms", submitMs < 100);
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertEquals(Boolean.FALSE, result.get());
+    }
+
+    @Test
+    public void asyncCall_injectedFailureGoesToOnError() throws Exception {
+        backend.failNext(SimulatedDeviceBackend.Call.OPEN_CASH_BOX, 1);
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+
+        dataSource.openCashDrawerAsync(new ApiDataSource.Callback<Boolean>() {
+            @Override
+            public void onSuccess(Boolean r) {
+                done.countDown();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                error.set(t);
+                done.countDown();
+            }
+        });
+
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertTrue(error.get() instanceof SimulatedDeviceBackend.SimulatedFailureException);
+        assertFalse(dataSource.isOpenedCashDrawer());
+    }
+
+    @Test
+    public void commit_appliesAllStagedChangesWithOneReboot() {
+        VidAllowListTransaction tx = new VidAllowListTransaction()
+                .setEnabled(true)
+                .setList(new String[]{"046D"})
+                .clearList()
+                .setList(new String[]{"18D1", "1A86"});
+
+        assertTrue(dataSource.commit(tx));
+        assertTrue(dataSource.isVidAllowListEnabled());
+        assertArrayEquals(new String[]{"18D1", "1A86"}, dataSource.getAllowList());
+        assertEquals(1, backend.getRebootCount());
+        assertEquals(1, backend.getCallCount(SimulatedDeviceBackend.Call.SET_VID_ALLOW_LIST));
+        assertEquals(0, backend.getCallCount(SimulatedDeviceBackend.Call.CLEAR_VID_ALLOW_LIST));
+
+        assertFalse(dataSource.commit(new VidAllowListTransaction()));
+        assertEquals(1, backend.getRebootCount());
+    }
+
+    @Test
+    public void metrics_countSuccessesFailuresAndLatency() {
+        backend.setLatencyMs(SimulatedDeviceBackend.Call.GET_CASH_BOX_STATUS, 20);
+        dataSource.isOpenedCashDrawer(true);
+        dataSource.isOpenedCashDrawer(true);
+        backend.failNext(SimulatedDeviceBackend.Call.OPEN_CASH_BOX, 1);
+        assertThrows(SimulatedDeviceBackend.SimulatedFailureException.class, dataSource::openCashDrawer);
+
+        CallMetrics.OpSnapshot status = metrics.snapshot(CallMetrics.Op.GET_CASH_BOX_STATUS);
+        assertEquals(2, status.successes);
+        assertEquals(0, status.failures);
+        assertEquals(0, status.inFlight);
+        assertEquals(2, status.latency.count);
+        assertTrue("p50 " + status.latency.p50Us, status.latency.p50Us >= 15_000);
+
+        CallMetrics.OpSnapshot open = metrics.snapshot(CallMetrics.Op.OPEN_CASH_BOX);
+        assertEquals(0, open.successes);
+        assertEquals(1, open.failures);
+        assertEquals(0, open.inFlight);
+
+        metrics.reset();
+        assertEquals(0, metrics.snapshot(CallMetrics.Op.GET_CASH_BOX_STATUS).latency.count);
+    }
+
+    @Test
+    public void trace_keepsLastCallsAndFormatsOnDump() {
+        dataSource.setAllowList(new String[]{"046D", "18D1"});
+        dataSource.getAllowList();
+        backend.failNext(SimulatedDeviceBackend.Call.OPEN_CASH_BOX, 1);
+        assertThrows(SimulatedDeviceBackend.SimulatedFailureException.class, dataSource::openCashDrawer);
+        dataSource.isOpenedCashDrawer();
+        dataSource.reboot();
+
+        assertEquals(4, trace.size());
+        assertEquals(5, trace.totalRecorded());
+        String dump = trace.dump();
+        assertFalse(dump, dump.contains("setVidAllowList "));
+        assertTrue(dump, dump.contains("getVidAllowList"));
+        assertTrue(dump, dump.contains("[046D, 18D1]"));
+        assertTrue(dump, dump.contains("FAIL"));
+        assertTrue(dump, dump.indexOf("getVidAllowList") < dump.indexOf("reboot"));
+
+        trace.clear();
+        assertEquals(0, trace.size());
+    }
+
+    @Test
+    public void cache_servesReadsUntilMatchingSetterInvalidates() {
+        dataSource.setAllowList(new String[]{"046D"});
+        String[] first = dataSource.getAllowList();
+        first[0] = "FFFF";  // callers get copies
+        assertArrayEquals(new String[]{"046D"}, dataSource.getAllowList());
+        assertEquals(1, backend.getCallCount(SimulatedDeviceBackend.Call.GET_VID_ALLOW_LIST));
+
+        dataSource.clearAllowList();
+        assertEquals(0, dataSource.getAllowList().length);
+        assertEquals(2, backend.getCallCount(SimulatedDeviceBackend.Call.GET_VID_ALLOW_LIST));
+
+        dataSource.isOpenedCashDrawer();
+        dataSource.isOpenedCashDrawer();
+        assertEquals(1, backend.getCallCount(SimulatedDeviceBackend.Call.GET_CASH_BOX_STATUS));
+        dataSource.openCashDrawer();
+        assertTrue(dataSource.isOpenedCashDrawer());
+        assertTrue(dataSource.isOpenedCashDrawer(true));
+        assertEquals(3, backend.getCallCount(SimulatedDeviceBackend.Call.GET_CASH_BOX_STATUS));
+    }
+
+    @Test
+    public void asyncCacheHit_skipsSdkThread() throws Exception {
+        dataSource.is2ndDisplayTouchEnabled();   // fills the cache
+        backend.setLatencyMs(SimulatedDeviceBackend.Call.SET_2ND_DISPLAY_TOUCH_ENABLED, 500);
+        dataSource.set2ndMonitorTouchEnabledAsync(true, null);  // keeps the SDK thread busy
+
+        CountDownLatch done = new CountDownLatch(1);
+        dataSource.is2ndDisplayTouchEnabledAsync(new ApiDataSource.Callback<Boolean>() {
+            @Override
+            public void onSuccess(Boolean r) {
+                done.countDown();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+        });
+        assertTrue(done.await(200, TimeUnit.MILLISECONDS));
+        assertEquals(1, backend.getCallCount(SimulatedDeviceBackend.Call.IS_2ND_DISPLAY_TOUCH_ENABLED));
+    }
+
+    @Test
+    public void concurrentForcedReads_shareOneSdkCall() throws Exception {
+        backend.setLatencyMs(SimulatedDeviceBackend.Call.GET_VID_ALLOW_LIST, 200);
+        dataSource.setAllowList(new String[]{"046D"});
+        CountDownLatch done = new CountDownLatch(2);
+        AtomicReference<String[]> first = new AtomicReference<>();
+        AtomicReference<String[]> second = new AtomicReference<>();
+        for (AtomicReference<String[]> ref : java.util.Arrays.asList(first, second)) {
+            dataSource.getAllowListAsync(true, new ApiDataSource.Callback<String[]>() {
+                @Override
+                public void onSuccess(String[] r) {
+                    ref.set(r);
+                    done.countDown();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                }
+            });
+        }
+
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertEquals(1, backend.getCallCount(SimulatedDeviceBackend.Call.GET_VID_ALLOW_LIST));
+        assertArrayEquals(first.get(), second.get());
+        assertNotSame(first.get(), second.get());
+    }
+
+    @Test
+    public void lastKnownState_followsWritesWithoutSdkReads() {
+        DeviceStateStore store = dataSource.getCache().lastKnown();
+        List<Boolean> notified = new ArrayList<>();
+        store.addListener((snapshot, allowListChanged) -> notified.add(allowListChanged));
+        assertFalse(store.get().hasAllowList());
+
+        dataSource.setAllowList(new String[]{"046D", "0x18d1"});
+        assertEquals(0, store.get().indexOf("0x046D"));
+        assertEquals(1, store.get().indexOf("18D1"));
+        dataSource.set2ndMonitorTouchEnabled(false);
+        assertEquals(Boolean.FALSE, store.get().touchEnabled);
+        dataSource.getAllowList();      // same list: no change
+        dataSource.clearAllowList();
+        assertEquals(0, store.get().allowListSize());
+
+        assertEquals(1, backend.getCallCount(SimulatedDeviceBackend.Call.GET_VID_ALLOW_LIST));
+        assertEquals(Arrays.asList(true, false, true), notified);
+    }
+
+    @Test
+    public void verifiedTouchWrite_readsBackFromDevice() {
+        dataSource.is2ndDisplayTouchEnabled();   // cached
+        assertTrue(dataSource.set2ndMonitorTouchEnabledVerified(true));
+        assertFalse(dataSource.set2ndMonitorTouchEnabledVerified(false));
+        assertEquals(3, backend.getCallCount(SimulatedDeviceBackend.Call.IS_2ND_DISPLAY_TOUCH_ENABLED));
+        assertEquals(Boolean.FALSE, dataSource.getCache().lastKnown().get().touchEnabled);
+    }
+
+    @Test
+    public void snapshot_gathersAllFieldsAndReportsFailuresPerField() throws Exception {
+        dataSource.setAllowList(new String[]{"046D"});
+        dataSource.is2ndDisplayTouchEnabled();   // cached
+        dataSource.setRetryPolicy(RetryPolicy.NONE);
+        backend.failNext(SimulatedDeviceBackend.Call.GET_CASH_BOX_STATUS, 1);
+
+        DeviceSnapshot snapshot = dataSource.snapshotAsync(false, null).get(5, TimeUnit.SECONDS);
+        assertFalse(snapshot.isComplete());
+        assertTrue(snapshot.cashDrawerOpen.error instanceof SimulatedDeviceBackend.SimulatedFailureException);
+        assertNull(snapshot.cashDrawerOpen.value);
+        assertEquals(Arrays.asList("046D"), snapshot.vidAllowList.value);
+        assertNotNull(snapshot.vidAllowListEnabled.value);
+        assertTrue(snapshot.touchEnabled.cached);
+        assertFalse(snapshot.vidAllowList.cached);
+        assertTrue(snapshot.totalUs >= snapshot.vidAllowList.elapsedUs);
+
+        snapshot = dataSource.snapshotAsync(true, null).get(5, TimeUnit.SECONDS);
+        assertTrue(snapshot.isComplete());
+        assertFalse(snapshot.touchEnabled.cached);
+        assertEquals(2, backend.getCallCount(SimulatedDeviceBackend.Call.IS_2ND_DISPLAY_TOUCH_ENABLED));
+    }
+
+    /**
+     * Retries the simulated failures, which stand in for the SDK's transient binder failures.
+     */
+    private static RetryPolicy retrySimulatedFailures(long baseDelayMs, long maxDelayMs) {
+        return new RetryPolicy(3, baseDelayMs, maxDelayMs,
+                t -> t instanceof SimulatedDeviceBackend.SimulatedFailureException);
+    }
+
+    @Test
+    public void transientReadFailure_isRetriedAndCounted() {
+        dataSource.setRetryPolicy(retrySimulatedFailures(1L, 2L));
+        backend.failNext(SimulatedDeviceBackend.Call.GET_CASH_BOX_STATUS, 1);
+
+        assertFalse(dataSource.isOpenedCashDrawer(true));
+        assertEquals(2, backend.getCallCount(SimulatedDeviceBackend.Call.GET_CASH_BOX_STATUS));
+        CallMetrics.OpSnapshot s = metrics.snapshot(CallMetrics.Op.GET_CASH_BOX_STATUS);
+        assertEquals(1, s.failures);
+        assertEquals(1, s.successes);
+        assertEquals(1, s.retries);
+        assertEquals(2.0, s.attemptsPerSuccess, 0.0);
+
+        backend.failNext(SimulatedDeviceBackend.Call.GET_CASH_BOX_STATUS, 3);
+        assertThrows(SimulatedDeviceBackend.SimulatedFailureException.class, () -> dataSource.isOpenedCashDrawer(true));
+        assertEquals(5, backend.getCallCount(SimulatedDeviceBackend.Call.GET_CASH_BOX_STATUS));
+    }
+
+    @Test
+    public void asyncRetry_doesNotHoldTheSdkThread() throws Exception {
+        dataSource.setRetryPolicy(retrySimulatedFailures(200L, 200L));
+        backend.failNext(SimulatedDeviceBackend.Call.GET_CASH_BOX_STATUS, 1);
+
+        Future<Boolean> drawer = dataSource.isOpenedCashDrawerAsync(true, null);
+        Future<Boolean> touch = dataSource.is2ndDisplayTouchEnabledAsync(true, null);
+        // The touch read runs while the drawer read backs off
+        assertNotNull(touch.get(5, TimeUnit.SECONDS));
+        assertFalse(drawer.isDone());
+
+        assertFalse(drawer.get(5, TimeUnit.SECONDS));
+        assertEquals(2, backend.getCallCount(SimulatedDeviceBackend.Call.GET_CASH_BOX_STATUS));
+        assertEquals(1, metrics.snapshot(CallMetrics.Op.GET_CASH_BOX_STATUS).retries);
+        assertEquals(1, dataSource.getCache().flights().loadCount(DeviceStateCache.Key.CASH_BOX_STATUS));
+
+        backend.failNext(SimulatedDeviceBackend.Call.SET_2ND_DISPLAY_TOUCH_ENABLED, 1);
+        dataSource.set2ndMonitorTouchEnabledAsync(true, null).get(5, TimeUnit.SECONDS);
+        assertEquals(2, backend.getCallCount(SimulatedDeviceBackend.Call.SET_2ND_DISPLAY_TOUCH_ENABLED));
+        assertEquals(1, metrics.snapshot(CallMetrics.Op.SET_2ND_DISPLAY_TOUCH_ENABLED).retries);
+    }
+
+    @Test
+    public void verifiedWrite_retriesOnlyTheFailedReadBack() throws Exception {
+        dataSource.setRetryPolicy(retrySimulatedFailures(1L, 2L));
+        backend.failNext(SimulatedDeviceBackend.Call.IS_2ND_DISPLAY_TOUCH_ENABLED, 1);
+
+        assertTrue(dataSource.set2ndMonitorTouchEnabledVerifiedAsync(true, null).get(5, TimeUnit.SECONDS));
+        assertEquals(1, backend.getCallCount(SimulatedDeviceBackend.Call.SET_2ND_DISPLAY_TOUCH_ENABLED));
+        assertEquals(2, backend.getCallCount(SimulatedDeviceBackend.Call.IS_2ND_DISPLAY_TOUCH_ENABLED));
+        assertEquals(1, metrics.snapshot(CallMetrics.Op.IS_2ND_DISPLAY_TOUCH_ENABLED).retries);
+    }
+
+    @Test
+    public void nonTransientFailure_isNotRetried() {
+        dataSource.setRetryPolicy(new RetryPolicy(3, 1L, 2L));
+        backend.failNext(SimulatedDeviceBackend.Call.GET_CASH_BOX_STATUS, 1);
+
+        assertThrows(SimulatedDeviceBackend.SimulatedFailureException.class, () -> dataSource.isOpenedCashDrawer(true));
+        assertEquals(1, backend.getCallCount(SimulatedDeviceBackend.Call.GET_CASH_BOX_STATUS));
+    }
+
+    @Test
+    public void failedDrawerOpen_isNotRetried() {
+        dataSource.setRetryPolicy(retrySimulatedFailures(1L, 2L));
+        backend.failNext(SimulatedDeviceBackend.Call.OPEN_CASH_BOX, 1);
+
+        assertThrows(SimulatedDeviceBackend.SimulatedFailureException.class, dataSource::openCashDrawer);
+        assertEquals(1, backend.getCallCount(SimulatedDeviceBackend.Call.OPEN_CASH_BOX));
+        assertEquals(0, metrics.snapshot(CallMetrics.Op.OPEN_CASH_BOX).retries);
+    }
+
+    @Test
+    public void refusedDrawerOpen_isNotRetriedIfTheDrawerOpenedAnyway() {
+        dataSource.setRetryPolicy(new RetryPolicy(3, 1L, 2L));
+        backend.refuseNextOpens(1, true);
+
+        assertFalse(dataSource.openCashDrawer());
+        assertEquals(1, backend.getCallCount(SimulatedDeviceBackend.Call.OPEN_CASH_BOX));
+        assertEquals(1, backend.getCallCount(SimulatedDeviceBackend.Call.GET_CASH_BOX_STATUS));
+
+        backend.closeCashBox();
+        backend.refuseNextOpens(1, false);
+        assertTrue(dataSource.openCashDrawer());
+        assertEquals(3, backend.getCallCount(SimulatedDeviceBackend.Call.OPEN_CASH_BOX));
+        assertEquals(1, metrics.snapshot(CallMetrics.Op.OPEN_CASH_BOX).retries);
+    }
+}
@@ -0,0 +1,136 @@
+package ex.dev.sample.pos.control.data;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class CashDrawerCommandQueueTest {
+
+    private static final long WINDOW_MS = 1_000;
+
+    private ExecutorService worker;
+    private ExecutorService callbacks;
+    private SimulatedDeviceBackend backend;
+    private ApiDataSource dataSource;
+    private final AtomicLong now = new AtomicLong(0);
+    private CashDrawerCommandQueue queue;
+
+    @Before
+    public void setUp() {
+        worker = Executors.newSingleThreadExecutor();
+        callbacks = Executors.newSingleThreadExecutor();
+        backend = new SimulatedDeviceBackend();
+        dataSource = new ApiDataSource(backend, new SdkExecutor(worker, callbacks),
+                new CallMetrics(), new CallTrace(16));
+        queue = new CashDrawerCommandQueue(dataSource, WINDOW_MS, now::get);
+    }
+
+    @After
+    public void tearDown() {
+        worker.shutdownNow();
+        callbacks.shutdownNow();
+    }
+
+    @Test
+    public void burstOfRequests_opensOnce() throws Exception {
+        backend.setLatencyMs(SimulatedDeviceBackend.Call.OPEN_CASH_BOX, 100);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) futures.add(queue.requestOpen(null));
+        assertEquals(5, queue.getStats().depth);
+
+        for (Future<Boolean> f : futures) assertTrue(f.get(2, TimeUnit.SECONDS));
+        // Inside the window after success: answered without the SDK
+        assertTrue(queue.requestOpen(null).get(1, TimeUnit.SECONDS));
+
+        assertEquals(1, backend.getCallCount(SimulatedDeviceBackend.Call.OPEN_CASH_BOX));
+        CashDrawerCommandQueue.Stats stats = queue.getStats();
+        assertEquals(6, stats.requests);
+        assertEquals(1, stats.actuations);
+        assertEquals(5, stats.collapsed);
+        assertEquals(0, stats.depth);
+        assertEquals(5, stats.timeToActuation.count);
+    }
+
+    @Test
+    public void requestAfterWindow_opensAgain() throws Exception {
+        assertTrue(queue.requestOpen(null).get(1, TimeUnit.SECONDS));
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(WINDOW_MS));
+        assertTrue(queue.requestOpen(null).get(1, TimeUnit.SECONDS));
+        assertEquals(2, backend.getCallCount(SimulatedDeviceBackend.Call.OPEN_CASH_BOX));
+    }
+
+    @Test
+    public void failedOpen_doesNotStartWindow() throws Exception {
+        backend.failNext(SimulatedDeviceBackend.Call.OPEN_CASH_BOX, 1);
+        Future<Boolean> failed = queue.requestOpen(null);
+        try {
+            failed.get(1, TimeUnit.SECONDS);
+            fail("expected failure");
+        } catch (java.util.concurrent.ExecutionException expected) {
+            // injected failure
+        }
+        assertTrue(queue.requestOpen(null).get(1, TimeUnit.SECONDS));
+        assertEquals(2, backend.getCallCount(SimulatedDeviceBackend.Call.OPEN_CASH_BOX));
+    }
+
+    @Test
+    public void refusedOpen_isRetriedOnlyWhileTheDrawerReadsClosed() throws Exception {
+        dataSource.setRetryPolicy(new RetryPolicy(3, 1L, 2L));
+        backend.refuseNextOpens(1, false);
+        assertTrue(queue.requestOpen(null).get(1, TimeUnit.SECONDS));
+        assertEquals(2, backend.getCallCount(SimulatedDeviceBackend.Call.OPEN_CASH_BOX));
+
+        // Refused, but the drawer opened anyway: no second open
+        backend.closeCashBox();
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(WINDOW_MS));
+        backend.refuseNextOpens(1, true);
+        assertFalse(queue.requestOpen(null).get(1, TimeUnit.SECONDS));
+        assertEquals(3, backend.getCallCount(SimulatedDeviceBackend.Call.OPEN_CASH_BOX));
+        assertEquals(2, backend.getCallCount(SimulatedDeviceBackend.Call.GET_CASH_BOX_STATUS));
+    }
+
+    @Test
+    public void requestsJoiningAHungOpen_failFastOnceTheCircuitOpens() throws Exception {
+        SdkCallGuard guard = new SdkCallGuard();
+        guard.setTimeoutMs(CallMetrics.Op.OPEN_CASH_BOX, 50);
+        guard.setFailureThreshold(1);
+        dataSource = new ApiDataSource(backend, new SdkExecutor(worker, callbacks, guard),
+                new CallMetrics(), new CallTrace(16));
+        queue = new CashDrawerCommandQueue(dataSource, WINDOW_MS, now::get);
+        backend.setLatencyMs(SimulatedDeviceBackend.Call.OPEN_CASH_BOX, 500);
+
+        Future<Boolean> hung = queue.requestOpen(null);
+        ExecutionException e = assertThrows(ExecutionException.class, () -> hung.get(2, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof SdkCallGuard.CallTimeoutException);
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (guard.getState() != SdkCallGuard.State.OPEN && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+
+        // The open is still in flight, but the breaker has given up on it
+        e = assertThrows(ExecutionException.class, () -> queue.requestOpen(null).get(100, TimeUnit.MILLISECONDS));
+        assertTrue(e.getCause() instanceof SdkCallGuard.CircuitOpenException);
+        assertEquals(1, queue.getStats().actuations);
+        assertEquals(1, queue.getStats().depth);
+    }
+
+    @Test
+    public void statusReadAfterRequest_seesOpenedDrawer() throws Exception {
+        assertFalse(dataSource.isOpenedCashDrawer());   // cached "closed"
+        backend.setLatencyMs(SimulatedDeviceBackend.Call.OPEN_CASH_BOX, 100);
+        queue.requestOpen(null);
+        Future<Boolean> status = dataSource.isOpenedCashDrawerAsync(null);
+        assertTrue(status.get(2, TimeUnit.SECONDS));
+    }
+}
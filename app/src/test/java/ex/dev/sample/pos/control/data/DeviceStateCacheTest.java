@@ -0,0 +1,52 @@
+package ex.dev.sample.pos.control.data;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class DeviceStateCacheTest {
+
+    private final AtomicLong now = new AtomicLong(0);
+    private final DeviceStateCache cache = new DeviceStateCache(now::get);
+
+    private void advanceMs(long ms) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(ms));
+    }
+
+    @Test
+    public void entryExpiresAfterItsTtl() {
+        DeviceStateCache.Key key = DeviceStateCache.Key.CASH_BOX_STATUS;
+        cache.put(key, Boolean.TRUE, cache.generation(key));
+        advanceMs(key.defaultTtlMs - 1);
+        assertEquals(Boolean.TRUE, cache.get(key));
+        advanceMs(1);
+        assertNull(cache.get(key));
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    public void putAfterInvalidation_isDropped() {
+        DeviceStateCache.Key key = DeviceStateCache.Key.VID_ALLOW_LIST;
+        long generation = cache.generation(key);   // read starts
+        cache.invalidate(key);                      // concurrent write
+        cache.put(key, new String[]{"046D"}, generation);
+        assertNull(cache.get(key));
+
+        cache.put(key, new String[]{"18D1"}, cache.generation(key));
+        assertNotNull(cache.get(key));
+        cache.invalidateAll();
+        assertNull(cache.get(key));
+    }
+
+    @Test
+    public void zeroTtl_disablesCaching() {
+        DeviceStateCache.Key key = DeviceStateCache.Key.TOUCH_ENABLED;
+        cache.setTtlMs(key, 0);
+        cache.put(key, Boolean.FALSE, cache.generation(key));
+        assertNull(cache.get(key));
+    }
+}
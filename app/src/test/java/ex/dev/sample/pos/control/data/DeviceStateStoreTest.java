@@ -0,0 +1,99 @@
+package ex.dev.sample.pos.control.data;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class DeviceStateStoreTest {
+
+    private final DeviceStateCache cache = new DeviceStateCache();
+    private final DeviceStateStore store = cache.lastKnown();
+
+    @Test
+    public void lookup_acceptsAnyVidForm() {
+        cache.written(DeviceStateCache.Key.VID_ALLOW_LIST, new String[]{"046D", "18D1", "bad"});
+        DeviceStateStore.Snapshot snapshot = store.get();
+        assertEquals(3, snapshot.allowListSize());
+        assertEquals(0, snapshot.indexOf("0x046d"));
+        assertEquals(1, snapshot.indexOf("18d1"));
+        assertEquals(-1, snapshot.indexOf("1234"));
+        assertEquals(-1, snapshot.indexOf(null));
+        assertEquals("bad", snapshot.vidAt(2));
+        assertEquals(0x18D1, snapshot.valueAt(1));
+    }
+
+    @Test
+    public void staleRead_doesNotOverwriteWrite() {
+        DeviceStateCache.Key key = DeviceStateCache.Key.TOUCH_ENABLED;
+        long generation = cache.generation(key);    // read starts
+        cache.written(key, Boolean.TRUE);            // concurrent write
+        cache.put(key, Boolean.FALSE, generation);   // read returns the old state
+        assertEquals(Boolean.TRUE, store.get().touchEnabled);
+    }
+
+    @Test
+    public void outOfOrderUpdate_isDropped() {
+        DeviceStateCache.Key key = DeviceStateCache.Key.TOUCH_ENABLED;
+        store.update(key, Boolean.TRUE, 2);
+        store.update(key, Boolean.FALSE, 1);   // accepted earlier, arrived late
+        assertEquals(Boolean.TRUE, store.get().touchEnabled);
+    }
+
+    @Test
+    public void listeners_runWithoutTheCacheLock() {
+        AtomicInteger locked = new AtomicInteger();
+        store.addListener((snapshot, listChanged) -> {
+            if (Thread.holdsLock(cache) || Thread.holdsLock(store)) locked.incrementAndGet();
+        });
+        cache.written(DeviceStateCache.Key.VID_ALLOW_LIST, new String[]{"046D"});
+        cache.put(DeviceStateCache.Key.TOUCH_ENABLED, Boolean.TRUE,
+                cache.generation(DeviceStateCache.Key.TOUCH_ENABLED));
+        assertEquals(0, locked.get());
+    }
+
+    @Test
+    public void lastKnown_survivesExpiryAndZeroTtl() {
+        DeviceStateCache.Key key = DeviceStateCache.Key.VID_ALLOW_LIST_ENABLED;
+        cache.setTtlMs(key, 0);
+        cache.put(key, Boolean.TRUE, cache.generation(key));
+        assertNull(cache.get(key));
+        assertEquals(Boolean.TRUE, store.get().allowListEnabled);
+        cache.invalidateAll();
+        assertEquals(Boolean.TRUE, store.get().allowListEnabled);
+    }
+
+    @Test
+    public void listeners_onlyNotifiedOnChange() {
+        AtomicInteger changes = new AtomicInteger();
+        DeviceStateStore.Listener listener = (snapshot, listChanged) -> changes.incrementAndGet();
+        store.addListener(listener);
+
+        cache.written(DeviceStateCache.Key.VID_ALLOW_LIST, new String[]{"046D"});
+        cache.put(DeviceStateCache.Key.VID_ALLOW_LIST, new String[]{"046D"},
+                cache.generation(DeviceStateCache.Key.VID_ALLOW_LIST));
+        cache.written(DeviceStateCache.Key.CASH_BOX_STATUS, Boolean.TRUE);
+        assertEquals(1, changes.get());
+
+        store.removeListener(listener);
+        cache.written(DeviceStateCache.Key.VID_ALLOW_LIST, new String[0]);
+        assertEquals(1, changes.get());
+        assertTrue(store.get().hasAllowList());
+    }
+
+    @Test
+    public void listWithDuplicates_isNotReportedAsChangedOnEveryRead() {
+        AtomicInteger changes = new AtomicInteger();
+        store.addListener((snapshot, listChanged) -> changes.incrementAndGet());
+        DeviceStateCache.Key key = DeviceStateCache.Key.VID_ALLOW_LIST;
+
+        cache.put(key, new String[]{"046D", "0x046D", "18D1"}, cache.generation(key));
+        cache.put(key, new String[]{"046D", "0x046D", "18D1"}, cache.generation(key));
+        assertEquals(1, changes.get());
+        assertEquals(2, store.get().allowListSize());
+
+        cache.put(key, new String[]{"046D", "18D1"}, cache.generation(key));
+        assertEquals(2, changes.get());
+    }
+}
@@ -0,0 +1,119 @@
+package ex.dev.sample.pos.control.data;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class DeviceWarmUpTest {
+
+    private ExecutorService worker;
+    private ExecutorService callbacks;
+    private SimulatedDeviceBackend backend;
+    private ApiDataSource dataSource;
+    private DeviceWarmUp warmUp;
+
+    @Before
+    public void setUp() {
+        worker = Executors.newSingleThreadExecutor();
+        callbacks = Executors.newSingleThreadExecutor();
+        backend = new SimulatedDeviceBackend();
+        dataSource = new ApiDataSource(backend, new SdkExecutor(worker, callbacks), new CallMetrics(),
+                new CallTrace(4));
+        warmUp = new DeviceWarmUp(dataSource);
+    }
+
+    @After
+    public void tearDown() {
+        worker.shutdownNow();
+        callbacks.shutdownNow();
+    }
+
+    @Test
+    public void warmUp_fillsCacheOnce() throws Exception {
+        assertEquals(DeviceWarmUp.State.IDLE, warmUp.getState());
+        warmUp.start();
+        warmUp.start();
+        warmUp.whenReady(null).get(5, TimeUnit.SECONDS);
+        assertTrue(warmUp.isReady());
+
+        dataSource.isVidAllowListEnabled();
+        dataSource.getAllowList();
+        dataSource.is2ndDisplayTouchEnabled();
+        assertEquals(1, backend.getCallCount(SimulatedDeviceBackend.Call.IS_VID_ALLOW_LIST_ENABLED));
+        assertEquals(1, backend.getCallCount(SimulatedDeviceBackend.Call.GET_VID_ALLOW_LIST));
+        assertEquals(1, backend.getCallCount(SimulatedDeviceBackend.Call.IS_2ND_DISPLAY_TOUCH_ENABLED));
+        assertNotNull(dataSource.getCache().lastKnown().get().touchEnabled);
+    }
+
+    @Test
+    public void failure_isReportedAndRetried() throws Exception {
+        dataSource.setRetryPolicy(RetryPolicy.NONE);
+        backend.failNext(SimulatedDeviceBackend.Call.IS_VID_ALLOW_LIST_ENABLED, 1);
+        warmUp = new DeviceWarmUp(dataSource, 200L);
+        try {
+            warmUp.whenReady(null).get(5, TimeUnit.SECONDS);
+            fail("expected warm-up failure");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof SimulatedDeviceBackend.SimulatedFailureException);
+        }
+        assertEquals(DeviceWarmUp.State.FAILED, warmUp.getState());
+        // The other reads still ran
+        assertTrue(dataSource.getCache().lastKnown().get().hasAllowList());
+
+        // Backing off: not restarted yet
+        warmUp.start();
+        assertEquals(DeviceWarmUp.State.FAILED, warmUp.getState());
+
+        // Retried automatically once the backoff elapses
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!warmUp.isReady() && System.currentTimeMillis() < deadline) Thread.sleep(10);
+        assertEquals(DeviceWarmUp.State.READY, warmUp.getState());
+        assertEquals(2, backend.getCallCount(SimulatedDeviceBackend.Call.IS_VID_ALLOW_LIST_ENABLED));
+    }
+
+    @Test
+    public void hungBind_timesOutAndCountsForTheBreaker() throws Exception {
+        SdkCallGuard guard = new SdkCallGuard();
+        guard.setTimeoutMs(CallMetrics.Op.IS_VID_ALLOW_LIST_ENABLED, 50);
+        guard.setFailureThreshold(1);
+        dataSource = new ApiDataSource(backend, new SdkExecutor(worker, callbacks, guard), new CallMetrics(),
+                new CallTrace(4));
+        backend.setLatencyMs(SimulatedDeviceBackend.Call.IS_VID_ALLOW_LIST_ENABLED, 300);
+        warmUp = new DeviceWarmUp(dataSource, 60_000L);
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> warmUp.whenReady(null).get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof SdkCallGuard.CallTimeoutException);
+        assertEquals(1, guard.timeoutCount());
+        assertEquals(1, guard.tripCount());
+
+        // While the circuit is open, a new warm-up fails fast without reaching the SDK
+        guard.onTimeout();
+        assertEquals(SdkCallGuard.State.OPEN, guard.getState());
+        DeviceWarmUp again = new DeviceWarmUp(dataSource, 60_000L);
+        e = assertThrows(ExecutionException.class, () -> again.whenReady(null).get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof SdkCallGuard.CircuitOpenException);
+        assertEquals(1, backend.getCallCount(SimulatedDeviceBackend.Call.IS_VID_ALLOW_LIST_ENABLED));
+    }
+
+    @Test
+    public void whenReady_restartsAfterBackoff() throws Exception {
+        dataSource.setRetryPolicy(RetryPolicy.NONE);
+        backend.failNext(SimulatedDeviceBackend.Call.IS_VID_ALLOW_LIST_ENABLED, 1);
+        warmUp = new DeviceWarmUp(dataSource, 0L);
+        try {
+            warmUp.whenReady(null).get(5, TimeUnit.SECONDS);
+            fail("expected warm-up failure");
+        } catch (ExecutionException expected) {
+        }
+        warmUp.whenReady(null).get(5, TimeUnit.SECONDS);
+        assertTrue(warmUp.isReady());
+    }
+}
@@ -0,0 +1,66 @@
+package ex.dev.sample.pos.control.data;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void buckets_coverValuesWithoutGaps() {
+        long expectedLower = 0;
+        for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+            assertEquals(i, LatencyHistogram.indexOf(expectedLower));
+            long upper = LatencyHistogram.upperBound(i);
+            assertEquals(i, LatencyHistogram.indexOf(upper));
+            expectedLower = upper + 1;
+        }
+    }
+
+    @Test
+    public void snapshot_reportsPercentilesWithinBucketError() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int v = 1; v <= 1000; v++) h.record(v);
+
+        LatencyHistogram.Snapshot s = h.snapshot();
+        assertEquals(1000, s.count);
+        assertEquals(1000, s.maxUs);
+        assertEquals(500, s.meanUs);
+        assertTrue("p50 " + s.p50Us, s.p50Us >= 500 && s.p50Us <= 625);
+        assertTrue("p99 " + s.p99Us, s.p99Us >= 990 && s.p99Us <= 1000);
+    }
+
+    @Test
+    public void emptyAndReset() {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.snapshot().p99Us);
+        h.record(-5);
+        h.record(42);
+        assertEquals(2, h.snapshot().count);
+        h.reset();
+        LatencyHistogram.Snapshot s = h.snapshot();
+        assertEquals(0, s.count);
+        assertEquals(0, s.maxUs);
+    }
+
+    @Test
+    public void concurrentRecording_losesNoSamples() throws Exception {
+        LatencyHistogram h = new LatencyHistogram();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < 10_000; i++) h.record(i % 2000);
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+
+        LatencyHistogram.Snapshot s = h.snapshot();
+        assertEquals(40_000, s.count);
+        assertEquals(1999, s.maxUs);
+    }
+}
@@ -0,0 +1,58 @@
+package ex.dev.sample.pos.control.data;
+
+import android.os.DeadObjectException;
+import android.os.RemoteException;
+import android.os.TransactionTooLargeException;
+
+import org.junit.Test;
+
+import ex.dev.sample.pos.control.data.CallMetrics.Op;
+
+import static org.junit.Assert.*;
+
+public class RetryPolicyTest {
+
+    @Test
+    public void delay_growsExponentiallyWithJitterUpToCap() {
+        RetryPolicy policy = new RetryPolicy(5, 100L, 300L);
+        for (int i = 0; i < 200; i++) {
+            long first = policy.delayMs(1);
+            assertTrue(first >= 50 && first <= 100);
+            long second = policy.delayMs(2);
+            assertTrue(second >= 100 && second <= 200);
+            long capped = policy.delayMs(10);
+            assertTrue(capped >= 150 && capped <= 300);
+        }
+        assertEquals(0, RetryPolicy.NONE.delayMs(3));
+    }
+
+    @Test
+    public void classification_skipsNonIdempotentOpsAndPermanentErrors() {
+        RetryPolicy policy = RetryPolicy.DEFAULT;
+        RuntimeException sdkFailure = new RuntimeException(new DeadObjectException());
+        assertTrue(policy.isRetryable(Op.GET_CASH_BOX_STATUS, sdkFailure));
+        assertTrue(policy.isRetryable(Op.SET_VID_ALLOW_LIST, sdkFailure));
+        assertFalse(policy.isRetryable(Op.OPEN_CASH_BOX, sdkFailure));
+        assertFalse(policy.isRetryable(Op.REBOOT, sdkFailure));
+
+        assertTrue(policy.isRetryable(Op.GET_CASH_BOX_STATUS, new IllegalStateException(new RemoteException("busy"))));
+        // App bugs and oversized transactions fail the same way every time
+        assertFalse(policy.isRetryable(Op.GET_CASH_BOX_STATUS, new NullPointerException()));
+        assertFalse(policy.isRetryable(Op.GET_CASH_BOX_STATUS, new IllegalStateException("binder died")));
+        assertFalse(policy.isRetryable(Op.GET_CASH_BOX_STATUS,
+                new RuntimeException(new TransactionTooLargeException())));
+        assertFalse(policy.isRetryable(Op.GET_CASH_BOX_STATUS, new IllegalArgumentException()));
+        assertFalse(policy.isRetryable(Op.GET_CASH_BOX_STATUS, new SecurityException()));
+        assertFalse(policy.isRetryable(Op.GET_CASH_BOX_STATUS,
+                new SdkCallGuard.CircuitOpenException(Op.GET_CASH_BOX_STATUS, 100L)));
+
+        assertTrue(policy.isRetryableResult(Op.OPEN_CASH_BOX));
+        assertFalse(policy.isRetryableResult(Op.GET_CASH_BOX_STATUS));
+    }
+
+    @Test
+    public void invalidSettings_areRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new RetryPolicy(0, 10L, 10L));
+        assertThrows(IllegalArgumentException.class, () -> new RetryPolicy(2, 20L, 10L));
+    }
+}
@@ -0,0 +1,194 @@
+package ex.dev.sample.pos.control.data;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import ex.dev.sample.pos.control.data.CallMetrics.Op;
+
+import static org.junit.Assert.*;
+
+public class SdkCallGuardTest {
+
+    private final AtomicLong now = new AtomicLong(0);
+    private final SdkCallGuard guard = new SdkCallGuard(now::get);
+
+    private ExecutorService worker;
+    private ExecutorService callbacks;
+
+    @After
+    public void tearDown() {
+        if (worker != null) worker.shutdownNow();
+        if (callbacks != null) callbacks.shutdownNow();
+    }
+
+    private void advanceMs(long ms) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(ms));
+    }
+
+    @Test
+    public void opensAfterConsecutiveTimeouts_thenProbes() {
+        guard.onTimeout();
+        guard.onTimeout();
+        guard.onCompleted();    // SDK answered: streak resets
+        for (int i = 0; i < SdkCallGuard.DEFAULT_FAILURE_THRESHOLD; i++) guard.onTimeout();
+        assertEquals(SdkCallGuard.State.OPEN, guard.getState());
+        assertThrows(SdkCallGuard.CircuitOpenException.class, () -> guard.acquire(Op.OPEN_CASH_BOX));
+
+        advanceMs(SdkCallGuard.DEFAULT_OPEN_MS);
+        guard.acquire(Op.GET_CASH_BOX_STATUS);  // the probe
+        assertEquals(SdkCallGuard.State.HALF_OPEN, guard.getState());
+        assertThrows(SdkCallGuard.CircuitOpenException.class, () -> guard.acquire(Op.GET_CASH_BOX_STATUS));
+
+        guard.onTimeout();      // probe timed out
+        assertEquals(SdkCallGuard.State.OPEN, guard.getState());
+        advanceMs(SdkCallGuard.DEFAULT_OPEN_MS);
+        guard.acquire(null);
+        guard.onCompleted();
+        assertEquals(SdkCallGuard.State.CLOSED, guard.getState());
+        assertEquals(2, guard.tripCount());
+        assertEquals(2, guard.rejectedCount());
+    }
+
+    @Test
+    public void hungCall_timesOutThenFailsFastUntilRecovered() throws Exception {
+        worker = Executors.newSingleThreadExecutor();
+        callbacks = Executors.newSingleThreadExecutor();
+        SimulatedDeviceBackend backend = new SimulatedDeviceBackend();
+        SdkCallGuard realGuard = new SdkCallGuard();
+        realGuard.setTimeoutMs(Op.GET_CASH_BOX_STATUS, 50);
+        realGuard.setFailureThreshold(1);
+        realGuard.setOpenMs(300);
+        ApiDataSource dataSource = new ApiDataSource(backend, new SdkExecutor(worker, callbacks, realGuard),
+                new CallMetrics(), new CallTrace(4));
+
+        backend.setLatencyMs(SimulatedDeviceBackend.Call.GET_CASH_BOX_STATUS, 200);
+        Future<Boolean> hung = dataSource.isOpenedCashDrawerAsync(true, null);
+        ExecutionException e = assertThrows(ExecutionException.class, () -> hung.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof SdkCallGuard.CallTimeoutException);
+        // The timeout is reported to the guard right after the caller sees it
+        awaitState(realGuard, SdkCallGuard.State.OPEN);
+
+        e = assertThrows(ExecutionException.class, () -> dataSource.openCashDrawerAsync(null).get());
+        assertTrue(e.getCause() instanceof SdkCallGuard.CircuitOpenException);
+        assertEquals(0, backend.getCallCount(SimulatedDeviceBackend.Call.OPEN_CASH_BOX));
+
+        // The hung call finishes: the SDK answered, so the circuit closes
+        backend.setLatencyMs(SimulatedDeviceBackend.Call.GET_CASH_BOX_STATUS, 0);
+        awaitState(realGuard, SdkCallGuard.State.CLOSED);
+        assertNotNull(dataSource.isOpenedCashDrawerAsync(true, null).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void readsQueuedBehindSlowWork_getTheirFullDeadline() throws Exception {
+        worker = Executors.newSingleThreadExecutor();
+        callbacks = Executors.newSingleThreadExecutor();
+        SimulatedDeviceBackend backend = new SimulatedDeviceBackend();
+        SdkCallGuard realGuard = new SdkCallGuard();
+        for (Op op : Op.values()) realGuard.setTimeoutMs(op, 100);
+        SdkExecutor executor = new SdkExecutor(worker, callbacks, realGuard);
+        ApiDataSource dataSource = new ApiDataSource(backend, executor, new CallMetrics(), new CallTrace(4));
+
+        // Healthy but slow work (e.g. a commit) holds the SDK thread past the reads' deadline
+        Future<Boolean> slow = executor.submit(() -> {
+            Thread.sleep(300);
+            return true;
+        }, null);
+        Future<Boolean> drawer = dataSource.isOpenedCashDrawerAsync(true, null);
+        Future<Boolean> enabled = dataSource.isVidAllowListEnabledAsync(true, null);
+        Future<Boolean> touch = executor.submit(backend::is2ndDisplayTouchEnabled,
+                Op.IS_2ND_DISPLAY_TOUCH_ENABLED, null);
+
+        assertTrue(slow.get(5, TimeUnit.SECONDS));
+        assertNotNull(drawer.get(5, TimeUnit.SECONDS));
+        assertNotNull(enabled.get(5, TimeUnit.SECONDS));
+        assertNotNull(touch.get(5, TimeUnit.SECONDS));
+        assertEquals(SdkCallGuard.State.CLOSED, realGuard.getState());
+        assertEquals(0, realGuard.timeoutCount());
+    }
+
+    @Test
+    public void hungSharedRead_countsOneTimeoutForAllItsCallers() throws Exception {
+        worker = Executors.newSingleThreadExecutor();
+        callbacks = Executors.newSingleThreadExecutor();
+        SimulatedDeviceBackend backend = new SimulatedDeviceBackend();
+        SdkCallGuard realGuard = new SdkCallGuard();
+        realGuard.setTimeoutMs(Op.GET_VID_ALLOW_LIST, 50);
+        ApiDataSource dataSource = new ApiDataSource(backend, new SdkExecutor(worker, callbacks, realGuard),
+                new CallMetrics(), new CallTrace(4));
+
+        backend.setLatencyMs(SimulatedDeviceBackend.Call.GET_VID_ALLOW_LIST, 300);
+        List<Future<String[]>> callers = new ArrayList<>();
+        for (int i = 0; i < SdkCallGuard.DEFAULT_FAILURE_THRESHOLD; i++) {
+            callers.add(dataSource.getAllowListAsync(true, null));
+        }
+        for (Future<String[]> caller : callers) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> caller.get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof SdkCallGuard.CallTimeoutException);
+        }
+        // One SDK call timed out, not three
+        Thread.sleep(20);
+        assertEquals(1, realGuard.timeoutCount());
+        assertEquals(SdkCallGuard.State.CLOSED, realGuard.getState());
+        assertEquals(1, backend.getCallCount(SimulatedDeviceBackend.Call.GET_VID_ALLOW_LIST));
+    }
+
+    @Test
+    public void queueTimeout_dropsWaitingCallsWithoutTripping() throws Exception {
+        worker = Executors.newSingleThreadExecutor();
+        callbacks = Executors.newSingleThreadExecutor();
+        SimulatedDeviceBackend backend = new SimulatedDeviceBackend();
+        SdkCallGuard realGuard = new SdkCallGuard();
+        realGuard.setQueueTimeoutMs(50);
+        realGuard.setFailureThreshold(1);
+        SdkExecutor executor = new SdkExecutor(worker, callbacks, realGuard);
+        ApiDataSource dataSource = new ApiDataSource(backend, executor, new CallMetrics(), new CallTrace(4));
+
+        Future<Boolean> slow = executor.submit(() -> {
+            Thread.sleep(300);
+            return true;
+        }, null);
+        Future<Boolean> drawer = dataSource.isOpenedCashDrawerAsync(true, null);
+        Future<Boolean> touch = executor.submit(backend::is2ndDisplayTouchEnabled,
+                Op.IS_2ND_DISPLAY_TOUCH_ENABLED, null);
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> drawer.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof SdkCallGuard.QueueTimeoutException);
+        e = assertThrows(ExecutionException.class, () -> touch.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof SdkCallGuard.QueueTimeoutException);
+        assertTrue(slow.get(5, TimeUnit.SECONDS));
+        // The dropped call never reached the SDK
+        assertEquals(0, backend.getCallCount(SimulatedDeviceBackend.Call.IS_2ND_DISPLAY_TOUCH_ENABLED));
+        assertEquals(SdkCallGuard.State.CLOSED, realGuard.getState());
+        assertEquals(2, realGuard.queueTimeoutCount());
+        assertEquals(0, realGuard.timeoutCount());
+    }
+
+    @Test
+    public void queueTimeoutBehindHungCall_countsAsTimeout() {
+        guard.onQueueTimeout();
+        assertEquals(0, guard.timeoutCount());
+        guard.onTimeout();          // the running call passed its deadline
+        guard.onQueueTimeout();
+        guard.onQueueTimeout();
+        assertEquals(SdkCallGuard.State.OPEN, guard.getState());
+        assertEquals(3, guard.queueTimeoutCount());
+        assertEquals(3, guard.timeoutCount());
+    }
+
+    private static void awaitState(SdkCallGuard guard, SdkCallGuard.State state) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (guard.getState() != state && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(state, guard.getState());
+    }
+}
@@ -0,0 +1,145 @@
+package ex.dev.sample.pos.control.data;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SingleFlightTest {
+
+    private ExecutorService worker;
+    private ExecutorService callbacks;
+    private SdkExecutor executor;
+    private final SingleFlight<String> flights = new SingleFlight<>();
+
+    @Before
+    public void setUp() {
+        worker = Executors.newSingleThreadExecutor();
+        callbacks = Executors.newSingleThreadExecutor();
+        executor = new SdkExecutor(worker, callbacks);
+    }
+
+    @After
+    public void tearDown() {
+        worker.shutdownNow();
+        callbacks.shutdownNow();
+    }
+
+    private static <T> ApiDataSource.Callback<T> counting(CountDownLatch latch) {
+        return new ApiDataSource.Callback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                latch.countDown();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+        };
+    }
+
+    @Test
+    public void concurrentSubmits_shareOneLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(3);
+
+        for (int i = 0; i < 3; i++) {
+            flights.submit("status", () -> {
+                loads.incrementAndGet();
+                awaitQuietly(release);
+                return Boolean.TRUE;
+            }, executor, counting(done));
+        }
+        release.countDown();
+
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+        assertEquals(3, flights.requestCount("status"));
+        assertEquals(2, flights.savedCount("status"));
+    }
+
+    @Test
+    public void blockingRun_joinsLoadRunningOnAnotherThread() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> async = flights.submit("list", () -> {
+            started.countDown();
+            awaitQuietly(release);
+            return "shared";
+        }, executor, null);
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        Future<String> joined = other.submit(() -> flights.run("list", () -> "own"));
+        Thread.sleep(50);
+        release.countDown();
+
+        assertEquals("shared", joined.get(1, TimeUnit.SECONDS));
+        assertEquals("shared", async.get(1, TimeUnit.SECONDS));
+        assertEquals(1, flights.loadCount("list"));
+        other.shutdownNow();
+    }
+
+    @Test
+    public void blockingRun_onSdkThread_takesOverQueuedLoad() throws Exception {
+        // The SDK thread runs a task that reads while an identical read is queued behind it
+        CountDownLatch queued = new CountDownLatch(1);
+        Future<?> outer = worker.submit(() -> {
+            awaitQuietly(queued);
+            return flights.run("enabled", () -> "inline");
+        });
+        Future<String> async = flights.submit("enabled", () -> "queued", executor, null);
+        queued.countDown();
+
+        assertEquals("inline", outer.get(1, TimeUnit.SECONDS));
+        assertEquals("inline", async.get(1, TimeUnit.SECONDS));
+        assertEquals(1, flights.loadCount("enabled"));
+    }
+
+    @Test
+    public void failure_isSharedAndNextRequestReloads() throws Exception {
+        Future<Object> failed = flights.submit("status", () -> {
+            throw new IllegalStateException("boom");
+        }, executor, null);
+        try {
+            failed.get(1, TimeUnit.SECONDS);
+            fail("expected failure");
+        } catch (java.util.concurrent.ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        assertEquals("ok", flights.run("status", () -> "ok"));
+        assertEquals(2, flights.loadCount("status"));
+    }
+
+    @Test
+    public void forget_letsNextRequestStartFreshLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        flights.submit("touch", () -> {
+            awaitQuietly(release);
+            return "stale";
+        }, executor, null);
+        flights.forget("touch");
+        Future<String> fresh = flights.submit("touch", () -> "fresh", executor, null);
+        release.countDown();
+
+        assertEquals("fresh", fresh.get(1, TimeUnit.SECONDS));
+        assertEquals(2, flights.loadCount("touch"));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
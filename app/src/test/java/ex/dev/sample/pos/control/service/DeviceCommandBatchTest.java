@@ -0,0 +1,112 @@
+package ex.dev.sample.pos.control.service;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import ex.dev.sample.pos.control.data.ApiDataSource;
+import ex.dev.sample.pos.control.data.CallMetrics;
+import ex.dev.sample.pos.control.data.CallTrace;
+import ex.dev.sample.pos.control.data.CashDrawerCommandQueue;
+import ex.dev.sample.pos.control.data.SdkExecutor;
+import ex.dev.sample.pos.control.data.SimulatedDeviceBackend;
+
+import static org.junit.Assert.*;
+
+public class DeviceCommandBatchTest {
+
+    private ExecutorService worker;
+    private ExecutorService callbacks;
+    private SimulatedDeviceBackend backend;
+    private DeviceCommandBatch batch;
+
+    @Before
+    public void setUp() {
+        worker = Executors.newSingleThreadExecutor();
+        callbacks = Executors.newSingleThreadExecutor();
+        backend = new SimulatedDeviceBackend();
+        ApiDataSource dataSource = new ApiDataSource(backend, new SdkExecutor(worker, callbacks),
+                new CallMetrics(), new CallTrace(16));
+        batch = new DeviceCommandBatch(dataSource, new CashDrawerCommandQueue(dataSource, 1_000), 2_000,
+                3_000);
+    }
+
+    @After
+    public void tearDown() {
+        worker.shutdownNow();
+        callbacks.shutdownNow();
+    }
+
+    @Test
+    public void commandsRunInOrder_readsSeePrecedingWrites() {
+        List<DeviceCommandBatch.Result> results = batch.execute(Arrays.asList(
+                DeviceCommandBatch.Command.of(DeviceCommandBatch.Op.GET_CASH_DRAWER_STATUS),
+                DeviceCommandBatch.Command.of(DeviceCommandBatch.Op.OPEN_CASH_DRAWER),
+                DeviceCommandBatch.Command.of(DeviceCommandBatch.Op.GET_CASH_DRAWER_STATUS),
+                new DeviceCommandBatch.Command(DeviceCommandBatch.Op.SET_2ND_DISPLAY_TOUCH_ENABLED, true, false),
+                DeviceCommandBatch.Command.of(DeviceCommandBatch.Op.IS_2ND_DISPLAY_TOUCH_ENABLED),
+                DeviceCommandBatch.Command.of(DeviceCommandBatch.Op.GET_VID_ALLOW_LIST)
+        ), true);
+
+        assertEquals(6, results.size());
+        for (DeviceCommandBatch.Result r : results) assertTrue(r.error, r.ok);
+        assertEquals(Boolean.FALSE, results.get(0).value);
+        assertEquals(Boolean.TRUE, results.get(1).value);
+        assertEquals(Boolean.TRUE, results.get(2).value);
+        assertEquals(Boolean.TRUE, results.get(4).value);
+        assertTrue(results.get(5).value instanceof String[]);
+    }
+
+    @Test
+    public void stopOnError_skipsRemainingCommands() {
+        backend.failNext(SimulatedDeviceBackend.Call.OPEN_CASH_BOX, 1);
+        List<DeviceCommandBatch.Command> commands = Arrays.asList(
+                DeviceCommandBatch.Command.of(DeviceCommandBatch.Op.OPEN_CASH_DRAWER),
+                DeviceCommandBatch.Command.of(DeviceCommandBatch.Op.GET_CASH_DRAWER_STATUS));
+
+        List<DeviceCommandBatch.Result> results = batch.execute(commands, true);
+        assertFalse(results.get(0).ok);
+        assertNotNull(results.get(0).error);
+        assertTrue(results.get(1).skipped);
+        assertEquals(0, backend.getCallCount(SimulatedDeviceBackend.Call.GET_CASH_BOX_STATUS));
+
+        backend.failNext(SimulatedDeviceBackend.Call.OPEN_CASH_BOX, 1);
+        results = batch.execute(commands, false);
+        assertFalse(results.get(0).ok);
+        assertTrue(results.get(1).ok);
+    }
+
+    @Test
+    public void slowCommand_timesOut() {
+        backend.setLatencyMs(SimulatedDeviceBackend.Call.IS_VID_ALLOW_LIST_ENABLED, 3_000);
+        List<DeviceCommandBatch.Result> results = batch.execute(Arrays.asList(
+                DeviceCommandBatch.Command.of(DeviceCommandBatch.Op.IS_VID_ALLOW_LIST_ENABLED)), true);
+        assertFalse(results.get(0).ok);
+        assertTrue(results.get(0).error, results.get(0).error.startsWith("timeout"));
+    }
+
+    @Test
+    public void slowBatch_stopsAtTheBatchDeadline() {
+        backend.setLatencyMs(SimulatedDeviceBackend.Call.IS_VID_ALLOW_LIST_ENABLED, 1_200);
+        DeviceCommandBatch.Command slowRead =
+                new DeviceCommandBatch.Command(DeviceCommandBatch.Op.IS_VID_ALLOW_LIST_ENABLED, false, true);
+
+        long start = System.nanoTime();
+        List<DeviceCommandBatch.Result> results = batch.execute(Arrays.asList(
+                slowRead, slowRead, slowRead, slowRead, slowRead), false);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue("batch took " + elapsedMs + " ms", elapsedMs < 3_500);
+        assertTrue(results.get(0).ok);
+        assertTrue(results.get(1).ok);
+        assertFalse(results.get(2).ok);    // cut short by the deadline
+        assertTrue(results.get(4).skipped);
+        assertTrue(results.get(4).error, results.get(4).error.contains("deadline"));
+    }
+}
@@ -0,0 +1,81 @@
+package ex.dev.sample.pos.control.vid;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BlockedVidLogTest {
+
+    private static final long T0 = 1_700_000_000_000L;
+
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("blocked-vid-log").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) for (File f : files) f.delete();
+        dir.delete();
+    }
+
+    @Test
+    public void topVids_comesFromRollupsAndSurvivesReopen() throws IOException {
+        try (BlockedVidLog log = new BlockedVidLog(dir, 1 << 20, 4, 0)) {
+            log.append(0x046D, T0);
+            log.append(0x046D, T0 + BlockedVidLog.HOUR_MS);
+            log.append(0x18D1, T0 + BlockedVidLog.HOUR_MS);
+            log.append(0x046D, T0 + 10 * BlockedVidLog.HOUR_MS);
+        }
+        try (BlockedVidLog log = new BlockedVidLog(dir, 1 << 20, 4, 0)) {
+            List<BlockedVidLog.VidCount> top = log.topVids(T0, T0 + BlockedVidLog.HOUR_MS, 10);
+            assertEquals(2, top.size());
+            assertEquals(0x046D, top.get(0).vid);
+            assertEquals(2, top.get(0).count);
+            assertEquals(0x18D1, top.get(1).vid);
+            assertEquals(4, log.lastSeq());
+        }
+    }
+
+    @Test
+    public void reopen_withoutSnapshot_reaggregatesRawRecords() throws IOException {
+        BlockedVidLog log = new BlockedVidLog(dir, 1 << 20, 4, 0);
+        log.append(0x046D, T0);
+        log.append(0x046D, T0);
+        log.flush();
+        log.append(0x18D1, T0);   // flushed raw only below, not in the snapshot
+        log.close();
+        assertTrue(new File(dir, "rollup.bin").delete());
+
+        try (BlockedVidLog reopened = new BlockedVidLog(dir, 1 << 20, 4, 0)) {
+            List<BlockedVidLog.VidCount> top = reopened.topVids(T0, T0, 10);
+            assertEquals(2, top.get(0).count);
+            assertEquals(1, top.get(1).count);
+            assertEquals(3, reopened.lastSeq());
+        }
+    }
+
+    @Test
+    public void rotation_keepsBoundedFilesAndRollupTotals() throws IOException {
+        long maxBytes = 8 + 10 * BlockedVidLog.RECORD_SIZE;
+        try (BlockedVidLog log = new BlockedVidLog(dir, maxBytes, 2, 0)) {
+            for (int i = 0; i < 100; i++) log.append(0x046D, T0 + i);
+        }
+        File[] rotated = dir.listFiles((d, name) -> name.startsWith("events-") && !name.equals("events-current.bin"));
+        assertNotNull(rotated);
+        assertTrue(rotated.length <= 2);
+        try (BlockedVidLog log = new BlockedVidLog(dir, maxBytes, 2, 0)) {
+            assertEquals(100, log.topVids(T0, T0, 1).get(0).count);
+        }
+    }
+}
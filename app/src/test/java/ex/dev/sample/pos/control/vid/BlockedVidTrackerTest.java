@@ -0,0 +1,91 @@
+package ex.dev.sample.pos.control.vid;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BlockedVidTrackerTest {
+
+    @Test
+    public void record_rateLimitsPerVidWindow() {
+        BlockedVidTracker tracker = new BlockedVidTracker(8, 4, 1_000);
+        assertTrue(tracker.record("046D", 0));
+        assertFalse(tracker.record("046D", 10));
+        assertFalse(tracker.record("046D", 999));
+        assertTrue(tracker.record("18D1", 500));   // other VID has its own window
+        assertTrue(tracker.record("046D", 1_000));
+    }
+
+    @Test
+    public void record_aggregatesCountsAndTimes() {
+        BlockedVidTracker tracker = new BlockedVidTracker(8, 4, 1_000);
+        tracker.record("046D", 100);
+        tracker.record("18D1", 200);
+        tracker.record("046D", 300);
+
+        List<BlockedVidTracker.Stats> stats = tracker.snapshot();
+        assertEquals("046D", stats.get(0).vid);
+        assertEquals(2, stats.get(0).count);
+        assertEquals(100, stats.get(0).firstSeenMs);
+        assertEquals(300, stats.get(0).lastSeenMs);
+        assertEquals(3, tracker.totalEvents());
+    }
+
+    @Test
+    public void record_keysVidsByValue() {
+        BlockedVidTracker tracker = new BlockedVidTracker(8, 4, 1_000);
+        assertTrue(tracker.record("046D", 0));
+        assertFalse(tracker.record("0x046d", 10));   // same VID, same window
+        tracker.record("junk", 20);
+        tracker.record("junk", 30);
+
+        List<BlockedVidTracker.Stats> stats = tracker.snapshot();
+        assertEquals(2, stats.size());
+        assertEquals("junk", stats.get(0).vid);
+        assertEquals(VidSet.NO_VALUE, stats.get(0).value);
+        assertEquals("046D", stats.get(1).vid);
+        assertEquals(0x046D, stats.get(1).value);
+        assertEquals(2, stats.get(1).count);
+    }
+
+    @Test
+    public void record_evictsLeastRecentlySeenVid() {
+        BlockedVidTracker tracker = new BlockedVidTracker(8, 2, 0);
+        tracker.record("A1A1", 1);
+        tracker.record("B2B2", 2);
+        tracker.record("C3C3", 3);
+        tracker.record("D4D4", 4);
+
+        assertEquals(2, tracker.snapshot().size());
+        assertEquals("D4D4", tracker.snapshot().get(0).vid);
+        assertEquals("C3C3", tracker.snapshot().get(1).vid);
+        assertEquals(4, tracker.totalEvents());
+    }
+
+    @Test
+    public void recent_returnsNewestRawEventsWithinCapacity() {
+        BlockedVidTracker tracker = new BlockedVidTracker(3, 4, 1_000);
+        tracker.record("046D", 1);
+        tracker.record("0x046d", 2);
+        tracker.record("18D1", 3);
+        tracker.record("046D", 4);
+
+        List<String> vids = new ArrayList<>();
+        List<Long> times = new ArrayList<>();
+        assertEquals(3, tracker.recent(10, vids, times));
+        assertEquals(Arrays.asList("046D", "18D1", "0x046d"), vids);   // as received, oldest dropped
+        assertEquals(Arrays.asList(4L, 3L, 2L), times);
+
+        vids.clear();
+        assertEquals(1, tracker.recent(1, vids, null));
+        assertEquals(Arrays.asList("046D"), vids);
+
+        tracker.clear();
+        vids.clear();
+        assertEquals(0, tracker.recent(10, vids, null));
+    }
+}
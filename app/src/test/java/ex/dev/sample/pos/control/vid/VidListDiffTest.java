@@ -0,0 +1,40 @@
+package ex.dev.sample.pos.control.vid;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class VidListDiffTest {
+
+    @Test
+    public void compute_ignoresOrderAndPrefix() {
+        VidSet local = new VidSet();
+        local.add("0x18D1");
+        local.add("046D");
+
+        VidListDiff diff = VidListDiff.compute(new String[]{"046d", "18D1"}, local);
+        assertTrue(diff.isEmpty());
+    }
+
+    @Test
+    public void compute_reportsAddedAndRemoved() {
+        VidSet local = new VidSet();
+        local.add("046D");
+        local.add("1A86");
+
+        VidListDiff diff = VidListDiff.compute(new String[]{"046D", "18D1", "18D1"}, local);
+        assertEquals(Collections.singletonList("1A86"), diff.added);
+        assertEquals(Collections.singletonList("18D1"), diff.removed);
+    }
+
+    @Test
+    public void compute_nullDeviceListMeansEmpty() {
+        VidSet local = new VidSet();
+        assertTrue(VidListDiff.compute(null, local).isEmpty());
+        local.add("046D");
+        assertEquals(Arrays.asList("046D"), VidListDiff.compute(null, local).added);
+    }
+}
@@ -0,0 +1,46 @@
+package ex.dev.sample.pos.control.vid;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+public class VidListImporterTest {
+
+    @Test
+    public void read_parsesCsvAndTextDedupesAndReportsLineNumbers() throws Exception {
+        VidSet existing = new VidSet();
+        existing.add("046D");
+
+        String file = "# fleet allow list\n"
+                + "0x18d1, 046d\n"
+                + "\n"
+                + "\"1A86\";\"0X2341FF\"  # arduino\n"
+                + "hello\n"
+                + "18D1 0483\n";
+        VidListImporter.Result result = VidListImporter.read(new StringReader(file), existing);
+
+        assertEquals(4, result.added.size());
+        assertEquals("0x18D1", result.added.get(0));
+        assertEquals("1A86", result.added.get(1));
+        assertEquals("0x2341FF", result.added.get(2));
+        assertEquals("0483", result.added.get(3));
+        assertEquals(2, result.duplicates);
+        assertEquals(1, result.invalidLineCount);
+        assertEquals("Line 5: hello", result.invalidLines.get(0));
+    }
+
+    @Test
+    public void read_capsReportedInvalidLines() throws Exception {
+        StringBuilder file = new StringBuilder();
+        for (int i = 0; i < VidListImporter.MAX_REPORTED_LINES + 10; i++) {
+            file.append("zz").append(i).append('\n');
+        }
+        VidListImporter.Result result = VidListImporter.read(new StringReader(file.toString()), new VidSet());
+
+        assertEquals(VidListImporter.MAX_REPORTED_LINES + 10, result.invalidLineCount);
+        assertEquals(VidListImporter.MAX_REPORTED_LINES, result.invalidLines.size());
+        assertEquals(0, result.added.size());
+    }
+}
@@ -0,0 +1,42 @@
+package ex.dev.sample.pos.control.vid;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class VidParserTest {
+
+    @Test
+    public void normalize_keepsPrefixAndUppercasesDigits() {
+        assertEquals("046D", VidParser.normalize("046d"));
+        assertEquals("0x046D", VidParser.normalize(" 0X046d "));
+        assertEquals("0x18D1FF", VidParser.normalize("0x18d1ff"));
+        assertEquals("000A", VidParser.normalize("000a"));
+    }
+
+    @Test
+    public void parse_exposesValueAndDigitCount() {
+        int parsed = VidParser.parse("0x18D1FF");
+        assertEquals(0x18D1FF, VidParser.value(parsed));
+        assertEquals(6, VidParser.digitCount(parsed));
+        assertTrue(VidParser.hasPrefix(parsed));
+
+        parsed = VidParser.parse("046D");
+        assertEquals(0x046D, VidParser.value(parsed));
+        assertEquals(4, VidParser.digitCount(parsed));
+        assertFalse(VidParser.hasPrefix(parsed));
+    }
+
+    @Test
+    public void parse_rejectsWithSpecificErrors() {
+        assertEquals(VidParser.ERROR_EMPTY, VidParser.parse(null));
+        assertEquals(VidParser.ERROR_EMPTY, VidParser.parse("   "));
+        assertEquals(VidParser.ERROR_INVALID_CHAR, VidParser.parse("04G6"));
+        assertEquals(VidParser.ERROR_INVALID_CHAR, VidParser.parse("04 6D"));
+        assertEquals(VidParser.ERROR_INCOMPLETE, VidParser.parse("0x"));
+        assertEquals(VidParser.ERROR_INCOMPLETE, VidParser.parse("046"));
+        assertEquals(VidParser.ERROR_INCOMPLETE, VidParser.parse("046D1"));
+        assertEquals(VidParser.ERROR_TOO_LONG, VidParser.parse("046D1234"));
+        assertNull(VidParser.normalize("046D1"));
+    }
+}
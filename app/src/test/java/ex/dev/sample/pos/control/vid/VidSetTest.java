@@ -0,0 +1,83 @@
+package ex.dev.sample.pos.control.vid;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class VidSetTest {
+
+    @Test
+    public void add_keysOnlyWhatVidParserAccepts() {
+        VidSet set = new VidSet();
+        assertTrue(set.add(" 0x046d "));
+        assertTrue(set.add("0X18D1FF"));
+        assertEquals(0x046D, set.valueAt(0));
+        assertEquals(0x18D1FF, set.valueAt(1));
+        // Not 4 or 6 digits: kept for display, never deduplicated
+        assertTrue(set.add("46D"));
+        assertTrue(set.add("46D"));
+        assertTrue(set.add("0001234"));
+        assertEquals(VidSet.NO_VALUE, set.valueAt(2));
+        assertEquals(VidSet.NO_VALUE, set.valueAt(4));
+        assertFalse(set.containsValue(0x1234));
+        assertEquals(2, set.indexOf("46D"));
+    }
+
+    @Test
+    public void add_dedupesByValueAndKeepsDisplayOrder() {
+        VidSet set = new VidSet();
+        assertTrue(set.add("046D"));
+        assertTrue(set.add("0x18D1"));
+        assertFalse(set.add("0x046d"));
+        assertFalse(set.add(" 0X046D "));
+        assertEquals(2, set.size());
+        assertEquals("046D", set.get(0));
+        assertEquals("0x18D1", set.get(1));
+        assertTrue(set.contains("0x046D"));
+    }
+
+    @Test
+    public void remove_keepsOrderAndAllowsReAdd() {
+        VidSet set = new VidSet();
+        set.add("0001");
+        set.add("0002");
+        set.add("0003");
+        assertEquals("0002", set.remove(1));
+        assertEquals("0003", set.get(1));
+        assertFalse(set.containsValue(2));
+        assertTrue(set.add("0x0002"));
+        assertEquals("0x0002", set.get(2));
+        assertEquals(1, set.indexOf("0x0003"));
+        assertEquals(2, set.indexOf("0002"));
+        assertEquals(-1, set.indexOfValue(4));
+    }
+
+    @Test
+    public void randomOps_matchReferenceList() {
+        Random random = new Random(7);
+        VidSet set = new VidSet();
+        List<Integer> reference = new ArrayList<>();
+        for (int step = 0; step < 20_000; step++) {
+            if (random.nextInt(3) == 0 && !reference.isEmpty()) {
+                int index = random.nextInt(reference.size());
+                reference.remove(index);
+                set.remove(index);
+            } else {
+                int value = random.nextInt(2_000);
+                boolean added = set.add(String.format("%04x", value));
+                assertEquals(!reference.contains(value), added);
+                if (added) reference.add(value);
+            }
+        }
+        assertEquals(reference.size(), set.size());
+        for (int i = 0; i < reference.size(); i++) {
+            assertEquals((int) reference.get(i), set.valueAt(i));
+            assertTrue(set.containsValue(reference.get(i)));
+            assertEquals(i, set.indexOfValue(reference.get(i)));
+        }
+    }
+}
@@ -0,0 +1,43 @@
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+// Benchmarks run on the host JVM, so only the plain-Java app sources are compiled here.
+// The simulated device is a test fixture shared with the app's unit tests (app/src/sharedTest),
+// so it does not ship in the APK and the unit tests themselves stay out of this module.
+sourceSets {
+    main {
+        java {
+            srcDir("../app/src/main/java")
+            srcDir("../app/src/sharedTest/java")
+            include(
+                "ex/dev/sample/pos/control/vid/VidParser.java",
+                "ex/dev/sample/pos/control/vid/VidSet.java",
+                "ex/dev/sample/pos/control/data/DeviceBackend.java",
+                "ex/dev/sample/pos/control/data/SimulatedDeviceBackend.java",
+            )
+        }
+    }
+}
+
+dependencies {
+    compileOnly(libs.annotation)
+}
+
+jmh {
+    jmhVersion = libs.versions.jmh
+    // Report allocation rate (gc.alloc.rate.norm) next to throughput
+    profilers = listOf("gc")
+    benchmarkMode = listOf("thrpt")
+    timeUnit = "s"
+    warmupIterations = 3
+    iterations = 5
+    fork = 1
+    resultFormat = "JSON"
+}
@@ -0,0 +1,34 @@
+package ex.dev.sample.pos.control.benchmark;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Deterministic VID inputs shaped like pasted allow lists:
+ * mixed 4/6 digits, optional 0x prefix, mixed case, stray whitespace.
+ */
+final class VidData {
+
+    private VidData() {
+    }
+
+    /**
+     * {@code size} distinct VIDs in raw user-input form.
+     */
+    static String[] rawInputs(int size) {
+        Random random = new Random(42);
+        String[] out = new String[size];
+        for (int i = 0; i < size; i++) {
+            // Distinct numeric values; larger lists spill into 6-digit VIDs
+            int value = i < 0x10000 ? i : 0x10000 + i;
+            String hex = value < 0x10000
+                    ? String.format(Locale.US, "%04x", value)
+                    : String.format(Locale.US, "%06x", value);
+            if (random.nextBoolean()) hex = hex.toUpperCase(Locale.US);
+            if (random.nextInt(4) == 0) hex = "0x" + hex;
+            if (random.nextInt(8) == 0) hex = " " + hex + " ";
+            out[i] = hex;
+        }
+        return out;
+    }
+}
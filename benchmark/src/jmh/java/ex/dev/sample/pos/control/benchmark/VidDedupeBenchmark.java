@@ -0,0 +1,42 @@
+package ex.dev.sample.pos.control.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import ex.dev.sample.pos.control.vid.VidSet;
+import ex.dev.sample.pos.control.vid.VidParser;
+
+/**
+ * Adding a list of normalized VIDs one by one with the duplicate check used by "Add".
+ * Half of the inputs are repeated, so both the hit and the miss path are measured.
+ */
+@State(Scope.Benchmark)
+public class VidDedupeBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int size;
+
+    private String[] normalized;
+
+    @Setup
+    public void setUp() {
+        String[] raw = VidData.rawInputs(size);
+        normalized = new String[size * 2];
+        for (int i = 0; i < size; i++) {
+            normalized[i] = VidParser.normalize(raw[i]);
+            normalized[size + i] = normalized[i];
+        }
+    }
+
+    @Benchmark
+    public VidSet addAllWithDedupe() {
+        VidSet set = new VidSet();
+        for (String vid : normalized) {
+            set.add(vid);
+        }
+        return set;
+    }
+}
@@ -0,0 +1,64 @@
+package ex.dev.sample.pos.control.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import ex.dev.sample.pos.control.data.SimulatedDeviceBackend;
+import ex.dev.sample.pos.control.vid.VidParser;
+import ex.dev.sample.pos.control.vid.VidSet;
+
+/**
+ * Loading the allow list from the device into the screen list and applying it back.
+ * <p>
+ * The device is {@link SimulatedDeviceBackend} with zero latency, so only app-side
+ * work is measured: the array copy, the deduped list build and the debug log strings that
+ * ApiDataSource.getAllowList and VidAllowListActivity.loadListFromDevice build.
+ */
+@State(Scope.Benchmark)
+public class VidListBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int size;
+
+    private SimulatedDeviceBackend backend;
+    private final VidSet vidList = new VidSet();
+
+    @Setup
+    public void setUp() {
+        String[] raw = VidData.rawInputs(size);
+        String[] normalized = new String[size];
+        for (int i = 0; i < size; i++) {
+            normalized[i] = VidParser.normalize(raw[i]);
+        }
+        backend = new SimulatedDeviceBackend();
+        backend.setVidAllowList(normalized);
+        vidList.clear();
+        Collections.addAll(vidList, normalized);
+    }
+
+    @Benchmark
+    public void load(Blackhole bh) {
+        String[] result = backend.getVidAllowList();
+        // ApiDataSource.getAllowList debug log
+        bh.consume("getAllowList: " + Arrays.toString(result));
+
+        VidSet list = new VidSet();
+        Collections.addAll(list, result);
+        // VidAllowListActivity.loadListFromDevice debug log
+        bh.consume("loaded: " + Arrays.toString(list.toArray()));
+        bh.consume(list);
+    }
+
+    @Benchmark
+    public void apply() {
+        String[] arr = vidList.toArray(new String[0]);
+        backend.setVidAllowList(arr);
+    }
+}
@@ -0,0 +1,42 @@
+package ex.dev.sample.pos.control.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import ex.dev.sample.pos.control.vid.VidParser;
+
+/**
+ * Normalization of a whole pasted list (one op = every input processed once).
+ * {@link #validateAll} is the per-keystroke path: parse only, no strings built.
+ */
+@State(Scope.Benchmark)
+public class VidNormalizeBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int size;
+
+    private String[] inputs;
+
+    @Setup
+    public void setUp() {
+        inputs = VidData.rawInputs(size);
+    }
+
+    @Benchmark
+    public void normalizeAll(Blackhole bh) {
+        for (String s : inputs) {
+            bh.consume(VidParser.normalize(s));
+        }
+    }
+
+    @Benchmark
+    public void validateAll(Blackhole bh) {
+        for (String s : inputs) {
+            bh.consume(VidParser.parse(s));
+        }
+    }
+}
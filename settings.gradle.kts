@@ -21,4 +21,5 @@ dependencyResolutionManagement {
 
 rootProject.name = "PosControlSample"
 include(":app")
+include(":benchmark")
  
\ No newline at end of file